@@ -0,0 +1,114 @@
+#!/bin/bash
+set -Eeuo pipefail
+cd "$(dirname "$(readlink -f "$0")")"
+
+# Benchmark the transactions feed queries (as generated by TransactionService.listTransactions) on a large ledger.
+# WARNING: The database content is replaced (run ./dev.sh db-seed afterward to restore the tests data).
+
+users_count=1000
+transactions_count=1000000
+page_size=20
+iterations=50
+
+# password is "password", encoded with bcrypt
+users_password='$2b$10$55EvTUX/nSrzEx2SGkFgruASUN4g35r/LyyFHNdfh9wL./izAW8AW'
+
+sql_query() {
+  # echo "$1"
+  mariadb -e "$1" -h localhost -P 14373 --protocol=TCP -u pmb -ppmb -sN pmb
+}
+
+seed() {
+  echo 'Tuncate tables...'
+  sql_query '
+      SET FOREIGN_KEY_CHECKS = 0;
+      TRUNCATE `users`;
+      TRUNCATE `user_balances`;
+      TRUNCATE `user_contacts`;
+      TRUNCATE `user_contact_counts`;
+      TRUNCATE `transactions`;
+      TRUNCATE `user_ledger`;
+      SET FOREIGN_KEY_CHECKS = 1;'
+
+  echo "Seed ${users_count} users"
+  sql_query 'INSERT INTO `users`(`id`, `email`, `password`, `name`, `default_currency`)
+             SELECT `seq`, CONCAT("bench", `seq`, "@test.fr"), "'"$users_password"'", CONCAT("Bench ", `seq`), "USD"
+             FROM `seq_1_to_'"$users_count"'`;'
+
+  # Users are picked with a skewed distribution (the first users have much more transactions than the others)
+  echo "Seed ${transactions_count} transactions"
+  sql_query 'INSERT INTO `transactions`(`sender_id`, `recipient_id`, `currency`, `amount`, `fee`, `description`, `date`)
+             SELECT `s`.`sender_id`,
+                    1 + MOD(`s`.`sender_id` + FLOOR(1 + RAND(`seq` * 2) * ('"$users_count"' - 1)) - 1, '"$users_count"'),
+                    "USD", `s`.`amount`, ROUND(`s`.`amount` / 200, 2), "Benchmark",
+                    DATE_SUB(NOW(), INTERVAL `seq` SECOND)
+             FROM (SELECT `seq`,
+                          1 + FLOOR(POW(RAND(`seq`), 3) * '"$users_count"') AS `sender_id`,
+                          ROUND(0.01 + RAND(`seq` * 3) * 200, 2) AS `amount`
+                   FROM `seq_1_to_'"$transactions_count"'`) AS `s`;'
+
+  echo "Seed $((transactions_count * 2)) ledger entries"
+  sql_query 'INSERT INTO `user_ledger`(`user_id`, `type`, `transaction_id`, `currency`, `amount`, `fee`, `date`)
+             SELECT `user_id`, "TRANSACTION", `transaction_id`, `currency`, `amount`, `fee`, `date`
+             FROM (SELECT `id` AS `transaction_id`, `sender_id` AS `user_id`, `currency`, -`amount` AS `amount`, `fee`, `date`
+                   FROM `transactions`
+                   UNION ALL
+                   SELECT `id` AS `transaction_id`, `recipient_id` AS `user_id`, `currency`, `amount`, 0 AS `fee`, `date`
+                   FROM `transactions`) AS `t`
+             ORDER BY `transaction_id`, `amount`;'
+  sql_query 'ANALYZE TABLE `transactions`, `user_ledger`;' >/dev/null
+}
+
+# Print the average latency (in ms) of a query, executed ${iterations} times in a single session.
+bench_query() {
+  name="$1"
+  query="$2"
+
+  queries=''
+  for ((i = 0; i < iterations; i = i + 1)); do
+    queries+="${query};"
+  done
+  start=$(date +%s%N)
+  sql_query "$queries" >/dev/null
+  end=$(date +%s%N)
+  printf '  %-28s %8.3f ms/page\n' "$name" "$(echo "($end - $start) / $iterations / 1000000" | bc -l)"
+}
+
+# Fetch a page of the user's ledger (plus one row, to detect the next page), joined with the transactions and users.
+bench_page() {
+  name="$1"
+  cursor_where="$2"
+  order_by="$3"
+
+  limit=$((page_size + 1))
+  where="${cursor_where:+${cursor_where} AND }"
+  bench_query "$name" \
+    'SELECT * FROM `user_ledger` AS `l`
+     INNER JOIN `transactions` AS `t` ON `t`.`id` = `l`.`transaction_id`
+     INNER JOIN `users` AS `s` ON `s`.`id` = `t`.`sender_id`
+     INNER JOIN `users` AS `r` ON `r`.`id` = `t`.`recipient_id`
+     WHERE '"$where"'`l`.`user_id` = '"$user_id"' AND `l`.`transaction_id` IS NOT NULL ORDER BY '"$order_by"' LIMIT '"$limit"
+}
+
+bench() {
+  user_id="$(sql_query 'SELECT `user_id` FROM `user_ledger` GROUP BY `user_id` ORDER BY COUNT(*) DESC LIMIT 1;')"
+  user_transactions="$(sql_query 'SELECT COUNT(*) FROM `user_ledger` WHERE `user_id` = '"$user_id"';')"
+  middle_id="$(sql_query 'SELECT `transaction_id` FROM `user_ledger` WHERE `user_id` = '"$user_id"' ORDER BY `transaction_id` LIMIT 1 OFFSET '"$((user_transactions / 2))"';')"
+  middle_amount="$(sql_query 'SELECT `abs_amount` FROM `user_ledger` WHERE `user_id` = '"$user_id"' AND `transaction_id` = '"$middle_id"';')"
+  echo "Benchmark user ${user_id} (${user_transactions} transactions, ${page_size} per page)"
+
+  bench_page 'First page (sort=id)' '' '`l`.`transaction_id` ASC'
+  bench_page 'Deep page (sort=id)' '`l`.`transaction_id` > '"$middle_id" '`l`.`transaction_id` ASC'
+  bench_page 'First page (sort=-amount,-id)' '' '`l`.`abs_amount` DESC, `l`.`transaction_id` DESC'
+  bench_page 'Deep page (sort=-amount,-id)' '(`l`.`abs_amount`, `l`.`transaction_id`) < ('"$middle_amount"', '"$middle_id"')' '`l`.`abs_amount` DESC, `l`.`transaction_id` DESC'
+}
+
+main() {
+  if [[ "${1:-}" != "--no-seed" ]]; then
+    seed
+  fi
+  bench
+}
+
+main "$@"
+exit 0
@@ -0,0 +1,50 @@
+#!/bin/bash
+set -Eeuo pipefail
+cd "$(dirname "$(readlink -f "$0")")"
+
+# Benchmark the batch transactions endpoint (POST /user/transaction/batch) of a running server.
+# Run it on a seeded database (./dev.sh db-seed), once with the server started with JDBC_BATCH_SIZE=1 (one round-trip
+# per SQL statement) and once with the default JDBC batch size, to compare both.
+# WARNING: Transactions are created (run ./dev.sh db-seed afterward to restore the tests data).
+
+api_url="${API_URL:-http://localhost:8081}"
+email='test@test.com'
+password='password'
+batch_size=20
+iterations=100
+
+sql_query() {
+  # echo "$1"
+  mariadb -e "$1" -h localhost -P 14373 --protocol=TCP -u pmb -ppmb -sN pmb
+}
+
+api_post() {
+  path="$1"
+  body="$2"
+  curl -sSf -X POST -H 'Content-Type: application/json' ${token:+-H "x-auth-token: ${token}"} -d "$body" "${api_url}${path}"
+}
+
+main() {
+  token="$(api_post '/auth/login' '{"email":"'"$email"'","password":"'"$password"'"}' | sed -E 's/.*"token":"([^"]+)".*/\1/')"
+  user_id="$(sql_query 'SELECT `id` FROM `users` WHERE `email` = "'"$email"'";')"
+  contacts_ids=($(sql_query 'SELECT `contact_id` FROM `user_contacts` WHERE `user_id` = '"$user_id"' ORDER BY `contact_id`;'))
+
+  transactions=''
+  for ((i = 0; i < batch_size; i = i + 1)); do
+    contact_id="${contacts_ids[$((i % ${#contacts_ids[@]}))]}"
+    transactions+="${transactions:+,}"'{"recipientId":'"$contact_id"',"currency":"USD","amount":"0.01","description":"Benchmark"}'
+  done
+  body='{"transactions":['"$transactions"']}'
+
+  echo "Benchmark user ${user_id} (${iterations} batches of ${batch_size} transactions)"
+  api_post '/user/transaction/batch' "$body" >/dev/null # warm-up
+  start=$(date +%s%N)
+  for ((i = 0; i < iterations; i = i + 1)); do
+    api_post '/user/transaction/batch' "$body" >/dev/null
+  done
+  end=$(date +%s%N)
+  printf '  %8.3f ms/batch\n' "$(echo "($end - $start) / $iterations / 1000000" | bc -l)"
+}
+
+main "$@"
+exit 0
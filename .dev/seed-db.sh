@@ -124,8 +124,8 @@ seed_contacts() {
   contacts_ids="$(echo "$contacts_ids" | grep -v "^$user_id$" || true)"
   if [[ -n "$contacts_ids" ]]; then
     while IFS= read -r contact_id; do
-      sql_query 'INSERT INTO `user_contacts`(`user_id`, `contact_id`)
-                 VALUES("'"$user_id"'", "'"$contact_id"'");'
+      sql_query 'INSERT INTO `user_contacts`(`user_id`, `contact_id`, `name`, `email`)
+                 SELECT "'"$user_id"'", `id`, `name`, `email` FROM `users` WHERE `id` = "'"$contact_id"'";'
     done <<<"$contacts_ids"
   fi
 }
@@ -146,6 +146,18 @@ seed_transaction() {
              VALUES('"$sender_id"', '"$recipient_id"', "'"$currency"'", "'"$amount"'", "'"$fee"'", "'"$description"'", "'"$date"'");'
 }
 
+# Create the ledger entries (sender and recipient sides) of all transactions
+seed_ledger() {
+  sql_query 'INSERT INTO `user_ledger`(`user_id`, `type`, `transaction_id`, `currency`, `amount`, `fee`, `date`)
+             SELECT `user_id`, "TRANSACTION", `transaction_id`, `currency`, `amount`, `fee`, `date`
+             FROM (SELECT `id` AS `transaction_id`, `sender_id` AS `user_id`, `currency`, -`amount` AS `amount`, `fee`, `date`
+                   FROM `transactions`
+                   UNION ALL
+                   SELECT `id` AS `transaction_id`, `recipient_id` AS `user_id`, `currency`, `amount`, 0 AS `fee`, `date`
+                   FROM `transactions`) AS `t`
+             ORDER BY `transaction_id`, `amount`;'
+}
+
 main() {
   echo 'Tuncate tables...'
   sql_query '
@@ -153,7 +165,9 @@ main() {
       TRUNCATE `users`;
       TRUNCATE `user_balances`;
       TRUNCATE `user_contacts`;
+      TRUNCATE `user_contact_counts`;
       TRUNCATE `transactions`;
+      TRUNCATE `user_ledger`;
       SET FOREIGN_KEY_CHECKS = 1;'
 
   echo 'Seed users (with balances)'
@@ -165,6 +179,8 @@ main() {
   for ((user_id = 1; user_id <= "$users_count"; user_id = user_id + 1)); do
     seed_contacts "$user_id"
   done
+  sql_query 'INSERT INTO `user_contact_counts`(`user_id`, `contacts`)
+             SELECT `user_id`, COUNT(*) FROM `user_contacts` GROUP BY `user_id`;'
 
   echo 'Seed transactions'
   for ((i = 0; i < 250; i = i + 1)); do
@@ -180,6 +196,9 @@ main() {
       "${currencies[$(s_rand "tr:$i:currency" 0 "$currencies_count")]}" "$date"
   done
 
+  echo 'Seed ledger'
+  seed_ledger
+
   echo 'Done'
 }
 
@@ -67,6 +67,7 @@ public class ApiError {
         // Type: UNKNOWN
 
         SERVER_EXCEPTION,
+        SERVICE_UNAVAILABLE,
 
         // Type: CLIENT
 
@@ -0,0 +1,24 @@
+package com.paymybuddy.api.request.transaction;
+
+import java.util.List;
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+
+@Builder(builderClassName = "Builder")
+@NoArgsConstructor
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Data
+public class CreateTransactionBatchRequest {
+    @NonNull
+    @NotEmpty
+    @Size(max = 100)
+    @Valid
+    private List<CreateTransactionRequest> transactions;
+}
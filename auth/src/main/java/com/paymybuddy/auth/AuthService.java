@@ -26,20 +26,18 @@ import org.springframework.stereotype.Service;
  * This service use a {@link UserProvider} to login using email/password credentials.
  * It then creates an authentication session, stored in redis, and associates it a secret token.
  * Afterward this secret token can be used to login.
+ * <p>
+ * Tokens are signed (see {@link AuthTokenCodec}): forged tokens are rejected without loading any session.
  */
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 @Service
 @Scope("singleton")
 public class AuthService implements InitializingBean {
-    /**
-     * Max-length of a token string (used for fast-fail checks).
-     * Token is composed of a positive long (as base10 string) and an UUID, joined by a dash.
-     */
-    private static final int AUTH_TOKEN_MAX_LEN = Long.toString(Long.MAX_VALUE).length() + 1 + new UUID(0, 0).toString().length();
-
     private final UserProvider userProvider;
     private final PasswordEncoder passwordEncoder;
+    private final PasswordUpgrader passwordUpgrader;
     private final AuthStore authStore;
+    private final AuthTokenCodec tokenCodec;
     private String userNotFoundEncodedPassword;
 
     @Override
@@ -67,8 +65,8 @@ public class AuthService implements InitializingBean {
             throw new BadCredentialsException("Bad credentials");
         }
         if (passwordEncoder.upgradeEncoding(user.getEncodedPassword())) {
-            // Upgrade password encoding
-            userProvider.updateEncodedPassword(user, passwordEncoder.encode(password));
+            // Upgrade password encoding (in background)
+            passwordUpgrader.schedule(user, password);
         }
         return createAuthToken(user);
     }
@@ -84,7 +82,7 @@ public class AuthService implements InitializingBean {
 
         // Generate a secure-random session ID and derive a token from it
         String sessionId = UUID.randomUUID().toString();
-        String token = encodeToken(user.getId(), sessionId);
+        String token = tokenCodec.encode(user.getId(), sessionId);
 
         // Store the session in redis (in a per-user hash, which allows us to easily list or delete all of a user's sessions)
         authStore.save(auth.toData(), sessionId, 30, TimeUnit.DAYS);
@@ -101,8 +99,8 @@ public class AuthService implements InitializingBean {
      */
     @Nullable
     public AuthToken authenticateAuthToken(String token) {
-        // Extract userId and sessionId from token
-        Pair<String, String> tokenPair = decodeToken(token);
+        // Extract userId and sessionId from token (and verify its signature)
+        Pair<String, String> tokenPair = tokenCodec.decode(token);
         if (tokenPair == null) {
             throw new CredentialsExpiredException("Invalid or expired auth token");
         }
@@ -124,8 +122,8 @@ public class AuthService implements InitializingBean {
      * @param token secret token
      */
     public void destroyAuthToken(String token) {
-        // Extract userId and sessionId from token
-        Pair<String, String> tokenPair = decodeToken(token);
+        // Extract userId and sessionId from token (and verify its signature)
+        Pair<String, String> tokenPair = tokenCodec.decode(token);
         if (tokenPair == null) {
             return;
         }
@@ -136,27 +134,6 @@ public class AuthService implements InitializingBean {
         authStore.delete(userId, sessionId);
     }
 
-    private String encodeToken(long userId, String sessionId) {
-        return userId + "." + sessionId;
-    }
-
-    private Pair<String, String> decodeToken(String token) {
-        // Fast-fail if the token is too long
-        if (token.length() > AUTH_TOKEN_MAX_LEN) {
-            return null;
-        }
-
-        // Extract userId and sessionId from the token
-        String[] tokenParts = token.split("\\.", 2);
-        String userId = tokenParts[0];
-        String sessionId = tokenParts.length > 1 ? tokenParts[1] : "";
-        if (userId.isEmpty() || sessionId.isEmpty()) {
-            return null;
-        }
-
-        return Pair.of(userId, sessionId);
-    }
-
     /**
      * A serializable AuthGuard implementation.
      * Using lazy-loading to access repository models.
@@ -215,5 +192,10 @@ public class AuthService implements InitializingBean {
     public static final class AuthGuardData {
         private long userId;
         private ZonedDateTime loginDate;
+
+        /**
+         * Date after which the session is rejected (set by the {@link AuthStore} when the session is saved).
+         */
+        private ZonedDateTime expireDate;
     }
 }
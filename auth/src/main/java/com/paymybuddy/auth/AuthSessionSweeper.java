@@ -0,0 +1,102 @@
+package com.paymybuddy.auth;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.paymybuddy.auth.LettuceAuthStore.SweepResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A background task deleting the expired sessions of a {@link LettuceAuthStore}.
+ * <p>
+ * Sessions are deleted in small batches (at most one batch per interval), so that Redis is never blocked for long and
+ * the sweeping rate is bounded. Each server runs its own sweeper: batches are idempotent.
+ * <p>
+ * Metrics:
+ * <ul>
+ * <li>- {@code paymybuddy.auth.session_sweeper.deleted}: number of expired sessions deleted</li>
+ * <li>- {@code paymybuddy.auth.session_sweeper.reclaimed}: number of bytes reclaimed (sessions keys and values
+ * payloads, without Redis overhead)</li>
+ * </ul>
+ */
+public class AuthSessionSweeper {
+    private static final Logger logger = LoggerFactory.getLogger(AuthSessionSweeper.class);
+
+    private final LettuceAuthStore authStore;
+    private final int batchSize;
+    private final Duration interval;
+    private final Counter deletedCounter;
+    private final Counter reclaimedCounter;
+    private ScheduledExecutorService executor;
+
+    /**
+     * @param authStore     store to sweep
+     * @param batchSize     maximum number of sessions deleted per batch
+     * @param interval      delay between two batches
+     * @param meterRegistry registry to publish metrics to
+     */
+    public AuthSessionSweeper(LettuceAuthStore authStore, int batchSize, Duration interval, MeterRegistry meterRegistry) {
+        Preconditions.checkArgument(batchSize > 0, "batchSize must be strictly positive");
+        Preconditions.checkArgument(!interval.isNegative() && !interval.isZero(), "interval must be strictly positive");
+        this.authStore = authStore;
+        this.batchSize = batchSize;
+        this.interval = interval;
+        deletedCounter = Counter.builder("paymybuddy.auth.session_sweeper.deleted")
+                .description("Number of expired auth sessions deleted")
+                .register(meterRegistry);
+        reclaimedCounter = Counter.builder("paymybuddy.auth.session_sweeper.reclaimed")
+                .description("Number of bytes reclaimed by deleting expired auth sessions")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Start sweeping in background.
+     */
+    public synchronized void start() {
+        Preconditions.checkState(executor == null, "already started");
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("auth-session-sweeper")
+                .setDaemon(true)
+                .build());
+        long intervalMillis = interval.toMillis();
+        executor.scheduleWithFixedDelay(this::sweepSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop sweeping (the running batch, if any, is completed).
+     */
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    /**
+     * Delete one batch of expired sessions.
+     *
+     * @return the sweep result
+     */
+    public SweepResult sweep() {
+        SweepResult result = authStore.sweepExpiredSessions(batchSize);
+        deletedCounter.increment(result.getDeleted());
+        reclaimedCounter.increment(result.getBytes());
+        return result;
+    }
+
+    private void sweepSafely() {
+        try {
+            sweep();
+        } catch (RuntimeException e) {
+            // keep sweeping on the next interval (eg. if Redis is temporarily unreachable)
+            logger.warn("Failed to sweep expired auth sessions", e);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.paymybuddy.auth;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.BaseEncoding;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.data.util.Pair;
+import org.springframework.lang.Nullable;
+
+/**
+ * Encode and decode the auth tokens (derived from the user ID and session ID), signed with an HMAC tag so that forged
+ * tokens are rejected without loading a session.
+ * <p>
+ * Token format: {@code <userId>.<sessionId>.<keyId>.<tag>}, where {@code tag} is the truncated
+ * HMAC-SHA256 of {@code <userId>.<sessionId>} using the key {@code keyId} (base64url encoded).
+ * <p>
+ * Key rotation: tokens are signed with the current key, and verified with any of the known keys. To rotate keys, add a
+ * new key as the current one, then remove the old key once its tokens have expired (sessions last 30 days).
+ * <p>
+ * Unsigned tokens ({@code <userId>.<sessionId>}, as created before tokens were signed) are accepted until a
+ * configurable date.
+ * <p>
+ * Metrics:
+ * <ul>
+ * <li>- {@code paymybuddy.auth.rejected_tokens}: number of tokens rejected before loading their session, by
+ * {@code reason} (malformed, unknown_key, bad_signature, unsigned)</li>
+ * </ul>
+ */
+public class AuthTokenCodec {
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int TAG_LENGTH = 16;
+    private static final int MIN_KEY_LENGTH = 32;
+    private static final int MAX_KEY_ID_LENGTH = 16;
+    private static final Pattern KEY_ID_PATTERN = Pattern.compile("[a-zA-Z0-9_-]{1," + MAX_KEY_ID_LENGTH + "}");
+    private static final BaseEncoding BASE64_URL = BaseEncoding.base64Url().omitPadding();
+
+    /**
+     * Max-length of a token string (used for fast-fail checks).
+     * Token is composed of a positive long (as base10 string), an UUID, a key ID and a tag, joined by dots.
+     */
+    private static final int AUTH_TOKEN_MAX_LEN = Long.toString(Long.MAX_VALUE).length() + 1 + new UUID(0, 0).toString().length()
+            + 1 + MAX_KEY_ID_LENGTH + 1 + (TAG_LENGTH * 4 + 2) / 3;
+
+    private final String currentKeyId;
+    private final Map<String, ThreadLocal<Mac>> macs;
+    private final Instant unsignedTokensUntil;
+    private final Clock clock;
+    private final Counter malformedCounter;
+    private final Counter unknownKeyCounter;
+    private final Counter badSignatureCounter;
+    private final Counter unsignedCounter;
+
+    /**
+     * @param currentKeyId        ID of the key used to sign the new tokens
+     * @param keys                known keys (by ID), used to verify tokens (at least 32 bytes each)
+     * @param unsignedTokensUntil date until which the unsigned tokens are accepted ({@code null} to always reject them)
+     * @param meterRegistry       registry to publish metrics to
+     */
+    public AuthTokenCodec(String currentKeyId, Map<String, byte[]> keys, @Nullable Instant unsignedTokensUntil, MeterRegistry meterRegistry) {
+        this(currentKeyId, keys, unsignedTokensUntil, meterRegistry, Clock.systemUTC());
+    }
+
+    AuthTokenCodec(String currentKeyId, Map<String, byte[]> keys, @Nullable Instant unsignedTokensUntil, MeterRegistry meterRegistry, Clock clock) {
+        Preconditions.checkArgument(keys.containsKey(currentKeyId), "currentKeyId must be one of the keys");
+        ImmutableMap.Builder<String, ThreadLocal<Mac>> macs = ImmutableMap.builder();
+        keys.forEach((keyId, key) -> {
+            Preconditions.checkArgument(KEY_ID_PATTERN.matcher(keyId).matches(), "invalid key ID: %s", keyId);
+            Preconditions.checkArgument(key.length >= MIN_KEY_LENGTH, "key %s must be at least %s bytes long", keyId, MIN_KEY_LENGTH);
+            SecretKeySpec secretKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+            newMac(secretKey); // fail-fast
+            macs.put(keyId, ThreadLocal.withInitial(() -> newMac(secretKey)));
+        });
+        this.currentKeyId = currentKeyId;
+        this.macs = macs.build();
+        this.unsignedTokensUntil = unsignedTokensUntil;
+        this.clock = clock;
+        malformedCounter = rejectedTokensCounter("malformed", meterRegistry);
+        unknownKeyCounter = rejectedTokensCounter("unknown_key", meterRegistry);
+        badSignatureCounter = rejectedTokensCounter("bad_signature", meterRegistry);
+        unsignedCounter = rejectedTokensCounter("unsigned", meterRegistry);
+    }
+
+    private static Counter rejectedTokensCounter(String reason, MeterRegistry meterRegistry) {
+        return Counter.builder("paymybuddy.auth.rejected_tokens")
+                .description("Number of auth tokens rejected before loading their session")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static Mac newMac(SecretKeySpec secretKey) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(secretKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Encode and sign a token (with the current key).
+     *
+     * @param userId    ID of the user
+     * @param sessionId ID of the session
+     * @return the token
+     */
+    public String encode(long userId, String sessionId) {
+        String payload = userId + "." + sessionId;
+        return payload + "." + currentKeyId + "." + BASE64_URL.encode(tag(currentKeyId, payload));
+    }
+
+    /**
+     * Decode a token, and verify its signature.
+     *
+     * @param token token to decode
+     * @return the userId and sessionId; or {@code null} if the token is rejected
+     */
+    @Nullable
+    public Pair<String, String> decode(String token) {
+        // Fast-fail if the token is too long
+        if (token.length() > AUTH_TOKEN_MAX_LEN) {
+            malformedCounter.increment();
+            return null;
+        }
+
+        // Extract userId, sessionId and the signature from the token
+        String[] tokenParts = token.split("\\.", 4);
+        String userId = tokenParts[0];
+        String sessionId = tokenParts.length > 1 ? tokenParts[1] : "";
+        if (userId.isEmpty() || sessionId.isEmpty() || tokenParts.length == 3) {
+            malformedCounter.increment();
+            return null;
+        }
+        if (tokenParts.length == 2) {
+            if (unsignedTokensUntil == null || !clock.instant().isBefore(unsignedTokensUntil)) {
+                unsignedCounter.increment();
+                return null;
+            }
+            return Pair.of(userId, sessionId);
+        }
+
+        // Verify the signature (in constant time)
+        String keyId = tokenParts[2];
+        if (!macs.containsKey(keyId)) {
+            unknownKeyCounter.increment();
+            return null;
+        }
+        byte[] tag;
+        try {
+            tag = BASE64_URL.decode(tokenParts[3]);
+        } catch (IllegalArgumentException e) {
+            malformedCounter.increment();
+            return null;
+        }
+        if (!MessageDigest.isEqual(tag(keyId, userId + "." + sessionId), tag)) {
+            badSignatureCounter.increment();
+            return null;
+        }
+        return Pair.of(userId, sessionId);
+    }
+
+    private byte[] tag(String keyId, String payload) {
+        Mac mac = macs.get(keyId).get();
+        return Arrays.copyOf(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)), TAG_LENGTH);
+    }
+}
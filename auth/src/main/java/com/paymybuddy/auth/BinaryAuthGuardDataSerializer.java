@@ -0,0 +1,147 @@
+package com.paymybuddy.auth;
+
+import com.paymybuddy.auth.AuthService.AuthGuardData;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Compact binary serializer for AuthService.AuthGuard implementation.
+ * <p>
+ * Format (version 1):
+ * <ul>
+ * <li>- version: one byte ({@code 0x01})</li>
+ * <li>- userId: unsigned varint</li>
+ * <li>- flags: one byte (bit 0: loginDate is present, bit 1: expireDate is present)</li>
+ * <li>- loginDate (if present): epoch seconds, zig-zag varint</li>
+ * <li>- expireDate (if present): epoch seconds, zig-zag varint</li>
+ * </ul>
+ * Dates are truncated to the second and deserialized in UTC.
+ * <p>
+ * JSON payloads (written by {@link JsonAuthGuardDataSerializer}, which always start with a {@code '{'}) are still
+ * deserialized, so that the sessions saved before switching to this format remain readable.
+ */
+public class BinaryAuthGuardDataSerializer implements RedisSerializer<AuthGuardData> {
+    private static final byte VERSION_1 = 0x01;
+    private static final byte JSON_OBJECT_START = '{';
+
+    private static final int FLAG_LOGIN_DATE = 1;
+    private static final int FLAG_EXPIRE_DATE = 1 << 1;
+
+    /**
+     * Maximum size of a version 1 payload (version, 10 bytes varint userId, flags and two 10 bytes varint dates).
+     */
+    private static final int MAX_SIZE = 1 + 10 + 1 + 10 + 10;
+
+    private final JsonAuthGuardDataSerializer jsonSerializer = new JsonAuthGuardDataSerializer();
+
+    @Override
+    public byte[] serialize(AuthGuardData data) throws SerializationException {
+        if (data == null) {
+            return new byte[0];
+        }
+        if (data.getUserId() < 0) {
+            throw new SerializationException("userId cannot be negative");
+        }
+
+        byte[] buffer = new byte[MAX_SIZE];
+        int position = 0;
+        buffer[position++] = VERSION_1;
+        position = writeVarint(buffer, position, data.getUserId());
+        int flags = (data.getLoginDate() != null ? FLAG_LOGIN_DATE : 0) | (data.getExpireDate() != null ? FLAG_EXPIRE_DATE : 0);
+        buffer[position++] = (byte) flags;
+        if (data.getLoginDate() != null) {
+            position = writeVarint(buffer, position, zigZagEncode(data.getLoginDate().toEpochSecond()));
+        }
+        if (data.getExpireDate() != null) {
+            position = writeVarint(buffer, position, zigZagEncode(data.getExpireDate().toEpochSecond()));
+        }
+        return Arrays.copyOf(buffer, position);
+    }
+
+    @Override
+    public AuthGuardData deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        switch (bytes[0]) {
+            case VERSION_1:
+                return deserializeVersion1(bytes);
+            case JSON_OBJECT_START:
+                return jsonSerializer.deserialize(bytes);
+            default:
+                throw new SerializationException("Unknown auth session format: " + bytes[0]);
+        }
+    }
+
+    private static AuthGuardData deserializeVersion1(byte[] bytes) {
+        try {
+            Reader reader = new Reader(bytes, 1);
+            AuthGuardData data = new AuthGuardData();
+            data.setUserId(reader.readVarint());
+            int flags = reader.readByte();
+            if ((flags & FLAG_LOGIN_DATE) != 0) {
+                data.setLoginDate(toDate(zigZagDecode(reader.readVarint())));
+            }
+            if ((flags & FLAG_EXPIRE_DATE) != 0) {
+                data.setExpireDate(toDate(zigZagDecode(reader.readVarint())));
+            }
+            return data;
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new SerializationException("Truncated auth session", e);
+        }
+    }
+
+    private static ZonedDateTime toDate(long epochSecond) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneOffset.UTC);
+    }
+
+    /**
+     * Write an unsigned varint, and returns the position after it.
+     */
+    private static int writeVarint(byte[] buffer, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    private static long zigZagEncode(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long zigZagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static class Reader {
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        int readByte() {
+            return bytes[position++] & 0xFF;
+        }
+
+        long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed varint");
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.paymybuddy.auth;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * A {@link PasswordEncoder} running the (CPU-bound) hashing of another encoder on a dedicated, size-bounded executor.
+ * <p>
+ * Callers still wait for the hashing result, but at most {@code threads} passwords are hashed at the same time: a login
+ * burst cannot saturate the CPU and starve the other requests. When the executor queue is full, calls are rejected
+ * immediately with a {@link PasswordHashingRejectedException}.
+ * <p>
+ * Metrics:
+ * <ul>
+ * <li>- {@code paymybuddy.auth.password_hashing.queued}: number of hashing tasks waiting for a thread</li>
+ * <li>- {@code paymybuddy.auth.password_hashing.wait}: time spent by hashing tasks waiting for a thread</li>
+ * <li>- {@code paymybuddy.auth.password_hashing.duration}: time spent hashing, by {@code operation} (encode,
+ * matches)</li>
+ * <li>- {@code paymybuddy.auth.password_hashing.rejected}: number of hashing tasks rejected (queue full)</li>
+ * </ul>
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Timer waitTimer;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+
+    /**
+     * @param delegate      encoder to run
+     * @param threads       number of passwords hashed at the same time
+     * @param queueSize     maximum number of hashing tasks waiting for a thread
+     * @param meterRegistry registry to publish metrics to
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueSize, MeterRegistry meterRegistry) {
+        Preconditions.checkArgument(threads > 0, "threads must be strictly positive");
+        Preconditions.checkArgument(queueSize > 0, "queueSize must be strictly positive");
+        this.delegate = delegate;
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("password-hashing-%d")
+                        .setDaemon(true)
+                        .build());
+        Gauge.builder("paymybuddy.auth.password_hashing.queued", executor, e -> e.getQueue().size())
+                .description("Number of password hashing tasks waiting for a thread")
+                .register(meterRegistry);
+        waitTimer = Timer.builder("paymybuddy.auth.password_hashing.wait")
+                .description("Time spent by password hashing tasks waiting for a thread")
+                .register(meterRegistry);
+        encodeTimer = durationTimer("encode", meterRegistry);
+        matchesTimer = durationTimer("matches", meterRegistry);
+        rejectedCounter = Counter.builder("paymybuddy.auth.password_hashing.rejected")
+                .description("Number of password hashing tasks rejected because the queue is full")
+                .register(meterRegistry);
+    }
+
+    private static Timer durationTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("paymybuddy.auth.password_hashing.duration")
+                .description("Time spent hashing passwords")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stop the executor (the queued hashing tasks are completed).
+     */
+    public void stop() {
+        executor.shutdown();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword), encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Cheap (no hashing involved)
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T execute(Callable<T> task, Timer durationTimer) {
+        long submitTime = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - submitTime, TimeUnit.NANOSECONDS);
+                return durationTimer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new PasswordHashingRejectedException();
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
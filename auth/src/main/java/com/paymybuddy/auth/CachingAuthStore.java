@@ -0,0 +1,142 @@
+package com.paymybuddy.auth;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.paymybuddy.auth.AuthService.AuthGuardData;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+import lombok.Value;
+
+/**
+ * An {@link AuthStore} decorator, caching the loaded sessions in-process (to save a round-trip to the underlying store
+ * on every authenticated request).
+ * <p>
+ * The cache is bounded, and entries expire after a fixed delay. Deleted (and saved) sessions are invalidated on every
+ * node through an {@link InvalidationBus}. Since the bus delivery is best-effort (and a session may be loaded while
+ * it's being deleted), a deleted session can still be served from a node's cache until it expires: the TTL must be
+ * kept short. Cached sessions are also checked against their expiration date, they are never served past it.
+ * <p>
+ * Metrics:
+ * <ul>
+ * <li>- {@code paymybuddy.auth.session_cache.hits}: number of sessions loaded from the cache</li>
+ * <li>- {@code paymybuddy.auth.session_cache.misses}: number of sessions loaded from the underlying store</li>
+ * <li>- {@code paymybuddy.auth.session_cache.evictions}: number of sessions evicted from the cache (expired or over
+ * capacity, invalidations are not counted)</li>
+ * </ul>
+ */
+public class CachingAuthStore implements AuthStore {
+    /**
+     * Name of the bus channel used to invalidate the cached sessions.
+     */
+    static final String INVALIDATION_CHANNEL = "authsess";
+
+    private final AuthStore delegate;
+    private final InvalidationBus invalidationBus;
+    private final Cache<Key, AuthGuardData> cache;
+    private final Clock clock;
+
+    /**
+     * @param delegate        underlying store
+     * @param maximumSize     maximum number of cached sessions
+     * @param ttl             delay after which a cached session expires
+     * @param invalidationBus bus to broadcast the sessions invalidations to
+     * @param meterRegistry   registry to publish metrics to
+     */
+    public CachingAuthStore(AuthStore delegate, long maximumSize, Duration ttl, InvalidationBus invalidationBus, MeterRegistry meterRegistry) {
+        this(delegate, maximumSize, ttl, invalidationBus, meterRegistry, Ticker.systemTicker(), Clock.systemUTC());
+    }
+
+    CachingAuthStore(AuthStore delegate, long maximumSize, Duration ttl, InvalidationBus invalidationBus, MeterRegistry meterRegistry, Ticker ticker,
+            Clock clock) {
+        Preconditions.checkArgument(maximumSize > 0, "maximumSize must be strictly positive");
+        Preconditions.checkArgument(!ttl.isNegative() && !ttl.isZero(), "ttl must be strictly positive");
+        this.delegate = delegate;
+        this.invalidationBus = invalidationBus;
+        this.clock = clock;
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl.toNanos(), TimeUnit.NANOSECONDS)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        invalidationBus.subscribe(INVALIDATION_CHANNEL, this::onInvalidation);
+
+        FunctionCounter.builder("paymybuddy.auth.session_cache.hits", cache, c -> c.stats().hitCount())
+                .description("Number of auth sessions loaded from the cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("paymybuddy.auth.session_cache.misses", cache, c -> c.stats().missCount())
+                .description("Number of auth sessions loaded from the underlying store")
+                .register(meterRegistry);
+        FunctionCounter.builder("paymybuddy.auth.session_cache.evictions", cache, c -> c.stats().evictionCount())
+                .description("Number of auth sessions evicted from the cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cache statistics.
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void save(AuthGuardData data, String sessionId, long timeValue, TimeUnit timeUnit) {
+        delegate.save(data, sessionId, timeValue, timeUnit);
+        invalidate(String.valueOf(data.getUserId()), sessionId);
+    }
+
+    @Override
+    public AuthGuardData load(String userId, String sessionId) {
+        Key key = new Key(userId, sessionId);
+        AuthGuardData data = cache.getIfPresent(key);
+        if (data != null && isExpired(data)) {
+            // The session expired while cached (the underlying store does not return it anymore)
+            cache.invalidate(key);
+            return null;
+        }
+        if (data == null) {
+            // Unknown sessions are not cached, they are not expected to be requested again
+            data = delegate.load(userId, sessionId);
+            if (data != null) {
+                cache.put(key, data);
+            }
+        }
+        return data;
+    }
+
+    private boolean isExpired(AuthGuardData data) {
+        ZonedDateTime expireDate = data.getExpireDate();
+        return expireDate != null && !expireDate.toInstant().isAfter(clock.instant());
+    }
+
+    @Override
+    public void delete(String userId, String sessionId) {
+        delegate.delete(userId, sessionId);
+        invalidate(userId, sessionId);
+    }
+
+    private void invalidate(String userId, String sessionId) {
+        cache.invalidate(new Key(userId, sessionId));
+        invalidationBus.publish(INVALIDATION_CHANNEL, userId + "." + sessionId);
+    }
+
+    private void onInvalidation(String message) {
+        int separatorIndex = message.indexOf('.');
+        if (separatorIndex != -1) {
+            cache.invalidate(new Key(message.substring(0, separatorIndex), message.substring(separatorIndex + 1)));
+        }
+    }
+
+    @Value
+    private static class Key {
+        String userId;
+        String sessionId;
+    }
+}
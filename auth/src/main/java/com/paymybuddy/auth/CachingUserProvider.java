@@ -0,0 +1,144 @@
+package com.paymybuddy.auth;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.paymybuddy.api.model.user.User;
+import com.paymybuddy.auth.provider.UserProvider;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.springframework.lang.Nullable;
+
+/**
+ * A {@link UserProvider} decorator, caching the users loaded by ID in-process (to save a database query every time an
+ * authenticated request resolves its user, see {@link AuthGuard#getUser()}).
+ * <p>
+ * Users loaded by email (to login) are always loaded from the underlying provider, so that credentials are checked
+ * against the latest password.
+ * <p>
+ * The cache is bounded, and entries expire after a fixed delay. Updated users are invalidated on every node through an
+ * {@link InvalidationBus}: password updates are invalidated by this provider, other updates (eg. name or email changes)
+ * must call {@link #invalidate(long)}. Since the bus delivery is best-effort, a stale user can still be served from a
+ * node's cache until it expires.
+ * <p>
+ * Metrics:
+ * <ul>
+ * <li>- {@code paymybuddy.auth.user_cache.hits}: number of users loaded from the cache</li>
+ * <li>- {@code paymybuddy.auth.user_cache.misses}: number of users loaded from the underlying provider</li>
+ * <li>- {@code paymybuddy.auth.user_cache.evictions}: number of users evicted from the cache (expired or over
+ * capacity, invalidations are not counted)</li>
+ * </ul>
+ */
+public class CachingUserProvider implements UserProvider {
+    /**
+     * Name of the bus channel used to invalidate the cached users.
+     */
+    static final String INVALIDATION_CHANNEL = "user";
+
+    private final UserProvider delegate;
+    private final InvalidationBus invalidationBus;
+    private final Cache<Long, User> cache;
+
+    /**
+     * @param delegate        underlying provider
+     * @param maximumSize     maximum number of cached users
+     * @param ttl             delay after which a cached user expires
+     * @param invalidationBus bus to broadcast the users invalidations to
+     * @param meterRegistry   registry to publish metrics to
+     */
+    public CachingUserProvider(UserProvider delegate, long maximumSize, Duration ttl, InvalidationBus invalidationBus, MeterRegistry meterRegistry) {
+        this(delegate, maximumSize, ttl, invalidationBus, meterRegistry, Ticker.systemTicker());
+    }
+
+    CachingUserProvider(UserProvider delegate, long maximumSize, Duration ttl, InvalidationBus invalidationBus, MeterRegistry meterRegistry, Ticker ticker) {
+        Preconditions.checkArgument(maximumSize > 0, "maximumSize must be strictly positive");
+        Preconditions.checkArgument(!ttl.isNegative() && !ttl.isZero(), "ttl must be strictly positive");
+        this.delegate = delegate;
+        this.invalidationBus = invalidationBus;
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl.toNanos(), TimeUnit.NANOSECONDS)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        invalidationBus.subscribe(INVALIDATION_CHANNEL, this::onInvalidation);
+
+        FunctionCounter.builder("paymybuddy.auth.user_cache.hits", cache, c -> c.stats().hitCount())
+                .description("Number of users loaded from the cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("paymybuddy.auth.user_cache.misses", cache, c -> c.stats().missCount())
+                .description("Number of users loaded from the underlying provider")
+                .register(meterRegistry);
+        FunctionCounter.builder("paymybuddy.auth.user_cache.evictions", cache, c -> c.stats().evictionCount())
+                .description("Number of users evicted from the cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cache statistics.
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    @Nullable
+    @Override
+    public User getUserById(long userId) {
+        User user = cache.getIfPresent(userId);
+        if (user == null) {
+            // Unknown users are not cached, they are not expected to be requested again
+            user = delegate.getUserById(userId);
+            if (user == null) {
+                return null;
+            }
+            cache.put(userId, copy(user));
+            return user;
+        }
+        // Users are mutable: never share the cached instance
+        return copy(user);
+    }
+
+    @Nullable
+    @Override
+    public User getUserByEmail(String email) {
+        return delegate.getUserByEmail(email);
+    }
+
+    @Override
+    public void updateEncodedPassword(User user, String encodedPassword) {
+        delegate.updateEncodedPassword(user, encodedPassword);
+        invalidate(user.getId());
+    }
+
+    /**
+     * Invalidate a user on every node (to be called after the user is updated).
+     *
+     * @param userId ID of the updated user
+     */
+    public void invalidate(long userId) {
+        cache.invalidate(userId);
+        invalidationBus.publish(INVALIDATION_CHANNEL, Long.toString(userId));
+    }
+
+    private void onInvalidation(String message) {
+        try {
+            cache.invalidate(Long.parseLong(message));
+        } catch (NumberFormatException ignored) {
+            // not an user ID
+        }
+    }
+
+    private static User copy(User user) {
+        return User.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .encodedPassword(user.getEncodedPassword())
+                .name(user.getName())
+                .defaultCurrency(user.getDefaultCurrency())
+                .build();
+    }
+}
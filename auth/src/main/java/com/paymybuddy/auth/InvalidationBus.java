@@ -0,0 +1,28 @@
+package com.paymybuddy.auth;
+
+import java.util.function.Consumer;
+
+/**
+ * A cluster-wide broadcast of cache invalidation messages, used to keep the in-process caches of every node
+ * consistent.
+ * <p>
+ * Messages are delivered to all the subscribers of the channel, including the ones of the publishing node. The
+ * delivery is best-effort: caches relying on it must also expire their entries.
+ */
+public interface InvalidationBus {
+    /**
+     * Publish a message to all the subscribers of a channel.
+     *
+     * @param channel name of the channel
+     * @param message message to publish
+     */
+    void publish(String channel, String message);
+
+    /**
+     * Subscribe to the messages of a channel.
+     *
+     * @param channel  name of the channel
+     * @param listener messages listener (called from a bus thread)
+     */
+    void subscribe(String channel, Consumer<String> listener);
+}
@@ -1,71 +1,175 @@
 package com.paymybuddy.auth;
 
-import com.fasterxml.jackson.annotation.JsonAutoDetect;
-import com.fasterxml.jackson.annotation.PropertyAccessor;
-import com.fasterxml.jackson.databind.MapperFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.paymybuddy.auth.AuthService.AuthGuardData;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import lombok.Value;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+/**
+ * An {@link AuthStore} using Redis.
+ * <p>
+ * Sessions are stored in a hash per user (expiring after the user's last session), and each session stores its own
+ * expiry date (checked on load). The expired sessions are indexed by expiry date in a sorted set, so that they can be
+ * deleted incrementally (see {@link #sweepExpiredSessions(int)}).
+ */
 public class LettuceAuthStore implements AuthStore {
     /**
      * Prefix of the redis hash-keys used to store authentication sessions.
      */
     private static final String AUTH_SESS_BY_ID_HASH_KEY = "authsess.";
 
+    /**
+     * Key of the redis sorted-set indexing the authentication sessions by expiry date (members are
+     * {@code <userId>.<sessionId>}).
+     */
+    private static final String AUTH_SESS_EXPIRY_ZSET_KEY = "authsess-expiry";
+
+    /**
+     * Script saving a session, resetting its hash TTL and indexing its expiry date atomically, in a single round-trip.
+     */
+    private static final RedisScript<Long> SAVE_SCRIPT = RedisScript.of(new ClassPathResource("save_session.lua", LettuceAuthStore.class), Long.class);
+
+    /**
+     * Script deleting a session and its expiry index entry atomically, in a single round-trip.
+     */
+    private static final RedisScript<Long> DELETE_SCRIPT = RedisScript.of(new ClassPathResource("delete_session.lua", LettuceAuthStore.class), Long.class);
+
+    /**
+     * Script deleting a batch of expired sessions.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SWEEP_SCRIPT = RedisScript.of(new ClassPathResource("sweep_sessions.lua", LettuceAuthStore.class), List.class);
+
+    private static final RedisSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    private final RedisSerializer<AuthGuardData> authSerializer;
     private final RedisTemplate<String, ?> authSessTemplate;
     private final HashOperations<String, String, AuthGuardData> authSessHashOps;
+    private final Clock clock;
 
     public LettuceAuthStore(@Autowired LettuceConnectionFactory lettuceConFactory) {
+        this(lettuceConFactory, new BinaryAuthGuardDataSerializer());
+    }
+
+    /**
+     * @param lettuceConFactory redis connection factory
+     * @param authSerializer    sessions serializer (eg. {@link BinaryAuthGuardDataSerializer}, or
+     *                          {@link JsonAuthGuardDataSerializer} to keep sessions readable by previous versions)
+     */
+    public LettuceAuthStore(LettuceConnectionFactory lettuceConFactory, RedisSerializer<AuthGuardData> authSerializer) {
+        this(lettuceConFactory, authSerializer, Clock.systemUTC());
+    }
+
+    LettuceAuthStore(LettuceConnectionFactory lettuceConFactory, RedisSerializer<AuthGuardData> authSerializer, Clock clock) {
+        this.authSerializer = authSerializer;
         authSessTemplate = new RedisTemplate<>();
         authSessTemplate.setConnectionFactory(lettuceConFactory);
         authSessTemplate.setKeySerializer(new StringRedisSerializer());
         authSessTemplate.setHashKeySerializer(new StringRedisSerializer());
-        authSessTemplate.setHashValueSerializer(new AuthSerializer());
+        authSessTemplate.setHashValueSerializer(authSerializer);
         authSessTemplate.afterPropertiesSet();
         authSessHashOps = authSessTemplate.opsForHash();
+        this.clock = clock;
     }
 
+    /**
+     * Save a session. Its expiry date (truncated to the second) is set on {@code data}.
+     */
     @Override
     public void save(AuthGuardData data, String sessionId, long timeValue, TimeUnit timeUnit) {
-        String redisKey = AUTH_SESS_BY_ID_HASH_KEY + data.getUserId();
-        authSessHashOps.put(redisKey, sessionId, data);
-        authSessTemplate.expire(redisKey, timeValue, timeUnit);
+        String userId = String.valueOf(data.getUserId());
+        long ttlMillis = timeUnit.toMillis(timeValue);
+        Instant expireDate = clock.instant().plusMillis(ttlMillis).truncatedTo(ChronoUnit.SECONDS);
+        data.setExpireDate(ZonedDateTime.ofInstant(expireDate, ZoneOffset.UTC));
+
+        authSessTemplate.execute(SAVE_SCRIPT, RedisSerializer.byteArray(), LONG_SERIALIZER,
+                Arrays.asList(AUTH_SESS_BY_ID_HASH_KEY + userId, AUTH_SESS_EXPIRY_ZSET_KEY),
+                toBytes(sessionId),
+                authSerializer.serialize(data),
+                toBytes(String.valueOf(ttlMillis)),
+                toBytes(expiryMember(userId, sessionId)),
+                toBytes(String.valueOf(expireDate.toEpochMilli())));
     }
 
     @Override
     public AuthGuardData load(String userId, String sessionId) {
-        // TODO: Store expireDate with AuthGuardData and check-it here?
-        return authSessHashOps.get(AUTH_SESS_BY_ID_HASH_KEY + userId, sessionId);
+        AuthGuardData data = authSessHashOps.get(AUTH_SESS_BY_ID_HASH_KEY + userId, sessionId);
+        if (data == null || isExpired(data, clock)) {
+            // expired sessions are deleted by the sweeper
+            return null;
+        }
+        return data;
     }
 
     @Override
     public void delete(String userId, String sessionId) {
-        authSessHashOps.delete(AUTH_SESS_BY_ID_HASH_KEY + userId, sessionId);
+        authSessTemplate.execute(DELETE_SCRIPT, RedisSerializer.byteArray(), LONG_SERIALIZER,
+                Arrays.asList(AUTH_SESS_BY_ID_HASH_KEY + userId, AUTH_SESS_EXPIRY_ZSET_KEY),
+                toBytes(sessionId),
+                toBytes(expiryMember(userId, sessionId)));
     }
 
     /**
-     * Jackson serializer for AuthService.AuthGuard implementation.
+     * Delete expired sessions, up to a limit (to bound the time during which Redis is blocked).
+     *
+     * @param limit maximum number of sessions to delete
+     * @return the sweep result
      */
-    private static class AuthSerializer extends Jackson2JsonRedisSerializer<AuthGuardData> {
-        public AuthSerializer() {
-            super(AuthGuardData.class);
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
-            mapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
-            mapper.configure(MapperFeature.PROPAGATE_TRANSIENT_MARKER, true);
-            mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, true);
-            mapper.configure(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS, false);
-            mapper.registerModule(new JavaTimeModule());
-            setObjectMapper(mapper);
+    public SweepResult sweepExpiredSessions(int limit) {
+        List<?> result = authSessTemplate.execute(SWEEP_SCRIPT, RedisSerializer.byteArray(), null,
+                Collections.singletonList(AUTH_SESS_EXPIRY_ZSET_KEY),
+                toBytes(String.valueOf(clock.millis())),
+                toBytes(String.valueOf(limit)),
+                toBytes(AUTH_SESS_BY_ID_HASH_KEY));
+        if (result == null) {
+            return new SweepResult(0, 0L);
         }
+        return new SweepResult(((Number) result.get(0)).intValue(), ((Number) result.get(1)).longValue());
+    }
+
+    /**
+     * Checks if a session has expired (sessions saved without expiry date never expire individually).
+     */
+    private static boolean isExpired(AuthGuardData data, Clock clock) {
+        ZonedDateTime expireDate = data.getExpireDate();
+        return expireDate != null && !expireDate.toInstant().isAfter(clock.instant());
+    }
+
+    private static String expiryMember(String userId, String sessionId) {
+        return userId + "." + sessionId;
+    }
+
+    private static byte[] toBytes(String str) {
+        return str.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Value
+    public static class SweepResult {
+        /**
+         * Number of deleted sessions.
+         */
+        int deleted;
+
+        /**
+         * Number of bytes reclaimed (keys and values payloads, without Redis overhead).
+         */
+        long bytes;
     }
 }
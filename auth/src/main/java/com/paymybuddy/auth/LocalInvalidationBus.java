@@ -0,0 +1,26 @@
+package com.paymybuddy.auth;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * An in-process {@link InvalidationBus}, for single-node deployments (messages are delivered synchronously to the
+ * subscribers of this node only).
+ */
+public class LocalInvalidationBus implements InvalidationBus {
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+
+    @Override
+    public void publish(String channel, String message) {
+        listeners.getOrDefault(channel, Collections.emptyList()).forEach(listener -> listener.accept(message));
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        listeners.computeIfAbsent(channel, k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+}
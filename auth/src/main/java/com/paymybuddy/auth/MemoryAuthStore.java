@@ -0,0 +1,295 @@
+package com.paymybuddy.auth;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.paymybuddy.auth.AuthService.AuthGuardData;
+import com.paymybuddy.auth.TimingWheel.Timeout;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+
+/**
+ * An in-process {@link AuthStore}, for single-node deployments and tests rigs (no Redis required).
+ * <p>
+ * Sessions are stored in a concurrent map of per-user maps. Expirations are scheduled on a hierarchical
+ * {@link TimingWheel} (1 second resolution), advanced by a background thread: expired sessions are deleted within a
+ * second (and are never returned once expired, even if not deleted yet).
+ * <p>
+ * Sessions can be snapshotted to a local file on shutdown, and restored on startup (the file is then deleted, so that a
+ * crash never restores sessions destroyed since the last snapshot).
+ * <p>
+ * Metrics:
+ * <ul>
+ * <li>- {@code paymybuddy.auth.memory_store.sessions}: number of stored sessions</li>
+ * <li>- {@code paymybuddy.auth.memory_store.expired}: number of expired sessions deleted</li>
+ * </ul>
+ */
+public class MemoryAuthStore implements AuthStore {
+    private static final Logger logger = LoggerFactory.getLogger(MemoryAuthStore.class);
+    private static final long TICK_MILLIS = 1000L;
+    private static final int SNAPSHOT_MAGIC = 0x504d4253; // PMBS
+    private static final byte SNAPSHOT_VERSION = 1;
+
+    private final Map<String, Map<String, Session>> users = new ConcurrentHashMap<>();
+    private final AtomicLong sessionsCount = new AtomicLong();
+    private final TimingWheel<Session> wheel;
+    private final BinaryAuthGuardDataSerializer serializer = new BinaryAuthGuardDataSerializer();
+    private final Path snapshotFile;
+    private final Clock clock;
+    private final Counter expiredCounter;
+    private ScheduledExecutorService executor;
+
+    /**
+     * @param snapshotFile  file to snapshot the sessions to on shutdown (and to restore them from on startup); or
+     *                      {@code null} to lose the sessions on shutdown
+     * @param meterRegistry registry to publish metrics to
+     */
+    public MemoryAuthStore(@Nullable Path snapshotFile, MeterRegistry meterRegistry) {
+        this(snapshotFile, meterRegistry, Clock.systemUTC());
+    }
+
+    MemoryAuthStore(@Nullable Path snapshotFile, MeterRegistry meterRegistry, Clock clock) {
+        this.snapshotFile = snapshotFile;
+        this.clock = clock;
+        // 4 levels of 64 slots: deadlines up to 2^24 seconds (~194 days) are scheduled without overflow
+        wheel = new TimingWheel<>(TICK_MILLIS, 6, 4, clock.millis());
+        Gauge.builder("paymybuddy.auth.memory_store.sessions", sessionsCount, AtomicLong::get)
+                .description("Number of auth sessions stored in-process")
+                .register(meterRegistry);
+        expiredCounter = Counter.builder("paymybuddy.auth.memory_store.expired")
+                .description("Number of expired auth sessions deleted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Restore the snapshot (if any), then start expiring sessions in background.
+     */
+    public synchronized void start() {
+        Preconditions.checkState(executor == null, "already started");
+        if (snapshotFile != null) {
+            restoreSnapshot();
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("memory-auth-store")
+                .setDaemon(true)
+                .build());
+        executor.scheduleAtFixedRate(this::expireSessionsSafely, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop expiring sessions, then write the snapshot (if enabled).
+     */
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+            if (snapshotFile != null) {
+                writeSnapshot();
+            }
+        }
+    }
+
+    @Override
+    public void save(AuthGuardData data, String sessionId, long timeValue, TimeUnit timeUnit) {
+        Instant expireDate = clock.instant().plusMillis(timeUnit.toMillis(timeValue)).truncatedTo(ChronoUnit.SECONDS);
+        data.setExpireDate(ZonedDateTime.ofInstant(expireDate, ZoneOffset.UTC));
+        put(String.valueOf(data.getUserId()), sessionId, data);
+    }
+
+    private void put(String userId, String sessionId, AuthGuardData data) {
+        Session session = new Session(userId, sessionId, data);
+        Session[] previous = new Session[1];
+        users.compute(userId, (k, sessions) -> {
+            if (sessions == null) {
+                sessions = new ConcurrentHashMap<>();
+            }
+            previous[0] = sessions.put(sessionId, session);
+            return sessions;
+        });
+        if (previous[0] == null) {
+            sessionsCount.incrementAndGet();
+        }
+        synchronized (wheel) {
+            if (previous[0] != null && previous[0].timeout != null) {
+                wheel.cancel(previous[0].timeout);
+            }
+            session.timeout = wheel.schedule(session, data.getExpireDate().toInstant().toEpochMilli());
+        }
+    }
+
+    @Override
+    public AuthGuardData load(String userId, String sessionId) {
+        Map<String, Session> sessions = users.get(userId);
+        Session session = sessions == null ? null : sessions.get(sessionId);
+        if (session == null || !session.data.getExpireDate().toInstant().isAfter(clock.instant())) {
+            // expired sessions are deleted in background
+            return null;
+        }
+        return session.data;
+    }
+
+    @Override
+    public void delete(String userId, String sessionId) {
+        Session session = remove(userId, sessionId, null);
+        if (session != null) {
+            synchronized (wheel) {
+                if (session.timeout != null) {
+                    wheel.cancel(session.timeout);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove a session (only if it's {@code expected}, when not {@code null}).
+     *
+     * @return the removed session; or {@code null} if none
+     */
+    private Session remove(String userId, String sessionId, @Nullable Session expected) {
+        Session[] removed = new Session[1];
+        users.computeIfPresent(userId, (k, sessions) -> {
+            if (expected == null) {
+                removed[0] = sessions.remove(sessionId);
+            } else if (sessions.remove(sessionId, expected)) {
+                removed[0] = expected;
+            }
+            return sessions.isEmpty() ? null : sessions;
+        });
+        if (removed[0] != null) {
+            sessionsCount.decrementAndGet();
+        }
+        return removed[0];
+    }
+
+    /**
+     * Returns the number of stored sessions.
+     */
+    public long size() {
+        return sessionsCount.get();
+    }
+
+    private void expireSessionsSafely() {
+        try {
+            expireSessions();
+        } catch (RuntimeException e) {
+            logger.error("Failed to expire auth sessions", e);
+        }
+    }
+
+    /**
+     * Delete the expired sessions.
+     */
+    void expireSessions() {
+        List<Session> expired = new ArrayList<>();
+        synchronized (wheel) {
+            wheel.advance(clock.millis(), expired::add);
+        }
+        for (Session session : expired) {
+            if (remove(session.userId, session.sessionId, session) != null) {
+                expiredCounter.increment();
+            }
+        }
+    }
+
+    private void writeSnapshot() {
+        Path tmpFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        long count = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeByte(SNAPSHOT_VERSION);
+            Instant now = clock.instant();
+            for (Map<String, Session> sessions : users.values()) {
+                for (Session session : sessions.values()) {
+                    if (session.data.getExpireDate().toInstant().isAfter(now)) {
+                        byte[] data = serializer.serialize(session.data);
+                        out.writeBoolean(true);
+                        out.writeUTF(session.userId);
+                        out.writeUTF(session.sessionId);
+                        out.writeShort(data.length);
+                        out.write(data);
+                        ++count;
+                    }
+                }
+            }
+            out.writeBoolean(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the auth sessions snapshot", e);
+        }
+        try {
+            Files.move(tmpFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the auth sessions snapshot", e);
+        }
+        logger.info("Snapshotted {} auth sessions to {}", count, snapshotFile);
+    }
+
+    private void restoreSnapshot() {
+        long count = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readByte() != SNAPSHOT_VERSION) {
+                throw new IOException("unsupported snapshot format");
+            }
+            Instant now = clock.instant();
+            while (in.readBoolean()) {
+                String userId = in.readUTF();
+                String sessionId = in.readUTF();
+                byte[] data = new byte[in.readUnsignedShort()];
+                in.readFully(data);
+                AuthGuardData authData = serializer.deserialize(data);
+                if (authData != null && authData.getExpireDate().toInstant().isAfter(now)) {
+                    put(userId, sessionId, authData);
+                    ++count;
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to restore the auth sessions snapshot", e);
+        }
+        try {
+            Files.delete(snapshotFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete the auth sessions snapshot", e);
+        }
+        logger.info("Restored {} auth sessions from {}", count, snapshotFile);
+    }
+
+    private static final class Session {
+        private final String userId;
+        private final String sessionId;
+        private final AuthGuardData data;
+        private Timeout<Session> timeout; // guarded by the wheel
+
+        private Session(String userId, String sessionId, AuthGuardData data) {
+            this.userId = userId;
+            this.sessionId = sessionId;
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.paymybuddy.auth;
+
+/**
+ * Thrown when a password cannot be hashed because the hashing executor is overloaded (see
+ * {@link BoundedPasswordEncoder}). The request should be retried later.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+    public PasswordHashingRejectedException() {
+        super("Too many passwords are being hashed, try again later");
+    }
+
+    @Override
+    public Throwable fillInStackTrace() {
+        return this; // expected under load: skip the (costly) stack-trace
+    }
+}
@@ -0,0 +1,123 @@
+package com.paymybuddy.auth;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.paymybuddy.api.model.user.User;
+import com.paymybuddy.auth.provider.UserProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * A background job re-encoding the users passwords whose encoding must be upgraded (see
+ * {@link PasswordEncoder#upgradeEncoding(String)}), off the login critical path.
+ * <p>
+ * Upgrades are:
+ * <ul>
+ * <li>- deduplicated: a user password is upgraded at most once at a time (eg. on concurrent logins)</li>
+ * <li>- rate-limited: a change of the encoding cost-factor must not create a CPU storm. Throttled upgrades are
+ * dropped, they will be retried on a next login</li>
+ * </ul>
+ * <p>
+ * Metrics:
+ * <ul>
+ * <li>- {@code paymybuddy.auth.password_upgrades}: number of password upgrades, by {@code result} (upgraded,
+ * deduplicated, throttled, failed)</li>
+ * </ul>
+ */
+public class PasswordUpgrader {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordUpgrader.class);
+    private static final int QUEUE_SIZE = 100;
+
+    private final UserProvider userProvider;
+    private final PasswordEncoder passwordEncoder;
+    private final RateLimiter rateLimiter;
+    private final ThreadPoolExecutor executor;
+    private final Set<Long> pendingUserIds = ConcurrentHashMap.newKeySet();
+    private final Counter upgradedCounter;
+    private final Counter deduplicatedCounter;
+    private final Counter throttledCounter;
+    private final Counter failedCounter;
+
+    /**
+     * @param userProvider     provider used to save the upgraded passwords
+     * @param passwordEncoder  encoder used to re-encode the passwords
+     * @param permitsPerSecond maximum number of upgrades started per second
+     * @param meterRegistry    registry to publish metrics to
+     */
+    public PasswordUpgrader(UserProvider userProvider, PasswordEncoder passwordEncoder, double permitsPerSecond, MeterRegistry meterRegistry) {
+        Preconditions.checkArgument(permitsPerSecond > 0, "permitsPerSecond must be strictly positive");
+        this.userProvider = userProvider;
+        this.passwordEncoder = passwordEncoder;
+        rateLimiter = RateLimiter.create(permitsPerSecond);
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(QUEUE_SIZE),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("password-upgrader")
+                        .setDaemon(true)
+                        .build());
+        upgradedCounter = upgradesCounter("upgraded", meterRegistry);
+        deduplicatedCounter = upgradesCounter("deduplicated", meterRegistry);
+        throttledCounter = upgradesCounter("throttled", meterRegistry);
+        failedCounter = upgradesCounter("failed", meterRegistry);
+    }
+
+    private static Counter upgradesCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("paymybuddy.auth.password_upgrades")
+                .description("Number of password encoding upgrades")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stop the job (the queued upgrades are completed).
+     */
+    public void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * Schedule the upgrade of a user password encoding.
+     *
+     * @param user     the user (with its current encoded password)
+     * @param password the user raw password (already checked)
+     */
+    public void schedule(User user, String password) {
+        long userId = user.getId();
+        if (!pendingUserIds.add(userId)) {
+            deduplicatedCounter.increment();
+            return;
+        }
+        if (!rateLimiter.tryAcquire()) {
+            pendingUserIds.remove(userId);
+            throttledCounter.increment();
+            return;
+        }
+        try {
+            executor.execute(() -> upgrade(user, password));
+        } catch (RejectedExecutionException e) {
+            pendingUserIds.remove(userId);
+            throttledCounter.increment();
+        }
+    }
+
+    private void upgrade(User user, String password) {
+        try {
+            userProvider.updateEncodedPassword(user, passwordEncoder.encode(password));
+            upgradedCounter.increment();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to upgrade password encoding (user: {})", user.getId(), e);
+            failedCounter.increment();
+        } finally {
+            pendingUserIds.remove(user.getId());
+        }
+    }
+}
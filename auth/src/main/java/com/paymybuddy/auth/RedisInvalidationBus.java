@@ -0,0 +1,43 @@
+package com.paymybuddy.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * An {@link InvalidationBus} using Redis pub/sub.
+ */
+public class RedisInvalidationBus implements InvalidationBus {
+    /**
+     * Prefix of the redis channels used to broadcast invalidation messages.
+     */
+    private static final String CHANNEL_PREFIX = "invalidate.";
+
+    private final StringRedisTemplate template;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    public RedisInvalidationBus(@Autowired LettuceConnectionFactory lettuceConFactory, @Autowired RedisMessageListenerContainer listenerContainer) {
+        this(new StringRedisTemplate(lettuceConFactory), listenerContainer);
+    }
+
+    RedisInvalidationBus(StringRedisTemplate template, RedisMessageListenerContainer listenerContainer) {
+        this.template = template;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+        template.convertAndSend(CHANNEL_PREFIX + channel, message);
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        listenerContainer.addMessageListener(
+                (message, pattern) -> listener.accept(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CHANNEL_PREFIX + channel));
+    }
+}
@@ -0,0 +1,201 @@
+package com.paymybuddy.auth;
+
+import com.google.common.base.Preconditions;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel, scheduling the expiration of items with a fixed resolution (a tick).
+ * <p>
+ * Each level is a wheel of {@code 2^bitsPerLevel} slots, and each slot of a level spans a full turn of the level below.
+ * Items are added to the lowest level whose turn contains their deadline, and are cascaded down to the lower levels as
+ * the time advances. Scheduling and cancelling are O(1), and advancing the time is O(1) per tick plus the number of
+ * expired (or cascaded) items. Items due beyond the highest level turn are kept aside until it wraps.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @param <T> type of the scheduled items
+ */
+final class TimingWheel<T> {
+    private final long tickMillis;
+    private final int bitsPerLevel;
+    private final int mask;
+    private final Bucket<T>[][] levels;
+    private final Bucket<T> overflow = new Bucket<>();
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMillis   resolution of the wheel, in milliseconds
+     * @param bitsPerLevel log2 of the number of slots per level
+     * @param levelsCount  number of levels
+     * @param nowMillis    current time, in milliseconds
+     */
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, int bitsPerLevel, int levelsCount, long nowMillis) {
+        Preconditions.checkArgument(tickMillis > 0, "tickMillis must be strictly positive");
+        Preconditions.checkArgument(bitsPerLevel > 0 && levelsCount > 0 && bitsPerLevel * levelsCount < 63, "invalid wheel size");
+        this.tickMillis = tickMillis;
+        this.bitsPerLevel = bitsPerLevel;
+        mask = (1 << bitsPerLevel) - 1;
+        levels = new Bucket[levelsCount][1 << bitsPerLevel];
+        for (Bucket<T>[] level : levels) {
+            for (int i = 0; i < level.length; ++i) {
+                level[i] = new Bucket<>();
+            }
+        }
+        currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Returns the number of scheduled items.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Schedule the expiration of an item.
+     *
+     * @param item           item to schedule
+     * @param deadlineMillis date after which the item expires, in milliseconds (it may expire up to a tick later)
+     * @return the timeout, which can be cancelled
+     */
+    Timeout<T> schedule(T item, long deadlineMillis) {
+        Timeout<T> timeout = new Timeout<>(item, Math.max(currentTick + 1, ceilDiv(deadlineMillis, tickMillis)));
+        add(timeout);
+        ++size;
+        return timeout;
+    }
+
+    /**
+     * Cancel a scheduled item (no-op if it's already expired or cancelled).
+     */
+    void cancel(Timeout<T> timeout) {
+        if (timeout.bucket != null) {
+            timeout.bucket.remove(timeout);
+            --size;
+        }
+    }
+
+    /**
+     * Advance the time, expiring the due items.
+     *
+     * @param nowMillis current time, in milliseconds
+     * @param expired   consumer of the expired items
+     */
+    void advance(long nowMillis, Consumer<T> expired) {
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            ++currentTick;
+
+            // Cascade the higher levels slots starting at this tick (from the highest)
+            if ((currentTick & ((1L << (bitsPerLevel * levels.length)) - 1)) == 0) {
+                cascade(overflow);
+            }
+            for (int level = levels.length - 1; level > 0; --level) {
+                if ((currentTick & ((1L << (bitsPerLevel * level)) - 1)) == 0) {
+                    cascade(levels[level][digit(currentTick, level)]);
+                }
+            }
+
+            // Expire the lowest level slot
+            Bucket<T> bucket = levels[0][digit(currentTick, 0)];
+            for (Timeout<T> timeout = bucket.clear(); timeout != null; ) {
+                Timeout<T> next = timeout.next;
+                timeout.next = null;
+                --size;
+                expired.accept(timeout.item);
+                timeout = next;
+            }
+        }
+    }
+
+    private void cascade(Bucket<T> bucket) {
+        for (Timeout<T> timeout = bucket.clear(); timeout != null; ) {
+            Timeout<T> next = timeout.next;
+            timeout.next = null;
+            add(timeout);
+            timeout = next;
+        }
+    }
+
+    private void add(Timeout<T> timeout) {
+        long deadlineTick = timeout.deadlineTick;
+        for (int level = 0; level < levels.length; ++level) {
+            // The lowest level whose current turn contains the deadline
+            int shift = bitsPerLevel * (level + 1);
+            if ((deadlineTick >>> shift) == (currentTick >>> shift)) {
+                levels[level][digit(deadlineTick, level)].add(timeout);
+                return;
+            }
+        }
+        overflow.add(timeout);
+    }
+
+    private int digit(long tick, int level) {
+        return (int) (tick >>> (bitsPerLevel * level)) & mask;
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+
+    static final class Timeout<T> {
+        private final T item;
+        private final long deadlineTick;
+        private Bucket<T> bucket;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    /**
+     * A doubly-linked list of timeouts.
+     */
+    private static final class Bucket<T> {
+        private Timeout<T> head;
+
+        void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.prev = null;
+            timeout.next = head;
+            if (head != null) {
+                head.prev = timeout;
+            }
+            head = timeout;
+        }
+
+        void remove(Timeout<T> timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        /**
+         * Remove all the timeouts.
+         *
+         * @return the first removed timeout (the others are still linked to it through {@link Timeout#next})
+         */
+        Timeout<T> clear() {
+            Timeout<T> first = head;
+            head = null;
+            for (Timeout<T> timeout = first; timeout != null; timeout = timeout.next) {
+                timeout.bucket = null;
+                timeout.prev = null;
+            }
+            return first;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+-- Delete an authentication session, and its expiry index entry (atomically, in a single round-trip).
+-- KEYS[1]: user sessions hash key
+-- KEYS[2]: sessions expiry index key
+-- ARGV[1]: session ID
+-- ARGV[2]: expiry index member (user ID and session ID)
+redis.call('HDEL', KEYS[1], ARGV[1])
+redis.call('ZREM', KEYS[2], ARGV[2])
+return 1
@@ -0,0 +1,13 @@
+-- Save an authentication session, reset its user sessions hash TTL and index its expiry date (atomically, in a single
+-- round-trip).
+-- KEYS[1]: user sessions hash key
+-- KEYS[2]: sessions expiry index key
+-- ARGV[1]: session ID
+-- ARGV[2]: serialized session
+-- ARGV[3]: hash TTL (in milliseconds)
+-- ARGV[4]: expiry index member (user ID and session ID)
+-- ARGV[5]: session expiry date (epoch milliseconds)
+redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+redis.call('PEXPIRE', KEYS[1], ARGV[3])
+redis.call('ZADD', KEYS[2], ARGV[5], ARGV[4])
+return 1
@@ -0,0 +1,28 @@
+-- Delete a bounded number of expired authentication sessions, and returns the number of deleted sessions and the
+-- number of bytes they used (keys and values payloads).
+-- The batch size bounds the script execution time (Redis is blocked while a script runs).
+-- KEYS[1]: sessions expiry index key
+-- ARGV[1]: current date (epoch milliseconds)
+-- ARGV[2]: maximum number of sessions to delete
+-- ARGV[3]: prefix of the user sessions hashes keys
+-- Note: The user sessions hashes keys are derived from the index members, they are not declared as KEYS: Redis Cluster
+-- cannot route the script, it only runs on a single Redis instance.
+local members = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2])
+local deleted = 0
+local bytes = 0
+for _, member in ipairs(members) do
+    local separator = string.find(member, '.', 1, true)
+    local hashKey = ARGV[3] .. string.sub(member, 1, separator - 1)
+    local sessionId = string.sub(member, separator + 1)
+    local session = redis.call('HGET', hashKey, sessionId)
+    if session then
+        redis.call('HDEL', hashKey, sessionId)
+        deleted = deleted + 1
+        bytes = bytes + #sessionId + #session
+    end
+    bytes = bytes + #member
+end
+if #members > 0 then
+    redis.call('ZREM', KEYS[1], unpack(members))
+end
+return {deleted, bytes}
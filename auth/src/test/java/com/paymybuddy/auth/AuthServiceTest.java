@@ -22,6 +22,11 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest(classes = {AuthService.class})
@@ -35,6 +40,8 @@ class AuthServiceTest {
     @Qualifier("old-password-encoder")
     private PasswordEncoder oldPasswordEncoder;
     @Autowired
+    private AuthTokenCodec tokenCodec;
+    @Autowired
     private AuthService authService;
 
     @Test
@@ -55,6 +62,8 @@ class AuthServiceTest {
         assertEquals(email, authToken.getPrincipal().getUser().getEmail());
         AuthToken remember = authService.authenticateAuthToken(authToken.getCredentials());
         assertEquals(authToken, remember);
+        // Password encoding upgraded in background
+        verify(userProvider, timeout(5000L)).updateEncodedPassword(any(), any());
 
         // Invalid email
         assertThrows(BadCredentialsException.class, () -> authService.login("bad-email", password));
@@ -65,8 +74,25 @@ class AuthServiceTest {
         assertThrows(AuthenticationException.class, () -> authService.authenticateAuthToken(".x"));
         assertThrows(AuthenticationException.class, () -> authService.authenticateAuthToken("x."));
         assertThrows(AuthenticationException.class, () -> authService.authenticateAuthToken("xxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxx"));
-        // Invalid token (expired)
+        // Invalid token (unsigned)
         assertThrows(CredentialsExpiredException.class, () -> authService.authenticateAuthToken("2.84ad5cce-a11a-45c4-acc3-582602df71d5"));
+        // Invalid token (expired)
+        assertThrows(CredentialsExpiredException.class, () -> authService.authenticateAuthToken(tokenCodec.encode(2L, "84ad5cce-a11a-45c4-acc3-582602df71d5")));
+    }
+
+    @Test
+    void forgedTokensDoNotReachStore() {
+        AuthStore authStore = mock(AuthStore.class);
+        AuthService authService = new AuthService(userProvider, oldPasswordEncoder, null, authStore, tokenCodec);
+
+        String token = tokenCodec.encode(2L, "84ad5cce-a11a-45c4-acc3-582602df71d5");
+        String forgedToken = "3" + token.substring(1);
+        assertThrows(CredentialsExpiredException.class, () -> authService.authenticateAuthToken(forgedToken));
+        authService.destroyAuthToken(forgedToken);
+        verifyNoInteractions(authStore);
+
+        assertThrows(CredentialsExpiredException.class, () -> authService.authenticateAuthToken(token));
+        verify(authStore).load("2", "84ad5cce-a11a-45c4-acc3-582602df71d5");
     }
 
     @Test
@@ -78,7 +104,10 @@ class AuthServiceTest {
         authService.destroyAuthToken("xxx");
         assertNotNull(authStore.load("2", "84ad5cce-a11a-45c4-acc3-582602df71d5"));
 
-        authService.destroyAuthToken("2.84ad5cce-a11a-45c4-acc3-582602df71d5");
+        authService.destroyAuthToken("2.84ad5cce-a11a-45c4-acc3-582602df71d5"); // unsigned
+        assertNotNull(authStore.load("2", "84ad5cce-a11a-45c4-acc3-582602df71d5"));
+
+        authService.destroyAuthToken(tokenCodec.encode(2L, "84ad5cce-a11a-45c4-acc3-582602df71d5"));
         assertNull(authStore.load("2", "84ad5cce-a11a-45c4-acc3-582602df71d5"));
     }
 
@@ -0,0 +1,31 @@
+package com.paymybuddy.auth;
+
+import com.paymybuddy.auth.LettuceAuthStore.SweepResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AuthSessionSweeperTest {
+    @Mock
+    private LettuceAuthStore authStore;
+
+    @Test
+    void sweep() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AuthSessionSweeper sweeper = new AuthSessionSweeper(authStore, 100, Duration.ofSeconds(1), meterRegistry);
+        when(authStore.sweepExpiredSessions(100)).thenReturn(new SweepResult(100, 12000L), new SweepResult(3, 360L));
+
+        sweeper.sweep();
+        sweeper.sweep();
+        assertEquals(103.0, meterRegistry.get("paymybuddy.auth.session_sweeper.deleted").counter().count());
+        assertEquals(12360.0, meterRegistry.get("paymybuddy.auth.session_sweeper.reclaimed").counter().count());
+    }
+}
@@ -0,0 +1,99 @@
+package com.paymybuddy.auth;
+
+import com.google.common.collect.ImmutableMap;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.util.Pair;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuthTokenCodecTest {
+    private static final String SESSION_ID = "84ad5cce-a11a-45c4-acc3-582602df71d5";
+    private static final byte[] KEY_1 = "key-1-0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] KEY_2 = "key-2-0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+    private static final Instant NOW = Instant.ofEpochSecond(1600000000L);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AuthTokenCodec newCodec(String currentKeyId, Map<String, byte[]> keys, Instant unsignedTokensUntil) {
+        return new AuthTokenCodec(currentKeyId, keys, unsignedTokensUntil, meterRegistry, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("paymybuddy.auth.rejected_tokens").tag("reason", reason).counter().count();
+    }
+
+    @Test
+    void encodeAndDecode() {
+        AuthTokenCodec codec = newCodec("k1", ImmutableMap.of("k1", KEY_1), null);
+
+        String token = codec.encode(77L, SESSION_ID);
+        assertTrue(token.startsWith("77." + SESSION_ID + ".k1."));
+        assertEquals(Pair.of("77", SESSION_ID), codec.decode(token));
+    }
+
+    @Test
+    void rejectForgedTokens() {
+        AuthTokenCodec codec = newCodec("k1", ImmutableMap.of("k1", KEY_1), null);
+        String token = codec.encode(77L, SESSION_ID);
+        String tag = token.substring(token.lastIndexOf('.') + 1);
+
+        // Another user / session
+        assertNull(codec.decode("78" + token.substring(2)));
+        assertNull(codec.decode(token.replace(SESSION_ID, "94ad5cce-a11a-45c4-acc3-582602df71d5")));
+        // Another (or truncated) tag
+        assertNull(codec.decode(token.substring(0, token.length() - tag.length()) + (tag.charAt(0) == 'A' ? 'B' : 'A') + tag.substring(1)));
+        assertNull(codec.decode(token.substring(0, token.length() - 2)));
+        assertEquals(4, rejected("bad_signature"));
+
+        // Signed with an unknown key
+        assertNull(codec.decode(newCodec("k2", ImmutableMap.of("k2", KEY_2), null).encode(77L, SESSION_ID)));
+        assertEquals(1, rejected("unknown_key"));
+
+        // Malformed
+        assertNull(codec.decode(""));
+        assertNull(codec.decode("77"));
+        assertNull(codec.decode("77." + SESSION_ID + ".k1"));
+        assertNull(codec.decode(token + "." + tag));
+        assertNull(codec.decode(token.substring(0, token.length() - tag.length()) + "!!!"));
+        assertEquals(5, rejected("malformed"));
+    }
+
+    @Test
+    void rotateKeys() {
+        AuthTokenCodec oldCodec = newCodec("k1", ImmutableMap.of("k1", KEY_1), null);
+        AuthTokenCodec newCodec = newCodec("k2", ImmutableMap.of("k1", KEY_1, "k2", KEY_2), null);
+
+        String oldToken = oldCodec.encode(77L, SESSION_ID);
+        String newToken = newCodec.encode(77L, SESSION_ID);
+        assertTrue(newToken.contains(".k2."));
+        assertEquals(Pair.of("77", SESSION_ID), newCodec.decode(oldToken));
+        assertEquals(Pair.of("77", SESSION_ID), newCodec.decode(newToken));
+        assertNull(oldCodec.decode(newToken));
+    }
+
+    @Test
+    void unsignedTokens() {
+        String token = "77." + SESSION_ID;
+        assertEquals(Pair.of("77", SESSION_ID), newCodec("k1", ImmutableMap.of("k1", KEY_1), NOW.plusSeconds(1)).decode(token));
+        assertNull(newCodec("k1", ImmutableMap.of("k1", KEY_1), NOW).decode(token));
+        assertNull(newCodec("k1", ImmutableMap.of("k1", KEY_1), null).decode(token));
+        assertEquals(2, rejected("unsigned"));
+    }
+
+    @Test
+    void invalidKeys() {
+        assertThrows(IllegalArgumentException.class, () -> newCodec("k2", ImmutableMap.of("k1", KEY_1), null));
+        assertThrows(IllegalArgumentException.class, () -> newCodec("k.1", ImmutableMap.of("k.1", KEY_1), null));
+        assertThrows(IllegalArgumentException.class, () -> newCodec("k1", ImmutableMap.of("k1", new byte[31]), null));
+    }
+}
@@ -0,0 +1,70 @@
+package com.paymybuddy.auth;
+
+import com.paymybuddy.auth.AuthService.AuthGuardData;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryAuthGuardDataSerializerTest {
+    private final BinaryAuthGuardDataSerializer serializer = new BinaryAuthGuardDataSerializer();
+
+    private static AuthGuardData newData(long userId, ZonedDateTime loginDate, ZonedDateTime expireDate) {
+        AuthGuardData data = new AuthGuardData();
+        data.setUserId(userId);
+        data.setLoginDate(loginDate);
+        data.setExpireDate(expireDate);
+        return data;
+    }
+
+    @Test
+    void serialize() {
+        ZonedDateTime loginDate = ZonedDateTime.of(2020, 9, 13, 12, 26, 40, 0, ZoneOffset.UTC);
+        AuthGuardData data = newData(77L, loginDate, loginDate.plusDays(30));
+
+        byte[] bytes = serializer.serialize(data);
+        assertEquals(1 + 1 + 1 + 5 + 5, bytes.length);
+        assertEquals(data, serializer.deserialize(bytes));
+
+        // Much smaller than JSON
+        assertTrue(bytes.length * 4 < new JsonAuthGuardDataSerializer().serialize(data).length);
+    }
+
+    @Test
+    void serializeOptionalFields() {
+        assertArrayEquals(new byte[]{0x01, (byte) 0xAC, 0x02, 0x00}, serializer.serialize(newData(300L, null, null)));
+        assertEquals(newData(300L, null, null), serializer.deserialize(new byte[]{0x01, (byte) 0xAC, 0x02, 0x00}));
+
+        AuthGuardData data = newData(Long.MAX_VALUE, null, ZonedDateTime.of(1969, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+        assertEquals(data, serializer.deserialize(serializer.serialize(data)));
+    }
+
+    @Test
+    void serializeTruncatesDates() {
+        ZonedDateTime loginDate = ZonedDateTime.of(2020, 9, 13, 12, 26, 40, 999_000_000, ZoneOffset.UTC);
+        AuthGuardData data = serializer.deserialize(serializer.serialize(newData(77L, loginDate, null)));
+        assertEquals(loginDate.withNano(0), data.getLoginDate());
+    }
+
+    @Test
+    void deserializeJson() {
+        AuthGuardData data = serializer.deserialize("{\"userId\":77,\"loginDate\":1600000000000}".getBytes(StandardCharsets.UTF_8));
+        assertEquals(77L, data.getUserId());
+        assertEquals(1600000000L, data.getLoginDate().toEpochSecond());
+        assertNull(data.getExpireDate());
+    }
+
+    @Test
+    void deserializeInvalid() {
+        assertNull(serializer.deserialize(new byte[0]));
+        assertThrows(SerializationException.class, () -> serializer.deserialize(new byte[]{0x02, 0x01, 0x00}));
+        assertThrows(SerializationException.class, () -> serializer.deserialize(new byte[]{0x01, (byte) 0xAC}));
+    }
+}
@@ -0,0 +1,98 @@
+package com.paymybuddy.auth;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedPasswordEncoderTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @AfterEach
+    void tearDown() {
+        passwordEncoder.stop();
+    }
+
+    @Test
+    void delegate() {
+        PasswordEncoder bcrypt = new BCryptPasswordEncoder(BCryptPasswordEncoder.BCryptVersion.$2B, 4);
+        passwordEncoder = new BoundedPasswordEncoder(bcrypt, 2, 10, meterRegistry);
+
+        String encodedPassword = passwordEncoder.encode("password");
+        assertTrue(bcrypt.matches("password", encodedPassword));
+        assertTrue(passwordEncoder.matches("password", encodedPassword));
+        assertFalse(passwordEncoder.matches("bad-password", encodedPassword));
+        assertFalse(passwordEncoder.upgradeEncoding(encodedPassword));
+
+        assertEquals(1, meterRegistry.get("paymybuddy.auth.password_hashing.duration").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("paymybuddy.auth.password_hashing.duration").tag("operation", "matches").timer().count());
+        assertEquals(3, meterRegistry.get("paymybuddy.auth.password_hashing.wait").timer().count());
+    }
+
+    @Test
+    void rejectWhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        passwordEncoder = new BoundedPasswordEncoder(new BlockingPasswordEncoder(started, release), 1, 1, meterRegistry);
+
+        // The first call is running, the second one is queued
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("a"));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("b"));
+        while (meterRegistry.get("paymybuddy.auth.password_hashing.queued").gauge().value() < 1) {
+            Thread.sleep(1L);
+        }
+
+        // The third one is rejected
+        assertThrows(PasswordHashingRejectedException.class, () -> passwordEncoder.matches("c", "c"));
+        assertEquals(1, meterRegistry.get("paymybuddy.auth.password_hashing.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("a", running.get(10, TimeUnit.SECONDS));
+        assertEquals("b", queued.get(10, TimeUnit.SECONDS));
+        assertEquals(0, meterRegistry.get("paymybuddy.auth.password_hashing.queued").gauge().value());
+    }
+
+    @Test
+    void propagateExceptions() {
+        passwordEncoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(), 1, 1, meterRegistry);
+        assertThrows(IllegalArgumentException.class, () -> passwordEncoder.encode(null));
+    }
+
+    private static class BlockingPasswordEncoder implements PasswordEncoder {
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+
+        BlockingPasswordEncoder(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encode(rawPassword));
+        }
+    }
+}
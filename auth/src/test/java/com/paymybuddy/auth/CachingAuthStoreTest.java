@@ -0,0 +1,150 @@
+package com.paymybuddy.auth;
+
+import com.google.common.base.Ticker;
+import com.paymybuddy.auth.AuthService.AuthGuardData;
+import com.paymybuddy.auth.mock.MockAuthStore;
+import com.paymybuddy.auth.mock.MockClock;
+import com.paymybuddy.auth.mock.MockInvalidationBus;
+import com.paymybuddy.auth.mock.TestAuthConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.CredentialsExpiredException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CachingAuthStoreTest {
+    private static final String SESSION_ID = "b1333550-ac15-4cc1-89da-45633b2d1db5";
+    private static final Duration TTL = Duration.ofSeconds(30);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+    private final MockClock clock = new MockClock(Instant.parse("2026-10-17T10:00:00Z"));
+
+    private AuthStore redisStore;
+    private InvalidationBus invalidationBus;
+
+    @BeforeEach
+    void setUp() {
+        // the underlying store and the bus are shared by every node
+        redisStore = spy(new MockAuthStore());
+        invalidationBus = new MockInvalidationBus();
+    }
+
+    private CachingAuthStore newNode(long maximumSize, MeterRegistry meterRegistry) {
+        return new CachingAuthStore(redisStore, maximumSize, TTL, invalidationBus, meterRegistry, ticker, clock);
+    }
+
+    private static AuthGuardData newData(long userId) {
+        AuthGuardData data = new AuthGuardData();
+        data.setUserId(userId);
+        return data;
+    }
+
+    @Test
+    void load() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CachingAuthStore node = newNode(100, meterRegistry);
+        node.save(newData(77L), SESSION_ID, 30, TimeUnit.DAYS);
+
+        assertEquals(77L, node.load("77", SESSION_ID).getUserId());
+        assertEquals(77L, node.load("77", SESSION_ID).getUserId());
+        assertNull(node.load("77", "unknown"));
+        verify(redisStore, times(1)).load("77", SESSION_ID);
+        verify(redisStore, times(1)).load("77", "unknown");
+
+        assertEquals(1.0, meterRegistry.get("paymybuddy.auth.session_cache.hits").functionCounter().count());
+        assertEquals(2.0, meterRegistry.get("paymybuddy.auth.session_cache.misses").functionCounter().count());
+    }
+
+    @Test
+    void loadExpired() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CachingAuthStore node = newNode(100, meterRegistry);
+        node.save(newData(77L), SESSION_ID, 30, TimeUnit.DAYS);
+        node.load("77", SESSION_ID);
+
+        nanos.addAndGet(TTL.toNanos());
+        assertNotNull(node.load("77", SESSION_ID));
+        verify(redisStore, times(2)).load("77", SESSION_ID);
+        assertEquals(1.0, meterRegistry.get("paymybuddy.auth.session_cache.evictions").functionCounter().count());
+    }
+
+    @Test
+    void loadSessionExpiredWhileCached() {
+        CachingAuthStore node = newNode(100, new SimpleMeterRegistry());
+        AuthGuardData data = newData(77L);
+        data.setExpireDate(ZonedDateTime.ofInstant(clock.instant().plusSeconds(10), ZoneOffset.UTC));
+        node.save(data, SESSION_ID, 10, TimeUnit.SECONDS);
+        assertNotNull(node.load("77", SESSION_ID));
+
+        // still cached (the cache TTL is longer), but must not be served past its expiration date
+        clock.advance(Duration.ofSeconds(10));
+        assertNull(node.load("77", SESSION_ID));
+        verify(redisStore, times(1)).load("77", SESSION_ID);
+    }
+
+    @Test
+    void loadOverCapacity() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CachingAuthStore node = newNode(1, meterRegistry);
+        node.save(newData(77L), SESSION_ID, 30, TimeUnit.DAYS);
+        node.save(newData(78L), SESSION_ID, 30, TimeUnit.DAYS);
+
+        node.load("77", SESSION_ID);
+        node.load("78", SESSION_ID);
+        assertEquals(1.0, meterRegistry.get("paymybuddy.auth.session_cache.evictions").functionCounter().count());
+    }
+
+    @Test
+    void deletePropagatesToAllNodes() {
+        CachingAuthStore node1 = newNode(100, new SimpleMeterRegistry());
+        CachingAuthStore node2 = newNode(100, new SimpleMeterRegistry());
+        node1.save(newData(77L), SESSION_ID, 30, TimeUnit.DAYS);
+
+        // both nodes have the session cached
+        assertNotNull(node1.load("77", SESSION_ID));
+        assertNotNull(node2.load("77", SESSION_ID));
+        assertEquals(1, node2.getStats().missCount());
+
+        // logout on the first node: the session must not be served anymore by the second one
+        node1.delete("77", SESSION_ID);
+        assertNull(node1.load("77", SESSION_ID));
+        assertNull(node2.load("77", SESSION_ID));
+        assertEquals(2, node2.getStats().missCount());
+    }
+
+    @Test
+    void deleteWithAuthService() {
+        CachingAuthStore node1 = newNode(100, new SimpleMeterRegistry());
+        CachingAuthStore node2 = newNode(100, new SimpleMeterRegistry());
+        AuthTokenCodec tokenCodec = TestAuthConfig.newAuthTokenCodec();
+        AuthService authService1 = new AuthService(null, null, null, node1, tokenCodec);
+        AuthService authService2 = new AuthService(null, null, null, node2, tokenCodec);
+
+        String token = tokenCodec.encode(77L, SESSION_ID);
+        node1.save(newData(77L), SESSION_ID, 30, TimeUnit.DAYS);
+        assertNotNull(authService2.authenticateAuthToken(token));
+
+        authService1.destroyAuthToken(token);
+        assertThrows(CredentialsExpiredException.class, () -> authService2.authenticateAuthToken(token));
+    }
+}
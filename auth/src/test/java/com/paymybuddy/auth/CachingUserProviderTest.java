@@ -0,0 +1,129 @@
+package com.paymybuddy.auth;
+
+import com.google.common.base.Ticker;
+import com.paymybuddy.api.model.user.User;
+import com.paymybuddy.auth.mock.MockInvalidationBus;
+import com.paymybuddy.auth.provider.UserProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingUserProviderTest {
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+
+    private UserProvider databaseProvider;
+    private InvalidationBus invalidationBus;
+
+    @BeforeEach
+    void setUp() {
+        // the underlying provider and the bus are shared by every node
+        databaseProvider = mock(UserProvider.class);
+        when(databaseProvider.getUserById(77L)).thenAnswer(m -> newUser(77L, "Bob"));
+        when(databaseProvider.getUserByEmail("bob@domain.tld")).thenAnswer(m -> newUser(77L, "Bob"));
+        invalidationBus = new MockInvalidationBus();
+    }
+
+    private CachingUserProvider newNode(long maximumSize, MeterRegistry meterRegistry) {
+        return new CachingUserProvider(databaseProvider, maximumSize, TTL, invalidationBus, meterRegistry, ticker);
+    }
+
+    private static User newUser(long id, String name) {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        user.setEmail("bob@domain.tld");
+        user.setEncodedPassword("ENCODED_PASSWORD");
+        return user;
+    }
+
+    @Test
+    void getUserById() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CachingUserProvider node = newNode(100, meterRegistry);
+
+        User user = node.getUserById(77L);
+        assertEquals(newUser(77L, "Bob"), user);
+        assertEquals(user, node.getUserById(77L));
+        assertNull(node.getUserById(78L));
+        assertNull(node.getUserById(78L));
+        verify(databaseProvider, times(1)).getUserById(77L);
+        verify(databaseProvider, times(2)).getUserById(78L);
+
+        assertEquals(1.0, meterRegistry.get("paymybuddy.auth.user_cache.hits").functionCounter().count());
+        assertEquals(3.0, meterRegistry.get("paymybuddy.auth.user_cache.misses").functionCounter().count());
+    }
+
+    @Test
+    void getUserByIdReturnsCopies() {
+        CachingUserProvider node = newNode(100, new SimpleMeterRegistry());
+        User user = node.getUserById(77L);
+        user.setName("Mallory");
+
+        User cachedUser = node.getUserById(77L);
+        assertEquals("Bob", cachedUser.getName());
+        assertNotSame(cachedUser, node.getUserById(77L));
+    }
+
+    @Test
+    void getUserByIdExpired() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CachingUserProvider node = newNode(100, meterRegistry);
+        node.getUserById(77L);
+
+        nanos.addAndGet(TTL.toNanos());
+        node.getUserById(77L);
+        verify(databaseProvider, times(2)).getUserById(77L);
+        assertEquals(1.0, meterRegistry.get("paymybuddy.auth.user_cache.evictions").functionCounter().count());
+    }
+
+    @Test
+    void getUserByEmailIsNotCached() {
+        CachingUserProvider node = newNode(100, new SimpleMeterRegistry());
+        node.getUserByEmail("bob@domain.tld");
+        node.getUserByEmail("bob@domain.tld");
+        verify(databaseProvider, times(2)).getUserByEmail("bob@domain.tld");
+    }
+
+    @Test
+    void updatesPropagateToAllNodes() {
+        CachingUserProvider node1 = newNode(100, new SimpleMeterRegistry());
+        CachingUserProvider node2 = newNode(100, new SimpleMeterRegistry());
+
+        // both nodes have the user cached
+        node1.getUserById(77L);
+        node2.getUserById(77L);
+        verify(databaseProvider, times(2)).getUserById(77L);
+
+        // password updated on the first node: the second one must reload the user
+        User user = node1.getUserById(77L);
+        node1.updateEncodedPassword(user, "NEW_ENCODED_PASSWORD");
+        verify(databaseProvider).updateEncodedPassword(user, "NEW_ENCODED_PASSWORD");
+        node2.getUserById(77L);
+        verify(databaseProvider, times(3)).getUserById(77L);
+
+        // other update on the second node: the first one must reload the user
+        node1.getUserById(77L);
+        node2.invalidate(77L);
+        node1.getUserById(77L);
+        verify(databaseProvider, times(5)).getUserById(77L);
+    }
+}
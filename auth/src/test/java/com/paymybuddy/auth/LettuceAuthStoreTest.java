@@ -1,25 +1,41 @@
 package com.paymybuddy.auth;
 
+import com.paymybuddy.auth.LettuceAuthStore.SweepResult;
 import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class LettuceAuthStoreTest {
+    private static final Instant NOW = Instant.ofEpochMilli(1600000000000L);
+    private static final String SESSION_ID = "b1333550-ac15-4cc1-89da-45633b2d1db5";
+
     @Mock
     private LettuceConnectionFactory conFactory;
     @Spy
@@ -29,38 +45,93 @@ class LettuceAuthStoreTest {
     @BeforeEach
     void setUp() {
         when(conFactory.getConnection()).thenReturn(redisCon);
-        authStore = new LettuceAuthStore(conFactory);
+        authStore = new LettuceAuthStore(conFactory, new BinaryAuthGuardDataSerializer(), Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private static byte[] bytes(String str) {
+        return str.getBytes(StandardCharsets.UTF_8);
     }
 
     @Test
     void save() {
         AuthService.AuthGuardData data = new AuthService.AuthGuardData();
         data.setUserId(77L);
-        authStore.save(data, "b1333550-ac15-4cc1-89da-45633b2d1db5", 30, TimeUnit.DAYS);
+        data.setLoginDate(ZonedDateTime.ofInstant(NOW, ZoneOffset.UTC));
+        authStore.save(data, SESSION_ID, 30, TimeUnit.DAYS);
+        assertEquals(NOW.plus(30, ChronoUnit.DAYS), data.getExpireDate().toInstant());
 
-        verify(redisCon, times(1)).hSet(
-                eq("authsess.77".getBytes(StandardCharsets.UTF_8)),
-                eq("b1333550-ac15-4cc1-89da-45633b2d1db5".getBytes(StandardCharsets.UTF_8)),
-                any());
+        // HSET, PEXPIRE and ZADD are sent in a single script call
+        ArgumentCaptor<byte[]> serializedData = ArgumentCaptor.forClass(byte[].class);
+        verify(redisCon, times(1)).evalSha(
+                anyString(),
+                eq(ReturnType.INTEGER),
+                eq(2),
+                eq(bytes("authsess.77")),
+                eq(bytes("authsess-expiry")),
+                eq(bytes(SESSION_ID)),
+                serializedData.capture(),
+                eq(bytes("2592000000")),
+                eq(bytes("77." + SESSION_ID)),
+                eq(bytes("1602592000000")));
+        verify(redisCon, never()).hSet(any(), any(), any());
+        verify(redisCon, never()).expire(any(), anyLong());
+
+        // The serialized session can be read back
+        when(redisCon.hGet(eq(bytes("authsess.77")), eq(bytes(SESSION_ID)))).thenReturn(serializedData.getValue());
+        AuthService.AuthGuardData loadedData = authStore.load("77", SESSION_ID);
+        assertEquals(77L, loadedData.getUserId());
+        assertEquals(data.getLoginDate().toInstant(), loadedData.getLoginDate().toInstant());
+        assertEquals(data.getExpireDate().toInstant(), loadedData.getExpireDate().toInstant());
     }
 
     @Test
     void load() {
         when(redisCon.hGet(
-                eq("authsess.77".getBytes(StandardCharsets.UTF_8)),
-                eq("b1333550-ac15-4cc1-89da-45633b2d1db5".getBytes(StandardCharsets.UTF_8))
-        )).thenReturn("{\"userId\":77}".getBytes(StandardCharsets.UTF_8));
+                eq(bytes("authsess.77")),
+                eq(bytes(SESSION_ID))
+        )).thenReturn(bytes("{\"userId\":77}"));
 
-        AuthService.AuthGuardData data = authStore.load("77", "b1333550-ac15-4cc1-89da-45633b2d1db5");
+        AuthService.AuthGuardData data = authStore.load("77", SESSION_ID);
         assertEquals(77L, data.getUserId());
     }
 
+    @Test
+    void loadExpired() {
+        when(redisCon.hGet(eq(bytes("authsess.77")), eq(bytes(SESSION_ID))))
+                .thenReturn(bytes("{\"userId\":77,\"expireDate\":" + (NOW.toEpochMilli() + 1) + "}"))
+                .thenReturn(bytes("{\"userId\":77,\"expireDate\":" + NOW.toEpochMilli() + "}"));
+
+        assertEquals(77L, authStore.load("77", SESSION_ID).getUserId());
+        assertNull(authStore.load("77", SESSION_ID));
+    }
+
     @Test
     void delete() {
-        authStore.delete("77", "b1333550-ac15-4cc1-89da-45633b2d1db5");
+        authStore.delete("77", SESSION_ID);
+
+        // HDEL and ZREM are sent in a single script call
+        verify(redisCon, times(1)).evalSha(
+                anyString(),
+                eq(ReturnType.INTEGER),
+                eq(2),
+                eq(bytes("authsess.77")),
+                eq(bytes("authsess-expiry")),
+                eq(bytes(SESSION_ID)),
+                eq(bytes("77." + SESSION_ID)));
+        verify(redisCon, never()).hDel(any(), any());
+    }
+
+    @Test
+    void sweepExpiredSessions() {
+        when(redisCon.evalSha(anyString(), eq(ReturnType.MULTI), eq(1),
+                eq(bytes("authsess-expiry")),
+                eq(bytes("1600000000000")),
+                eq(bytes("100")),
+                eq(bytes("authsess."))
+        )).thenReturn(Arrays.asList(3L, 420L));
 
-        verify(redisCon, times(1)).hDel(
-                eq("authsess.77".getBytes(StandardCharsets.UTF_8)),
-                eq("b1333550-ac15-4cc1-89da-45633b2d1db5".getBytes(StandardCharsets.UTF_8)));
+        SweepResult result = authStore.sweepExpiredSessions(100);
+        assertEquals(3, result.getDeleted());
+        assertEquals(420L, result.getBytes());
     }
 }
@@ -0,0 +1,123 @@
+package com.paymybuddy.auth;
+
+import com.paymybuddy.auth.AuthService.AuthGuardData;
+import com.paymybuddy.auth.mock.MockClock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MemoryAuthStoreTest {
+    private static final Instant NOW = Instant.ofEpochMilli(1600000000000L);
+    private static final String SESSION_ID = "b1333550-ac15-4cc1-89da-45633b2d1db5";
+    private static final String OTHER_SESSION_ID = "84ad5cce-a11a-45c4-acc3-582602df71d5";
+
+    private final MockClock clock = new MockClock(NOW);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static AuthGuardData newData(long userId) {
+        AuthGuardData data = new AuthGuardData();
+        data.setUserId(userId);
+        data.setLoginDate(ZonedDateTime.ofInstant(NOW, ZoneOffset.UTC));
+        return data;
+    }
+
+    @Test
+    void saveLoadDelete() {
+        MemoryAuthStore authStore = new MemoryAuthStore(null, meterRegistry, clock);
+        authStore.save(newData(77L), SESSION_ID, 30, TimeUnit.DAYS);
+        authStore.save(newData(77L), OTHER_SESSION_ID, 30, TimeUnit.DAYS);
+        authStore.save(newData(78L), SESSION_ID, 30, TimeUnit.DAYS);
+        assertEquals(3, authStore.size());
+        assertEquals(3.0, meterRegistry.get("paymybuddy.auth.memory_store.sessions").gauge().value());
+
+        AuthGuardData data = authStore.load("77", SESSION_ID);
+        assertEquals(77L, data.getUserId());
+        assertEquals(ZonedDateTime.ofInstant(NOW.plus(Duration.ofDays(30)), ZoneOffset.UTC), data.getExpireDate());
+        assertNull(authStore.load("77", "unknown"));
+        assertNull(authStore.load("79", SESSION_ID));
+
+        authStore.delete("77", SESSION_ID);
+        authStore.delete("77", SESSION_ID);
+        assertNull(authStore.load("77", SESSION_ID));
+        assertNotNull(authStore.load("77", OTHER_SESSION_ID));
+        assertEquals(2, authStore.size());
+    }
+
+    @Test
+    void expire() {
+        MemoryAuthStore authStore = new MemoryAuthStore(null, meterRegistry, clock);
+        authStore.save(newData(77L), SESSION_ID, 30, TimeUnit.DAYS);
+        authStore.save(newData(77L), OTHER_SESSION_ID, 10, TimeUnit.SECONDS);
+        authStore.save(newData(78L), SESSION_ID, 1, TimeUnit.HOURS);
+
+        clock.advance(Duration.ofSeconds(10));
+        assertNull(authStore.load("77", OTHER_SESSION_ID)); // rejected before being deleted
+        authStore.expireSessions();
+        assertEquals(2, authStore.size());
+
+        clock.advance(Duration.ofHours(1));
+        authStore.expireSessions();
+        assertEquals(1, authStore.size());
+        assertNotNull(authStore.load("77", SESSION_ID));
+
+        clock.advance(Duration.ofDays(30));
+        authStore.expireSessions();
+        assertEquals(0, authStore.size());
+        assertEquals(3.0, meterRegistry.get("paymybuddy.auth.memory_store.expired").counter().count());
+    }
+
+    @Test
+    void saveAgainReschedules() {
+        MemoryAuthStore authStore = new MemoryAuthStore(null, meterRegistry, clock);
+        authStore.save(newData(77L), SESSION_ID, 10, TimeUnit.SECONDS);
+        authStore.save(newData(77L), SESSION_ID, 1, TimeUnit.HOURS);
+        assertEquals(1, authStore.size());
+
+        clock.advance(Duration.ofMinutes(1));
+        authStore.expireSessions();
+        assertNotNull(authStore.load("77", SESSION_ID));
+        assertEquals(0.0, meterRegistry.get("paymybuddy.auth.memory_store.expired").counter().count());
+    }
+
+    @Test
+    void snapshot(@TempDir Path tempDir) {
+        Path snapshotFile = tempDir.resolve("sessions.bin");
+        MemoryAuthStore authStore = new MemoryAuthStore(snapshotFile, meterRegistry, clock);
+        authStore.start();
+        authStore.save(newData(77L), SESSION_ID, 30, TimeUnit.DAYS);
+        authStore.save(newData(78L), SESSION_ID, 1, TimeUnit.HOURS);
+        authStore.stop();
+        assertTrue(Files.exists(snapshotFile));
+
+        // Restored on startup (expired sessions excepted), then deleted
+        clock.advance(Duration.ofHours(2));
+        MemoryAuthStore restoredAuthStore = new MemoryAuthStore(snapshotFile, new SimpleMeterRegistry(), clock);
+        restoredAuthStore.start();
+        assertFalse(Files.exists(snapshotFile));
+        assertEquals(1, restoredAuthStore.size());
+        assertEquals(authStore.load("77", SESSION_ID), restoredAuthStore.load("77", SESSION_ID));
+        restoredAuthStore.stop();
+    }
+
+    @Test
+    void noSnapshot(@TempDir Path tempDir) {
+        MemoryAuthStore authStore = new MemoryAuthStore(tempDir.resolve("sessions.bin"), meterRegistry, clock);
+        authStore.start();
+        assertEquals(0, authStore.size());
+        authStore.stop();
+    }
+}
@@ -0,0 +1,106 @@
+package com.paymybuddy.auth;
+
+import com.paymybuddy.api.model.user.User;
+import com.paymybuddy.auth.provider.UserProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PasswordUpgraderTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserProvider userProvider = mock(UserProvider.class);
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private PasswordUpgrader passwordUpgrader;
+
+    @AfterEach
+    void tearDown() {
+        passwordUpgrader.stop();
+    }
+
+    private static User newUser(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setEncodedPassword("old:" + id);
+        return user;
+    }
+
+    private double upgrades(String result) {
+        return meterRegistry.get("paymybuddy.auth.password_upgrades").tag("result", result).counter().count();
+    }
+
+    @Test
+    void upgrade() {
+        passwordUpgrader = new PasswordUpgrader(userProvider, passwordEncoder, 1000, meterRegistry);
+        when(passwordEncoder.encode("password")).thenReturn("new");
+
+        User user = newUser(1L);
+        passwordUpgrader.schedule(user, "password");
+        verify(userProvider, timeout(5000L)).updateEncodedPassword(user, "new");
+    }
+
+    @Test
+    void deduplicate() throws Exception {
+        passwordUpgrader = new PasswordUpgrader(userProvider, passwordEncoder, 1000, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(passwordEncoder.encode(anyString())).thenAnswer(m -> {
+            started.countDown();
+            release.await();
+            return "new";
+        });
+
+        passwordUpgrader.schedule(newUser(1L), "password");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        passwordUpgrader.schedule(newUser(1L), "password");
+        assertEquals(1, upgrades("deduplicated"));
+
+        release.countDown();
+        verify(userProvider, timeout(5000L)).updateEncodedPassword(any(), any());
+        assertEquals(1, upgrades("upgraded"));
+    }
+
+    @Test
+    void throttle() {
+        passwordUpgrader = new PasswordUpgrader(userProvider, passwordEncoder, 0.001, meterRegistry);
+        when(passwordEncoder.encode(anyString())).thenReturn("new");
+
+        passwordUpgrader.schedule(newUser(1L), "password");
+        passwordUpgrader.schedule(newUser(2L), "password");
+        passwordUpgrader.schedule(newUser(3L), "password");
+        assertEquals(2, upgrades("throttled"));
+        verify(userProvider, timeout(5000L)).updateEncodedPassword(any(), any());
+    }
+
+    @Test
+    void failure() throws Exception {
+        passwordUpgrader = new PasswordUpgrader(userProvider, passwordEncoder, 1000, meterRegistry);
+        when(passwordEncoder.encode(anyString())).thenReturn("new");
+        User user = newUser(1L);
+        doThrow(new IllegalStateException("database is down")).when(userProvider).updateEncodedPassword(user, "new");
+
+        passwordUpgrader.schedule(user, "password");
+        for (int i = 0; i < 500 && upgrades("failed") == 0; ++i) {
+            Thread.sleep(10L);
+        }
+        assertEquals(1, upgrades("failed"));
+
+        // Retried on the next login
+        passwordUpgrader.schedule(user, "password");
+        verify(userProvider, timeout(5000L).times(2)).updateEncodedPassword(user, "new");
+        assertEquals(0, upgrades("deduplicated"));
+    }
+}
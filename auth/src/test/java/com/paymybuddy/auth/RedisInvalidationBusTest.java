@@ -0,0 +1,79 @@
+package com.paymybuddy.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RedisInvalidationBusTest {
+    @Mock
+    private StringRedisTemplate template;
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Test
+    void publish() {
+        new RedisInvalidationBus(template, listenerContainer).publish("authsess", "77.session");
+        verify(template).convertAndSend("invalidate.authsess", "77.session");
+    }
+
+    @Test
+    void subscribe() {
+        RedisInvalidationBus bus = new RedisInvalidationBus(template, listenerContainer);
+        List<String> received = new ArrayList<>();
+        bus.subscribe("authsess", received::add);
+
+        ArgumentCaptor<MessageListener> listener = ArgumentCaptor.forClass(MessageListener.class);
+        ArgumentCaptor<ChannelTopic> topic = ArgumentCaptor.forClass(ChannelTopic.class);
+        verify(listenerContainer).addMessageListener(listener.capture(), topic.capture());
+        assertEquals("invalidate.authsess", topic.getValue().getTopic());
+
+        listener.getValue().onMessage(new DefaultMessage(
+                "invalidate.authsess".getBytes(StandardCharsets.UTF_8),
+                "77.sessión".getBytes(StandardCharsets.UTF_8)), null);
+        assertEquals(1, received.size());
+        assertEquals("77.sessión", received.get(0));
+    }
+
+    @Test
+    void publishReachesSubscriber() {
+        RedisInvalidationBus bus = new RedisInvalidationBus(template, listenerContainer);
+        List<String> received = new ArrayList<>();
+        bus.subscribe("contact-search", received::add);
+        ArgumentCaptor<MessageListener> listener = ArgumentCaptor.forClass(MessageListener.class);
+        ArgumentCaptor<ChannelTopic> topic = ArgumentCaptor.forClass(ChannelTopic.class);
+        verify(listenerContainer).addMessageListener(listener.capture(), topic.capture());
+
+        // deliver the published messages as Redis would, to the listeners of the channel
+        doAnswer(invocation -> {
+            String channel = invocation.getArgument(0);
+            if (channel.equals(topic.getValue().getTopic())) {
+                listener.getValue().onMessage(new DefaultMessage(
+                        channel.getBytes(StandardCharsets.UTF_8),
+                        invocation.<String>getArgument(1).getBytes(StandardCharsets.UTF_8)), null);
+            }
+            return 1L;
+        }).when(template).convertAndSend(anyString(), any(Object.class));
+
+        bus.publish("contact-search", "42:");
+        bus.publish("authsess", "77.session");
+        assertEquals(1, received.size());
+        assertEquals("42:", received.get(0));
+    }
+}
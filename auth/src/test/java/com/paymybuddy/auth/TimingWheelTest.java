@@ -0,0 +1,90 @@
+package com.paymybuddy.auth;
+
+import com.paymybuddy.auth.TimingWheel.Timeout;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+    private static final long NOW = 1600000000000L;
+
+    @Test
+    void expireAtDeadline() {
+        // 3 levels of 4 slots: 64 ticks before overflowing
+        TimingWheel<Long> wheel = new TimingWheel<>(1000L, 2, 3, NOW);
+        Random random = new Random(42);
+        Map<Long, Long> deadlines = new HashMap<>();
+        for (long i = 0; i < 1000; ++i) {
+            long deadline = NOW + random.nextInt(200_000);
+            deadlines.put(i, deadline);
+            wheel.schedule(i, deadline);
+        }
+        assertEquals(1000, wheel.size());
+
+        List<Long> expired = new ArrayList<>();
+        for (long now = NOW; now <= NOW + 201_000; now += 1000) {
+            long currentNow = now;
+            wheel.advance(now, item -> {
+                // expired within a tick after the deadline
+                long deadline = deadlines.get(item);
+                assertTrue(deadline <= currentNow && currentNow < deadline + 1000, "item " + item + " expired at " + currentNow + " (deadline: " + deadline + ")");
+                expired.add(item);
+            });
+        }
+        assertEquals(1000, expired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advanceManyTicksAtOnce() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000L, 2, 3, NOW);
+        wheel.schedule("a", NOW + 5_000);
+        wheel.schedule("b", NOW + 50_000);
+        wheel.schedule("c", NOW + 500_000);
+
+        List<String> expired = new ArrayList<>();
+        wheel.advance(NOW + 60_000, expired::add);
+        assertEquals(2, expired.size());
+        wheel.advance(NOW + 499_999, expired::add);
+        assertEquals(2, expired.size());
+        wheel.advance(NOW + 500_000, expired::add);
+        assertEquals(3, expired.size());
+    }
+
+    @Test
+    void cancel() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000L, 2, 3, NOW);
+        Timeout<String> a = wheel.schedule("a", NOW + 5_000);
+        Timeout<String> b = wheel.schedule("b", NOW + 5_000);
+        wheel.schedule("c", NOW + 5_000);
+        wheel.cancel(b);
+        wheel.cancel(b);
+        assertEquals(2, wheel.size());
+
+        List<String> expired = new ArrayList<>();
+        wheel.advance(NOW + 5_000, expired::add);
+        assertEquals(2, expired.size());
+        assertTrue(expired.contains("a") && expired.contains("c"));
+
+        wheel.cancel(a); // already expired
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void scheduleInThePast() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000L, 2, 3, NOW);
+        wheel.schedule("a", NOW - 5_000);
+
+        List<String> expired = new ArrayList<>();
+        wheel.advance(NOW, expired::add);
+        assertEquals(0, expired.size());
+        wheel.advance(NOW + 1000, expired::add);
+        assertEquals(1, expired.size());
+    }
+}
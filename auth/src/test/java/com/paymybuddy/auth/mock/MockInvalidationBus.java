@@ -0,0 +1,31 @@
+package com.paymybuddy.auth.mock;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Multimaps;
+import com.paymybuddy.auth.InvalidationBus;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * An in-memory {@link InvalidationBus} (standing for Redis pub/sub), delivering the messages synchronously to all
+ * the subscribers (the nodes sharing this instance).
+ */
+public class MockInvalidationBus implements InvalidationBus {
+    private final ListMultimap<String, Consumer<String>> listeners = Multimaps.synchronizedListMultimap(ArrayListMultimap.create());
+
+    @Override
+    public void publish(String channel, String message) {
+        List<Consumer<String>> channelListeners;
+        synchronized (listeners) {
+            channelListeners = new ArrayList<>(listeners.get(channel));
+        }
+        channelListeners.forEach(listener -> listener.accept(message));
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        listeners.put(channel, listener);
+    }
+}
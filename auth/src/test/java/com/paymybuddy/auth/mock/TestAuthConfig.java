@@ -1,6 +1,12 @@
 package com.paymybuddy.auth.mock;
 
+import com.google.common.collect.ImmutableMap;
 import com.paymybuddy.auth.AuthStore;
+import com.paymybuddy.auth.AuthTokenCodec;
+import com.paymybuddy.auth.PasswordUpgrader;
+import com.paymybuddy.auth.provider.UserProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
@@ -24,4 +30,20 @@ public class TestAuthConfig {
     public AuthStore getAuthStore() {
         return new MockAuthStore();
     }
+
+    @Bean(destroyMethod = "stop")
+    public PasswordUpgrader getPasswordUpgrader(UserProvider userProvider, PasswordEncoder passwordEncoder) {
+        return new PasswordUpgrader(userProvider, passwordEncoder, 1000, new SimpleMeterRegistry());
+    }
+
+    @Bean
+    public AuthTokenCodec getAuthTokenCodec() {
+        return newAuthTokenCodec();
+    }
+
+    public static AuthTokenCodec newAuthTokenCodec() {
+        return new AuthTokenCodec("test", ImmutableMap.of(
+                "test", "test-key-0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8)
+        ), null, new SimpleMeterRegistry());
+    }
 }
@@ -0,0 +1,61 @@
+package com.paymybuddy.auth;
+
+import com.paymybuddy.auth.AuthService.AuthGuardData;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Auth sessions serialization, in JSON ({@link JsonAuthGuardDataSerializer}) and in binary
+ * ({@link BinaryAuthGuardDataSerializer}). The "json-as-binary" case deserializes JSON payloads with the binary
+ * serializer (as done for the sessions saved before switching formats).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthGuardDataSerializerBenchmark {
+    @Param({"json", "binary", "json-as-binary"})
+    private String format;
+
+    private RedisSerializer<AuthGuardData> serializer;
+    private AuthGuardData data;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        JsonAuthGuardDataSerializer jsonSerializer = new JsonAuthGuardDataSerializer();
+        serializer = format.equals("json") ? jsonSerializer : new BinaryAuthGuardDataSerializer();
+
+        ZonedDateTime loginDate = ZonedDateTime.now(ZoneOffset.UTC).withNano(0);
+        data = new AuthGuardData();
+        data.setUserId(123456L);
+        data.setLoginDate(loginDate);
+        data.setExpireDate(loginDate.plusDays(30));
+        bytes = (format.equals("binary") ? serializer : jsonSerializer).serialize(data);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(data);
+    }
+
+    @Benchmark
+    public AuthGuardData deserialize() {
+        return serializer.deserialize(bytes);
+    }
+}
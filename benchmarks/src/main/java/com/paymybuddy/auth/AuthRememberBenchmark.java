@@ -0,0 +1,123 @@
+package com.paymybuddy.auth;
+
+import com.google.common.collect.ImmutableMap;
+import com.paymybuddy.api.model.Currency;
+import com.paymybuddy.api.model.user.User;
+import com.paymybuddy.auth.AuthService.AuthGuardData;
+import com.paymybuddy.auth.provider.UserProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of /auth/remember (resume the session from its token, then resolve the user), with and without the
+ * {@link CachingUserProvider}.
+ * <p>
+ * Sessions are stored in-memory, and the users database is emulated by sleeping {@code queryLatencyMicros} per query
+ * (measure the actual query latency of a deployment to get meaningful numbers).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthRememberBenchmark {
+    private static final int USERS = 1000;
+
+    @Param({"0", "10000"})
+    public long userCacheSize;
+
+    @Param({"200"})
+    public long queryLatencyMicros;
+
+    private AuthService authService;
+    private String[] tokens;
+
+    @Setup
+    public void setup() {
+        UserProvider userProvider = new UserProvider() {
+            @Override
+            public User getUserById(long userId) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(queryLatencyMicros));
+                return User.builder()
+                        .id(userId)
+                        .email("bench" + userId + "@test.fr")
+                        .name("Bench " + userId)
+                        .defaultCurrency(Currency.USD)
+                        .build();
+            }
+
+            @Override
+            public User getUserByEmail(String email) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void updateEncodedPassword(User user, String encodedPassword) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        if (userCacheSize > 0) {
+            userProvider = new CachingUserProvider(userProvider, userCacheSize, Duration.ofMinutes(1), new InvalidationBus() {
+                @Override
+                public void publish(String channel, String message) {
+                }
+
+                @Override
+                public void subscribe(String channel, Consumer<String> listener) {
+                }
+            }, new SimpleMeterRegistry());
+        }
+
+        AuthTokenCodec tokenCodec = new AuthTokenCodec("bench", ImmutableMap.of(
+                "bench", "bench-key-0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8)
+        ), null, new SimpleMeterRegistry());
+        tokens = new String[USERS];
+        for (int i = 0; i < USERS; ++i) {
+            tokens[i] = tokenCodec.encode(i + 1, UUID.randomUUID().toString());
+        }
+        authService = new AuthService(userProvider, null, null, new AuthStore() {
+            @Override
+            public void save(AuthGuardData data, String sessionId, long timeValue, TimeUnit timeUnit) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public AuthGuardData load(String userId, String sessionId) {
+                AuthGuardData data = new AuthGuardData();
+                data.setUserId(Long.parseLong(userId));
+                return data;
+            }
+
+            @Override
+            public void delete(String userId, String sessionId) {
+                throw new UnsupportedOperationException();
+            }
+        }, tokenCodec);
+    }
+
+    @Benchmark
+    public User remember() {
+        String token = tokens[ThreadLocalRandom.current().nextInt(USERS)];
+        return authService.authenticateAuthToken(token).getPrincipal().getUser();
+    }
+}
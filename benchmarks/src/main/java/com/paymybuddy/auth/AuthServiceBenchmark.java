@@ -0,0 +1,88 @@
+package com.paymybuddy.auth;
+
+import com.google.common.collect.ImmutableMap;
+import com.paymybuddy.auth.AuthService.AuthGuardData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.CredentialsExpiredException;
+
+/**
+ * Token decoding (and signature verification) overhead of {@link AuthService#authenticateAuthToken(String)}, with an
+ * in-memory {@link AuthStore} (the Redis round-trip is not measured).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthServiceBenchmark {
+    private static final String SESSION_ID = "0123456789abcdef0123456789abcdef";
+
+    private AuthService authService;
+    private String token;
+    private String forgedToken;
+
+    @Setup
+    public void setup() {
+        AuthGuardData data = new AuthGuardData();
+        data.setUserId(123456L);
+        data.setLoginDate(ZonedDateTime.now());
+        AuthTokenCodec tokenCodec = new AuthTokenCodec("bench", ImmutableMap.of(
+                "bench", "bench-key-0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8)
+        ), null, new SimpleMeterRegistry());
+        token = tokenCodec.encode(123456L, SESSION_ID);
+        forgedToken = "654321" + token.substring(6);
+        authService = new AuthService(null, null, null, new AuthStore() {
+            @Override
+            public void save(AuthGuardData data, String sessionId, long timeValue, TimeUnit timeUnit) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public AuthGuardData load(String userId, String sessionId) {
+                return data;
+            }
+
+            @Override
+            public void delete(String userId, String sessionId) {
+                throw new UnsupportedOperationException();
+            }
+        }, tokenCodec);
+    }
+
+    @Benchmark
+    public AuthToken authenticateAuthToken() {
+        return authService.authenticateAuthToken(token);
+    }
+
+    @Benchmark
+    public Object authenticateForgedAuthToken() {
+        try {
+            return authService.authenticateAuthToken(forgedToken);
+        } catch (CredentialsExpiredException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object authenticateInvalidAuthToken() {
+        try {
+            return authService.authenticateAuthToken("invalid");
+        } catch (CredentialsExpiredException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.paymybuddy.auth;
+
+import com.paymybuddy.auth.AuthService.AuthGuardData;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Sessions saving throughput (as done on every login) of {@link LettuceAuthStore}, against the local development
+ * Redis (./dev.sh docker up -d). The connection can be configured with the REDIS_HOST, REDIS_PORT, REDIS_DATABASE
+ * and REDIS_PASSWORD environment variables, as for the server.
+ * <p>
+ * WARNING: Sessions are created in the Redis database (for users 1 to 1000, expiring after a minute).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LettuceAuthStoreBenchmark {
+    private static final int USERS = 1000;
+
+    private LettuceConnectionFactory lettuceConFactory;
+    private LettuceAuthStore authStore;
+    private StringRedisTemplate template;
+
+    @Setup
+    public void setup() {
+        RedisStandaloneConfiguration config = new RedisStandaloneConfiguration(
+                env("REDIS_HOST", "localhost"),
+                Integer.parseInt(env("REDIS_PORT", "14374")));
+        config.setDatabase(Integer.parseInt(env("REDIS_DATABASE", "0")));
+        config.setPassword(env("REDIS_PASSWORD", "pmb"));
+        lettuceConFactory = new LettuceConnectionFactory(config);
+        lettuceConFactory.afterPropertiesSet();
+
+        authStore = new LettuceAuthStore(lettuceConFactory);
+        template = new StringRedisTemplate(lettuceConFactory);
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null ? defaultValue : value;
+    }
+
+    @TearDown
+    public void tearDown() {
+        lettuceConFactory.destroy();
+    }
+
+    private static AuthGuardData newData() {
+        AuthGuardData data = new AuthGuardData();
+        data.setUserId(1 + ThreadLocalRandom.current().nextInt(USERS));
+        data.setLoginDate(ZonedDateTime.now(ZoneOffset.UTC).withNano(0));
+        return data;
+    }
+
+    /**
+     * HSET and PEXPIRE in a single script call.
+     */
+    @Benchmark
+    public void save() {
+        authStore.save(newData(), UUID.randomUUID().toString(), 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Reference: HSET, then EXPIRE (two round-trips, as previously done by {@link LettuceAuthStore#save}).
+     */
+    @Benchmark
+    public void saveTwoRoundTrips() {
+        AuthGuardData data = newData();
+        String redisKey = "authsess." + data.getUserId();
+        template.opsForHash().put(redisKey, UUID.randomUUID().toString(), "{\"userId\":" + data.getUserId() + "}");
+        template.expire(redisKey, 1, TimeUnit.MINUTES);
+    }
+}
@@ -0,0 +1,42 @@
+package com.paymybuddy.business;
+
+import com.paymybuddy.api.model.Currency;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionServiceBenchmark {
+    @Param({"12.3", "1234567.89"})
+    private String amount;
+
+    private TransactionService transactionService;
+    private BigDecimal amountValue;
+
+    @Setup
+    public void setup() {
+        // computeFee does not use any dependency
+        transactionService = new TransactionService(null, null, null, null, null, null, null, null);
+        amountValue = new BigDecimal(amount);
+    }
+
+    @Benchmark
+    public BigDecimal computeFee() {
+        return transactionService.computeFee(Currency.USD, amountValue);
+    }
+}
@@ -0,0 +1,44 @@
+package com.paymybuddy.business;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserServiceBenchmark {
+    private UserService userService;
+
+    @Setup
+    public void setup() {
+        // the normalization methods do not use any dependency
+        userService = new UserService(null, null, null, null);
+    }
+
+    @Benchmark
+    public String normalizeEmail() {
+        return userService.normalizeEmail("John.Doe@Mail.Example.COM");
+    }
+
+    @Benchmark
+    public String normalizeEmailIdn() {
+        return userService.normalizeEmail("jean.dupont@exemple-élève.fr");
+    }
+
+    @Benchmark
+    public String validateAndNormalizeNewName() {
+        return userService.validateAndNormalizeNewName("  Jean   Dupont-Martin ");
+    }
+}
@@ -0,0 +1,106 @@
+package com.paymybuddy.business.mapper;
+
+import com.paymybuddy.api.model.Currency;
+import com.paymybuddy.api.model.transaction.Transaction;
+import com.paymybuddy.api.model.user.User;
+import com.paymybuddy.api.model.user.UserBalance;
+import com.paymybuddy.persistence.entity.TransactionEntity;
+import com.paymybuddy.persistence.entity.UserBalanceEntity;
+import com.paymybuddy.persistence.entity.UserEntity;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+    private AnnotationConfigApplicationContext context;
+    private UserMapper userMapper;
+    private UserBalanceMapper userBalanceMapper;
+    private TransactionMapper transactionMapper;
+
+    private UserEntity user;
+    private UserBalanceEntity balance;
+    private TransactionEntity transaction;
+
+    @Setup
+    public void setup() {
+        // mappers are Spring components (the transaction mapper has an injected user mapper)
+        context = new AnnotationConfigApplicationContext(UserMapperImpl.class, UserBalanceMapperImpl.class, TransactionMapperImpl.class);
+        userMapper = context.getBean(UserMapper.class);
+        userBalanceMapper = context.getBean(UserBalanceMapper.class);
+        transactionMapper = context.getBean(TransactionMapper.class);
+
+        user = newUser(1L);
+        balance = new UserBalanceEntity();
+        balance.setUserId(user.getId());
+        balance.setCurrency(Currency.USD);
+        balance.setAmount(new BigDecimal("1234.56"));
+        user.getBalances().add(balance);
+
+        transaction = new TransactionEntity();
+        transaction.setId(1L);
+        transaction.setSenderId(user.getId());
+        transaction.setSender(user);
+        transaction.setRecipientId(2L);
+        transaction.setRecipient(newUser(2L));
+        transaction.setCurrency(Currency.USD);
+        transaction.setAmount(new BigDecimal("12.3"));
+        transaction.setFee(new BigDecimal("0.07"));
+        transaction.setDescription("Benchmark");
+        transaction.setDate(ZonedDateTime.now());
+    }
+
+    private static UserEntity newUser(long id) {
+        UserEntity user = new UserEntity();
+        user.setId(id);
+        user.setEmail("bench" + id + "@test.fr");
+        user.setName("Bench " + id);
+        user.setDefaultCurrency(Currency.USD);
+        user.setEncodedPassword("");
+        user.setBalances(new ArrayList<>());
+        return user;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public User toUser() {
+        return userMapper.toUser(user);
+    }
+
+    @Benchmark
+    public User toContact() {
+        return userMapper.toContact(user);
+    }
+
+    @Benchmark
+    public UserBalance toUserBalance() {
+        return userBalanceMapper.toUserBalance(balance);
+    }
+
+    @Benchmark
+    public Transaction toTransaction() {
+        return transactionMapper.toTransaction(transaction);
+    }
+}
@@ -0,0 +1,115 @@
+package com.paymybuddy.business.pageable;
+
+import com.google.common.base.Splitter;
+import com.google.common.io.BaseEncoding;
+import com.google.common.primitives.Longs;
+import com.paymybuddy.business.pageable.type.BigDecimalPropertyType;
+import com.paymybuddy.business.pageable.type.LongPropertyType;
+import com.paymybuddy.business.pageable.type.PropertyType;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cursors encoding/decoding, in the previous format (a type symbol followed by the dot-separated base64 values,
+ * unsigned) and in the {@link CursorCodec} format (a single signed binary blob). The cursor is positioned on a
+ * {@code sort=-amount,id} transaction.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CursorCodecBenchmark {
+    @SuppressWarnings("unchecked")
+    private static final List<PropertyType<Object>> TYPES = Arrays.asList(
+            (PropertyType<Object>) (PropertyType<?>) new BigDecimalPropertyType(),
+            (PropertyType<Object>) (PropertyType<?>) new LongPropertyType());
+    private static final byte[] CONTEXT = "-absAmount,transactionId".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"legacy", "signed"})
+    private String format;
+
+    private final CursorCodec codec = new CursorCodec(new byte[32]);
+    private List<Object> values;
+    private String cursor;
+
+    @Setup
+    public void setup() {
+        values = Arrays.asList(new BigDecimal("1234.56"), 987654L);
+        cursor = encode();
+    }
+
+    @Benchmark
+    public String encode() {
+        if (format.equals("legacy")) {
+            return LegacyCursors.encode('a', values);
+        }
+        return codec.encode(0, TYPES, values, CONTEXT);
+    }
+
+    @Benchmark
+    public Object decode() {
+        if (format.equals("legacy")) {
+            return LegacyCursors.decode(cursor);
+        }
+        Object[] ret = new Object[2];
+        codec.decode(cursor, TYPES, CONTEXT, ret);
+        return ret;
+    }
+
+    /**
+     * The previous cursors format (Long as 8 bytes, BigDecimal as a plain string).
+     */
+    private static class LegacyCursors {
+        private static final BaseEncoding BASE64_URL = BaseEncoding.base64Url().omitPadding();
+        private static final Splitter DOT_SPLITTER = Splitter.on('.');
+
+        static String encode(char symbol, List<Object> values) {
+            return symbol + values.stream()
+                    .map(value -> {
+                        if (value == null) {
+                            return "$";
+                        }
+                        byte[] bytes = value instanceof Long
+                                ? Longs.toByteArray((Long) value)
+                                : ((BigDecimal) value).stripTrailingZeros().toPlainString().getBytes(StandardCharsets.US_ASCII);
+                        return BASE64_URL.encode(bytes);
+                    })
+                    .collect(Collectors.joining("."));
+        }
+
+        static List<Object> decode(String cursor) {
+            List<Object> values = new ArrayList<>(2);
+            int index = 0;
+            for (String str : DOT_SPLITTER.split(cursor.substring(1))) {
+                if (str.equals("$")) {
+                    values.add(null);
+                } else {
+                    byte[] bytes = BASE64_URL.decode(str);
+                    values.add(index == 0
+                            ? new BigDecimal(new String(bytes, StandardCharsets.US_ASCII))
+                            : (Object) Longs.fromByteArray(bytes));
+                }
+                ++index;
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.paymybuddy.business.pageable;
+
+import com.paymybuddy.api.model.collection.CursorResponse;
+import com.paymybuddy.business.pageable.type.BigDecimalPropertyType;
+import com.paymybuddy.business.pageable.type.LongPropertyType;
+import com.paymybuddy.persistence.entity.TransactionEntity;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.SliceImpl;
+
+/**
+ * Overhead of a {@link CursorFetcher} page (sort parsing, cursor decoding/encoding, specification building and
+ * records mapping), with an in-memory records query. The fetcher is either shared by all the requests (with its sort
+ * plans compiled once), or rebuilt for each request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CursorFetcherBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"id", "-amount"})
+    private String sort;
+
+    @Param({"shared", "per-request"})
+    private String fetcher;
+
+    private final CursorCodec cursorCodec = new CursorCodec(new byte[32]);
+    private CursorFetcher<Long, TransactionEntity> sharedFetcher;
+    private List<TransactionEntity> records;
+    private CursorRequest firstPageRequest;
+    private CursorRequest nextPageRequest;
+
+    @Setup
+    public void setup() {
+        records = new ArrayList<>(PAGE_SIZE);
+        for (long id = 1; id <= PAGE_SIZE; ++id) {
+            TransactionEntity record = new TransactionEntity();
+            record.setId(id);
+            record.setAmount(new BigDecimal("1234.56").subtract(BigDecimal.valueOf(id)));
+            records.add(record);
+        }
+
+        sharedFetcher = newFetcher();
+        firstPageRequest = newRequest(null);
+        nextPageRequest = newRequest(fetch(firstPageRequest).getNextCursor());
+    }
+
+    private CursorRequest newRequest(String cursor) {
+        CursorRequest request = new CursorRequest();
+        request.setPageSize(PAGE_SIZE);
+        request.setPageSort(Collections.singletonList(sort));
+        request.setCursor(cursor);
+        return request;
+    }
+
+    private CursorFetcher<Long, TransactionEntity> newFetcher() {
+        return CursorFetcher.<Long, TransactionEntity>create()
+                .recordMapper(TransactionEntity::getId)
+                .cursorCodec(cursorCodec)
+                .property("id", new LongPropertyType(), TransactionEntity::getId, true)
+                .property("amount", new BigDecimalPropertyType(), TransactionEntity::getAmount)
+                .rowValueComparison(true)
+                .build();
+    }
+
+    private CursorResponse<Long> fetch(CursorRequest request) {
+        return (fetcher.equals("shared") ? sharedFetcher : newFetcher())
+                .fetch(request, q -> new SliceImpl<>(records, q.getPageable(), true));
+    }
+
+    /**
+     * First page: only encodes the previous/next cursors.
+     */
+    @Benchmark
+    public CursorResponse<Long> firstPage() {
+        return fetch(firstPageRequest);
+    }
+
+    /**
+     * Next page: decodes the request cursor, then encodes the previous/next cursors.
+     */
+    @Benchmark
+    public CursorResponse<Long> nextPage() {
+        return fetch(nextPageRequest);
+    }
+}
@@ -0,0 +1,109 @@
+package com.paymybuddy.business.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Autocompletion of a user having 10k contacts, with a {@link ContactSearchIndex} and with a scan of every contact
+ * (the work done by the previous {@code LIKE '%input%'} query, minus the database round-trip). Inputs are a common
+ * prefix, a rare infix, a short (less than a trigram) prefix and a missing term.
+ * <p>
+ * Also compares building the index with updating a copy of it (when a contact is added or removed).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContactSearchIndexBenchmark {
+    private static final int CONTACTS = 10000;
+    private static final int LIMIT = 10;
+    private static final String[] FIRST_NAMES = {"Alice", "Bob", "Carol", "David", "Emma", "Frank", "Grace", "Hugo",
+            "Ines", "Jules", "Karim", "Léa", "Louis", "Manon", "Nathan", "Olivia", "Paul", "Rose", "Sacha", "Zoé"};
+    private static final String[] LAST_NAMES = {"Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard", "Petit",
+            "Durand", "Leroy", "Moreau", "Simon", "Laurent", "Lefebvre", "Michel", "Garcia", "David", "Bertrand", "Roux",
+            "Vincent", "Fournier", "Morel", "Girard", "André", "Mercier", "Dupont", "Lambert", "Bonnet", "François"};
+
+    @Param({"mar", "ernar", "al", "xyz"})
+    private String input;
+
+    private List<Contact> contacts;
+    private ContactSearchIndex index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        contacts = new ArrayList<>(CONTACTS);
+        for (long id = 1; id <= CONTACTS; ++id) {
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            String email = (firstName + "." + lastName + id + "@domain.tld").toLowerCase(Locale.ROOT);
+            contacts.add(new Contact(id, firstName + " " + lastName, email));
+        }
+        index = build();
+    }
+
+    @Benchmark
+    public List<Long> index() {
+        return index.search(input, LIMIT);
+    }
+
+    @Benchmark
+    public List<Long> scan() {
+        String term = input.toLowerCase(Locale.ROOT);
+        return contacts.stream()
+                .filter(c -> c.name.toLowerCase(Locale.ROOT).contains(term) || c.email.contains(term))
+                .sorted(Comparator.comparing((Contact c) -> c.name))
+                .limit(LIMIT)
+                .map(c -> c.id)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public ContactSearchIndex build() {
+        ContactSearchIndex.Builder ret = ContactSearchIndex.builder(contacts.size());
+        for (Contact contact : contacts) {
+            ret.add(contact.id, contact.name, contact.email);
+        }
+        return ret.build();
+    }
+
+    @Benchmark
+    public ContactSearchIndex addContact() {
+        return index.withContact(CONTACTS + 1, "Marius Renard", "marius.renard@domain.tld");
+    }
+
+    @Benchmark
+    public ContactSearchIndex removeContact() {
+        return index.withoutContact(CONTACTS / 2);
+    }
+
+    private static class Contact {
+        private final long id;
+        private final String name;
+        private final String email;
+
+        Contact(long id, String name, String email) {
+            this.id = id;
+            this.name = name;
+            this.email = email;
+        }
+    }
+}
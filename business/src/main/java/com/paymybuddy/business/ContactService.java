@@ -1,24 +1,46 @@
 package com.paymybuddy.business;
 
+import com.paymybuddy.api.model.collection.CursorResponse;
 import com.paymybuddy.api.model.collection.ListResponse;
 import com.paymybuddy.api.model.collection.PageResponse;
 import com.paymybuddy.api.model.user.User;
 import com.paymybuddy.business.exception.ContactNotFoundException;
 import com.paymybuddy.business.exception.IsHimselfException;
 import com.paymybuddy.business.mapper.UserMapper;
+import com.paymybuddy.business.pageable.CursorCodec;
+import com.paymybuddy.business.pageable.CursorFetcher;
+import com.paymybuddy.business.pageable.CursorRequest;
 import com.paymybuddy.business.pageable.PageFetcher;
 import com.paymybuddy.business.pageable.PageRequest;
+import com.paymybuddy.business.pageable.type.LongPropertyType;
+import com.paymybuddy.business.pageable.type.StringPropertyType;
+import com.paymybuddy.business.search.ContactSearchEngine;
+import com.paymybuddy.business.search.ContactSearchIndex;
 import com.paymybuddy.persistence.entity.UserContactEntity;
 import com.paymybuddy.persistence.entity.UserEntity;
+import com.paymybuddy.persistence.repository.UserContactCountRepository;
 import com.paymybuddy.persistence.repository.UserContactRepository;
-import com.paymybuddy.persistence.util.JpaUtil;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Scope;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static com.paymybuddy.persistence.repository.UserContactRepository.isUserContact;
 
 /**
  * Contacts management service.
@@ -29,10 +51,37 @@ import org.springframework.transaction.annotation.Transactional;
 public class ContactService {
     private final UserService userService;
     private final UserContactRepository userContactRepository;
+    private final UserContactCountRepository userContactCountRepository;
     private final UserMapper userMapper;
+    private final CursorCodec cursorCodec;
+    private final ContactSearchEngine contactSearchEngine;
+
+    /**
+     * Fetcher of the contacts list (built on first use, then shared by all the requests).
+     */
+    @Getter(value = AccessLevel.PRIVATE, lazy = true)
+    private final PageFetcher<User, UserEntity> contactsFetcher = PageFetcher.<User, UserEntity>create()
+            .recordMapper(userMapper::toContact)
+            .build();
+
+    /**
+     * Fetcher of the contacts list, by cursor (built on first use, then shared by all the requests).
+     */
+    @Getter(value = AccessLevel.PRIVATE, lazy = true)
+    private final CursorFetcher<User, UserContactEntity> contactsCursorFetcher = CursorFetcher.<User, UserContactEntity>create()
+            .recordMapper(entry -> userMapper.toContact(entry.getContact()))
+            .cursorCodec(cursorCodec)
+            .property("contactId", new LongPropertyType(), UserContactEntity::getContactId, true)
+            .property("name", new StringPropertyType(), UserContactEntity::getName)
+            .property("email", new StringPropertyType(), UserContactEntity::getEmail)
+            .rowValueComparison(true)
+            .build();
 
     /**
      * List a user's contacts.
+     * <p>
+     * The total count is read from the user's contacts count (maintained by {@link #addContact(long, String)} and
+     * {@link #removeContact(long, long)}), instead of being counted on each page.
      *
      * @param userId      ID of the user to returns contacts
      * @param pageRequest pagination parameters
@@ -40,17 +89,38 @@ public class ContactService {
      */
     @Transactional(readOnly = true)
     public PageResponse<User> listContacts(long userId, PageRequest pageRequest) {
-        return PageFetcher.<User, UserEntity>create()
-                .recordsQuery(pageable -> userContactRepository.findContactByUserId(userId, pageable))
-                .recordMapper(userMapper::toContact)
-                .sortPropertyTransformer(p -> "contact." + p)
-                .fetch(pageRequest);
+        int totalCount = userContactCountRepository.getContacts(userId);
+        return getContactsFetcher().fetch(pageRequest,
+                pageable -> new PageImpl<>(userContactRepository.findContactByUserId(userId, pageable).getContent(), pageable, totalCount));
+    }
+
+    /**
+     * List a user's contacts, by cursor.
+     * <p>
+     * Unlike {@link #listContacts(long, PageRequest)}, the cost of a page does not depend on its depth.
+     * <p>
+     * Sortable properties are:
+     * <ul>
+     * <li>- name</li>
+     * <li>- email</li>
+     * </ul>
+     *
+     * @param userId        ID of the user to returns contacts
+     * @param cursorRequest pagination parameters
+     * @return the contacts list
+     */
+    @Transactional(readOnly = true)
+    public CursorResponse<User> listContactsByCursor(long userId, CursorRequest cursorRequest) {
+        return getContactsCursorFetcher().fetch(cursorRequest,
+                q -> userContactRepository.findContactsSlice(q.getSpecification().and(isUserContact(userId)), q.getPageable()));
     }
 
     /**
      * Search for user's contacts.
      * <p>
-     * Search is performed on names and emails.
+     * Search is performed on names and emails, using the user's {@linkplain ContactSearchEngine contacts search index}
+     * (prefix matches are ranked first, see {@link ContactSearchIndex}). The matching contacts are then read from the
+     * database (so that an outdated index never returns a removed contact).
      *
      * @param userId ID of the user to search contacts
      * @param input  Term to look for
@@ -59,16 +129,31 @@ public class ContactService {
      */
     @Transactional(readOnly = true)
     public ListResponse<User> searchContacts(long userId, String input, int limit) {
-        String jpaInput = '%' + JpaUtil.escapeLikeParam(input) + '%'; // transform the input for the LIKE statement
+        List<Long> contactIds = contactSearchEngine.search(userId, input, limit, () -> buildSearchIndex(userId));
+        if (contactIds.isEmpty()) {
+            return ListResponse.of(Collections.emptyList());
+        }
 
-        List<User> ret = userContactRepository.searchContact(userId, jpaInput, org.springframework.data.domain.PageRequest.of(0, limit))
+        Map<Long, UserEntity> contacts = userContactRepository.findContactByUserIdAndContactIdIn(userId, contactIds)
                 .stream()
+                .collect(Collectors.toMap(UserEntity::getId, Function.identity()));
+        List<User> ret = contactIds.stream()
+                .map(contacts::get)
+                .filter(Objects::nonNull)
                 .map(userMapper::toContact)
                 .collect(Collectors.toList());
-        // TODO: sort by best matching
         return ListResponse.of(ret);
     }
 
+    private ContactSearchIndex buildSearchIndex(long userId) {
+        List<UserContactEntity> entries = userContactRepository.findByUserId(userId);
+        ContactSearchIndex.Builder builder = ContactSearchIndex.builder(entries.size());
+        for (UserContactEntity entry : entries) {
+            builder.add(entry.getContactId(), entry.getName(), entry.getEmail());
+        }
+        return builder.build();
+    }
+
     /**
      * Checks if a user has another user in his contact list.
      *
@@ -81,6 +166,20 @@ public class ContactService {
         return userContactRepository.existsById(new UserContactEntity.Key(userId, contactId));
     }
 
+    /**
+     * Checks if a user has all the other users in his contact list (using a single query).
+     *
+     * @param userId     ID of the user
+     * @param contactIds IDs of the contacts to check
+     * @return Whether or not all users are in contact
+     */
+    @Transactional(readOnly = true)
+    public boolean areContacts(long userId, Collection<Long> contactIds) {
+        Set<Long> distinctContactIds = new HashSet<>(contactIds);
+        return distinctContactIds.isEmpty()
+                || userContactRepository.countByUserIdAndContactIdIn(userId, distinctContactIds) == distinctContactIds.size();
+    }
+
     /**
      * Add a new contact.
      * <p>
@@ -102,10 +201,10 @@ public class ContactService {
             throw new IsHimselfException();
         }
 
-        UserContactEntity contactEntryEntity = new UserContactEntity();
-        contactEntryEntity.setUserId(userId);
-        contactEntryEntity.setContactId(contactEntity.getId());
-        userContactRepository.save(contactEntryEntity);
+        if (userContactRepository.insertIfAbsent(userId, contactEntity.getId()) != 0) {
+            userContactCountRepository.increment(userId);
+            afterCommit(() -> contactSearchEngine.contactAdded(userId, contactEntity.getId(), contactEntity.getName(), contactEntity.getEmail()));
+        }
         return userMapper.toContact(contactEntity);
     }
 
@@ -125,7 +224,10 @@ public class ContactService {
         }
 
         User contact = userMapper.toContact(contactEntryEntity.getContact());
-        userContactRepository.delete(contactEntryEntity);
+        if (userContactRepository.deleteContact(userId, contactId) != 0) {
+            userContactCountRepository.decrement(userId);
+            afterCommit(() -> contactSearchEngine.contactRemoved(userId, contactId));
+        }
         return contact;
     }
 
@@ -147,4 +249,20 @@ public class ContactService {
         }
         return userMapper.toContact(contactEntity);
     }
+
+    /**
+     * Run an action once the current transaction is committed (or immediately, if there is no transaction).
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
 }
@@ -1,40 +1,59 @@
 package com.paymybuddy.business;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Iterables;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.TreeBasedTable;
 import com.paymybuddy.api.model.Currency;
 import com.paymybuddy.api.model.collection.CursorResponse;
 import com.paymybuddy.api.model.transaction.Transaction;
 import com.paymybuddy.business.exception.NotEnoughFundsException;
 import com.paymybuddy.business.exception.RecipientNotFoundException;
 import com.paymybuddy.business.exception.SenderNotFoundException;
+import com.paymybuddy.business.lock.UserLockManager;
 import com.paymybuddy.business.mapper.TransactionMapper;
+import com.paymybuddy.business.pageable.CursorCodec;
 import com.paymybuddy.business.pageable.CursorFetcher;
 import com.paymybuddy.business.pageable.CursorRequest;
 import com.paymybuddy.business.pageable.type.BigDecimalPropertyType;
 import com.paymybuddy.business.pageable.type.LongPropertyType;
+import com.paymybuddy.business.util.DateUtil;
 import com.paymybuddy.persistence.entity.TransactionEntity;
 import com.paymybuddy.persistence.entity.UserBalanceEntity;
 import com.paymybuddy.persistence.entity.UserEntity;
+import com.paymybuddy.persistence.entity.UserLedgerEntity;
 import com.paymybuddy.persistence.repository.TransactionRepository;
 import com.paymybuddy.persistence.repository.UserBalanceRepository;
+import com.paymybuddy.persistence.repository.UserLedgerRepository;
 import com.paymybuddy.persistence.repository.UserRepository;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
-import static com.paymybuddy.persistence.repository.TransactionRepository.isRecipient;
-import static com.paymybuddy.persistence.repository.TransactionRepository.isSender;
+import static com.paymybuddy.persistence.repository.UserLedgerRepository.isUserTransaction;
 
 /**
  * Transactions management service.
@@ -48,14 +67,46 @@ public class TransactionService {
      */
     public static final BigDecimal FEE_PERCENTS = new BigDecimal("0.005");
 
+    /**
+     * Transactions sortable properties, mapped to their ledger entries properties.
+     */
+    private static final Map<String, String> LEDGER_PROPERTIES = ImmutableMap.of(
+            "id", "transactionId",
+            "amount", "absAmount");
+
+    /**
+     * Currencies order of the balances rows (ie. their primary key order), used to lock them consistently.
+     */
+    private static final Comparator<Currency> CURRENCY_ORDER = Comparator.comparing(Currency::name);
+
     private final UserRepository userRepository;
     private final UserBalanceRepository userBalanceRepository;
     private final TransactionRepository transactionRepository;
+    private final UserLedgerRepository userLedgerRepository;
+    private final UserLockManager userLockManager;
+    private final TransactionOperations transactionOperations;
     private final TransactionMapper transactionMapper;
+    private final CursorCodec cursorCodec;
+
+    /**
+     * Fetcher of the transactions list (built on first use, then shared by all the requests).
+     */
+    @Getter(value = AccessLevel.PRIVATE, lazy = true)
+    private final CursorFetcher<Transaction, UserLedgerEntity> transactionsFetcher = CursorFetcher.<Transaction, UserLedgerEntity>create()
+            .recordMapper(entry -> transactionMapper.toTransaction(entry.getTransaction()))
+            .cursorCodec(cursorCodec)
+            .propertyTransformer(property -> LEDGER_PROPERTIES.getOrDefault(property, property))
+            .property("transactionId", new LongPropertyType(), UserLedgerEntity::getTransactionId, true)
+            .property("absAmount", new BigDecimalPropertyType(), UserLedgerEntity::getAbsAmount)
+            .rowValueComparison(true)
+            .build();
 
     /**
      * List a user's transactions (where he is a sender or recipient).
      * <p>
+     * The transactions are read from the user's ledger (a single index range), along with their sender and recipient
+     * (a single query per page).
+     * <p>
      * Sortable properties are:
      * <ul>
      * <li>- id</li>
@@ -68,14 +119,8 @@ public class TransactionService {
      */
     @Transactional(readOnly = true)
     public CursorResponse<Transaction> listTransactions(long userId, CursorRequest cursorRequest) {
-        return CursorFetcher.<Transaction, TransactionEntity>create()
-                .recordsQuery(q -> transactionRepository.findAll(
-                        q.getSpecification().and(isSender(userId).or(isRecipient(userId))),
-                        q.getPageable()))
-                .recordMapper(transactionMapper::toTransaction)
-                .property("id", new LongPropertyType(), TransactionEntity::getId, true)
-                .property("amount", new BigDecimalPropertyType(), TransactionEntity::getAmount)
-                .fetch(cursorRequest);
+        return getTransactionsFetcher().fetch(cursorRequest,
+                q -> userLedgerRepository.findTransactionsSlice(q.getSpecification().and(isUserTransaction(userId)), q.getPageable()));
     }
 
     /**
@@ -83,7 +128,6 @@ public class TransactionService {
      *
      * @see #createTransaction(long, long, Currency, BigDecimal, String, BigDecimal, ZonedDateTime)
      */
-    @Transactional
     public Transaction createTransaction(long senderId, long recipientId, Currency currency, BigDecimal amount, String description, ZonedDateTime date) {
         BigDecimal fee = computeFee(currency, amount);
         return createTransaction(senderId, recipientId, currency, amount, description, fee, date);
@@ -91,6 +135,13 @@ public class TransactionService {
 
     /**
      * Create a transaction.
+     * <p>
+     * Only the sender is locked (in-process - see {@link UserLockManager} - before opening the database transaction):
+     * the sender balance is debited with a guarded update (only if it covers the amount and fee), and the recipient
+     * balance is credited atomically (without reading it), so that popular recipients are not a contention point.
+     * <p>
+     * The transfer runs a fixed number of statements: the sender and recipient lookups, the balances debit and credit,
+     * and the transaction and ledger entries inserts.
      *
      * @param senderId    ID of the user sending the money
      * @param recipientId ID of the user receiving the money
@@ -108,43 +159,33 @@ public class TransactionService {
      * @throws RecipientNotFoundException if the no user match the recipientId
      * @throws NotEnoughFundsException    if the sender has not enough funds to cover the amount and fee values (in this currency).
      */
-    @Transactional
     public Transaction createTransaction(long senderId, long recipientId, Currency currency, BigDecimal amount, String description, BigDecimal fee, ZonedDateTime date) {
-        // Validate the amount
-        amount = amount.stripTrailingZeros();
-        Preconditions.checkArgument(amount.scale() <= currency.getDecimals(), "amount has too many decimals");
-        Preconditions.checkArgument(amount.compareTo(BigDecimal.ZERO) > 0, "amount must be strictly positive");
+        return userLockManager.runLocked(Collections.singletonList(senderId), () -> transactionOperations.execute(
+                status -> createTransactionLocked(senderId, recipientId, currency, amount, description, fee, date)));
+    }
 
-        // Validate the fee
-        fee = fee.stripTrailingZeros();
-        Preconditions.checkArgument(fee.scale() <= currency.getDecimals(), "fee has too many decimals");
-        Preconditions.checkArgument(fee.compareTo(BigDecimal.ZERO) >= 0, "fee must be positive");
+    private Transaction createTransactionLocked(long senderId, long recipientId, Currency currency, BigDecimal amount, String description, BigDecimal fee, ZonedDateTime date) {
+        // Validate the amount and fee
+        amount = validateAmount(currency, amount);
+        fee = validateFee(currency, fee);
 
         // Check that the user is not sending to himself
         Preconditions.checkArgument(senderId != recipientId, "senderId and recipientId must be different");
 
-        // Find users and lock them (in a single ordered operation to prevent a "different-order deadlock")
-        Map<Long, UserEntity> users = userRepository.findAllByIdsForUpdate(Arrays.asList(senderId, recipientId))
-                .stream().collect(Collectors.toMap(UserEntity::getId, Function.identity()));
-        UserEntity sender = users.get(senderId);
-        UserEntity recipient = users.get(recipientId);
-        if (sender == null) {
-            throw new SenderNotFoundException();
-        }
-        if (recipient == null) {
-            throw new RecipientNotFoundException();
-        }
+        // Find users (they are not locked, only the balances rows are)
+        UserEntity sender = userRepository.findById(senderId).orElseThrow(SenderNotFoundException::new);
+        UserEntity recipient = userRepository.findById(recipientId).orElseThrow(RecipientNotFoundException::new);
 
-        // Withdraw the sender amount
-        UserBalanceEntity senderBalance = getBalance(sender.getId(), currency);
-        senderBalance.setAmount(senderBalance.getAmount().subtract(amount).subtract(fee));
-        if (senderBalance.getAmount().compareTo(BigDecimal.ZERO) < 0) {
-            throw new NotEnoughFundsException(currency, senderBalance.getAmount().abs());
+        // Atomically withdraw the sender amount (if he has enough funds), and add the recipient amount.
+        // Both balances rows are locked in the users ID order to prevent a "different-order deadlock" with a concurrent
+        // transaction in the other direction (the credit is rolled back if the sender has not enough funds).
+        if (recipientId < senderId) {
+            userBalanceRepository.credit(recipientId, currency, amount);
+        }
+        debit(senderId, currency, amount.add(fee));
+        if (recipientId > senderId) {
+            userBalanceRepository.credit(recipientId, currency, amount);
         }
-
-        // Add the recipient amount
-        UserBalanceEntity recipientBalance = getBalance(recipient.getId(), currency);
-        recipientBalance.setAmount(recipientBalance.getAmount().add(amount));
 
         // And create the transaction entry
         TransactionEntity transaction = new TransactionEntity();
@@ -156,17 +197,115 @@ public class TransactionService {
         transaction.setDescription(description);
         transaction.setDate(date);
 
-        // Then explicitly save and returns mapped values
+        // Then explicitly save (with the ledger entries) and returns mapped values
         transactionRepository.save(transaction);
-        userBalanceRepository.saveAll(Arrays.asList(senderBalance, recipientBalance));
+        userLedgerRepository.saveAll(Arrays.asList(
+                newLedgerEntry(sender.getId(), transaction, amount.negate(), fee),
+                newLedgerEntry(recipient.getId(), transaction, amount, BigDecimal.ZERO)));
 
         transaction.setSender(sender);
         transaction.setRecipient(recipient);
         return transactionMapper.toTransaction(transaction);
     }
 
+    /**
+     * Create several transactions from the same sender, at once.
+     * <p>
+     * The batch is all-or-nothing: it is executed in a single database transaction, and if any transaction is invalid
+     * (or if the sender has not enough funds to cover all of them), none is created. Compared to calling
+     * {@link #createTransaction(long, long, Currency, BigDecimal, String, BigDecimal, ZonedDateTime)} in a loop:
+     * <ul>
+     * <li>- the sender is locked once, and each of his balances is debited once per currency (with the sum of all
+     * amounts and fees, if it covers them)</li>
+     * <li>- each recipient balance is credited once per currency (with the sum of the amounts it receives)</li>
+     * <li>- the transactions and ledger entries are inserted together</li>
+     * </ul>
+     * The transactions are created in the given order.
+     *
+     * @param senderId     ID of the user sending the money
+     * @param transactions the transactions to create
+     * @param date         transactions date
+     * @return the created transactions (in the same order)
+     * @throws IllegalArgumentException   if the transactions list is empty.
+     *                                    if an amount or fee value have too many decimals for its currency.
+     *                                    if an amount value is less or equal to zero.
+     *                                    if a fee value is less to zero.
+     *                                    if a recipientId is equals to the senderId.
+     * @throws SenderNotFoundException    if the no user match the senderId
+     * @throws RecipientNotFoundException if the no user match one of the recipientId
+     * @throws NotEnoughFundsException    if the sender has not enough funds to cover the amounts and fees values (in one
+     *                                    of the currencies).
+     */
+    public List<Transaction> createTransactions(long senderId, List<NewTransaction> transactions, ZonedDateTime date) {
+        Preconditions.checkArgument(!transactions.isEmpty(), "transactions must not be empty");
+        return userLockManager.runLocked(Collections.singletonList(senderId), () -> transactionOperations.execute(
+                status -> createTransactionsLocked(senderId, transactions, date)));
+    }
+
+    private List<Transaction> createTransactionsLocked(long senderId, List<NewTransaction> newTransactions, ZonedDateTime date) {
+        // Validate the transactions, and sum the sender debits and the recipients credits (in the balances rows order)
+        List<TransactionEntity> transactions = new ArrayList<>(newTransactions.size());
+        Map<Currency, BigDecimal> debits = new TreeMap<>(CURRENCY_ORDER);
+        TreeBasedTable<Long, Currency, BigDecimal> credits = TreeBasedTable.create(Comparator.naturalOrder(), CURRENCY_ORDER);
+        for (NewTransaction newTransaction : newTransactions) {
+            long recipientId = newTransaction.getRecipientId();
+            Currency currency = newTransaction.getCurrency();
+            BigDecimal amount = validateAmount(currency, newTransaction.getAmount());
+            BigDecimal fee = validateFee(currency, newTransaction.getFee() == null ? computeFee(currency, amount) : newTransaction.getFee());
+            Preconditions.checkArgument(senderId != recipientId, "senderId and recipientId must be different");
+
+            debits.merge(currency, amount.add(fee), BigDecimal::add);
+            BigDecimal credit = credits.get(recipientId, currency);
+            credits.put(recipientId, currency, credit == null ? amount : credit.add(amount));
+
+            TransactionEntity transaction = new TransactionEntity();
+            transaction.setSenderId(senderId);
+            transaction.setRecipientId(recipientId);
+            transaction.setCurrency(currency);
+            transaction.setAmount(amount);
+            transaction.setFee(fee);
+            transaction.setDescription(newTransaction.getDescription());
+            transaction.setDate(date);
+            transactions.add(transaction);
+        }
+
+        // Find users (they are not locked, only the balances rows are)
+        UserEntity sender = userRepository.findById(senderId).orElseThrow(SenderNotFoundException::new);
+        Map<Long, UserEntity> recipients = userRepository.findAllById(credits.rowKeySet()).stream()
+                .collect(Collectors.toMap(UserEntity::getId, Function.identity()));
+        if (recipients.size() != credits.rowKeySet().size()) {
+            throw new RecipientNotFoundException();
+        }
+
+        // Atomically withdraw the sender amounts, and add the recipients amounts (see createTransaction).
+        // All balances rows are locked in the (user ID, currency) order.
+        SortedMap<Long, Map<Currency, BigDecimal>> recipientsCredits = credits.rowMap();
+        recipientsCredits.headMap(senderId).forEach(this::credit);
+        debits.forEach((currency, amount) -> debit(senderId, currency, amount));
+        recipientsCredits.tailMap(senderId).forEach(this::credit);
+
+        // Then explicitly save (with the ledger entries) and returns mapped values
+        transactionRepository.saveAll(transactions);
+        userLedgerRepository.saveAll(transactions.stream()
+                .flatMap(transaction -> Stream.of(
+                        newLedgerEntry(senderId, transaction, transaction.getAmount().negate(), transaction.getFee()),
+                        newLedgerEntry(transaction.getRecipientId(), transaction, transaction.getAmount(), BigDecimal.ZERO)))
+                .collect(Collectors.toList()));
+
+        return transactions.stream()
+                .map(transaction -> {
+                    transaction.setSender(sender);
+                    transaction.setRecipient(recipients.get(transaction.getRecipientId()));
+                    return transactionMapper.toTransaction(transaction);
+                })
+                .collect(Collectors.toList());
+    }
+
     /**
      * Withdraw balance money to a bank account.
+     * <p>
+     * The withdrawal is recorded in the user's ledger. The user is locked in-process (see {@link UserLockManager})
+     * before opening the database transaction, then his balance is debited with a guarded update.
      *
      * @param userId   ID of the user withdrawing the money
      * @param currency amount currency
@@ -177,30 +316,35 @@ public class TransactionService {
      * @throws SenderNotFoundException  if the no user match the userId
      * @throws NotEnoughFundsException  if the sender has not enough funds to cover the amount value (in this currency).
      */
-    @Transactional
     public boolean withdrawToBank(long userId, Currency currency, BigDecimal amount, String iban) {
-        // Validate the amount
-        amount = amount.stripTrailingZeros();
-        Preconditions.checkArgument(amount.scale() <= currency.getDecimals(), "amount has too many decimals");
-        Preconditions.checkArgument(amount.compareTo(BigDecimal.ZERO) > 0, "amount must be strictly positive");
+        return userLockManager.runLocked(Collections.singletonList(userId), () -> transactionOperations.execute(
+                status -> withdrawToBankLocked(userId, currency, amount, iban)));
+    }
 
-        // Find user and lock him
-        UserEntity user = Iterables.getFirst(userRepository.findAllByIdsForUpdate(Collections.singletonList(userId)), null);
-        if (user == null) {
-            throw new SenderNotFoundException();
-        }
+    private boolean withdrawToBankLocked(long userId, Currency currency, BigDecimal amount, String iban) {
+        // Validate the amount
+        amount = validateAmount(currency, amount);
 
-        // Withdraw the amount
-        UserBalanceEntity userBalance = getBalance(user.getId(), currency);
-        userBalance.setAmount(userBalance.getAmount().subtract(amount));
-        if (userBalance.getAmount().compareTo(BigDecimal.ZERO) < 0) {
-            throw new NotEnoughFundsException(currency, userBalance.getAmount().abs());
+        // Atomically withdraw the amount (the user existence is only checked on failure)
+        if (userBalanceRepository.debit(userId, currency, amount) == 0) {
+            if (!userRepository.existsById(userId)) {
+                throw new SenderNotFoundException();
+            }
+            throw notEnoughFunds(userId, currency, amount);
         }
 
         // TODO: Send the money to the `iban` bank account (w/ banking microservice)
 
-        // Then explicitly save and returns mapped values
-        userBalanceRepository.save(userBalance);
+        // Then explicitly save the ledger entry
+        UserLedgerEntity ledgerEntry = new UserLedgerEntity();
+        ledgerEntry.setUserId(userId);
+        ledgerEntry.setType(UserLedgerEntity.Type.BANK_WITHDRAWAL);
+        ledgerEntry.setCurrency(currency);
+        ledgerEntry.setAmount(amount.negate());
+        ledgerEntry.setFee(BigDecimal.ZERO);
+        ledgerEntry.setIban(iban);
+        ledgerEntry.setDate(DateUtil.now());
+        userLedgerRepository.save(ledgerEntry);
 
         return true;
     }
@@ -219,22 +363,123 @@ public class TransactionService {
     }
 
     /**
-     * Returns a user's balance in the given currency.
-     * <p>
-     * If the balance does not exist, it is created.
+     * Validate a transaction amount.
+     *
+     * @return the amount, without trailing zeros
+     * @throws IllegalArgumentException if the amount value have too many decimals for this currency.
+     *                                  if the amount value is less or equal to zero.
+     */
+    private static BigDecimal validateAmount(Currency currency, BigDecimal amount) {
+        amount = amount.stripTrailingZeros();
+        Preconditions.checkArgument(amount.scale() <= currency.getDecimals(), "amount has too many decimals");
+        Preconditions.checkArgument(amount.compareTo(BigDecimal.ZERO) > 0, "amount must be strictly positive");
+        return amount;
+    }
+
+    /**
+     * Validate a transaction fee.
+     *
+     * @return the fee, without trailing zeros
+     * @throws IllegalArgumentException if the fee value have too many decimals for this currency.
+     *                                  if the fee value is less to zero.
+     */
+    private static BigDecimal validateFee(Currency currency, BigDecimal fee) {
+        fee = fee.stripTrailingZeros();
+        Preconditions.checkArgument(fee.scale() <= currency.getDecimals(), "fee has too many decimals");
+        Preconditions.checkArgument(fee.compareTo(BigDecimal.ZERO) >= 0, "fee must be positive");
+        return fee;
+    }
+
+    /**
+     * Atomically add amounts to a user's balances.
+     *
+     * @param userId  ID of the user
+     * @param amounts amounts to add, per currency
+     */
+    private void credit(long userId, Map<Currency, BigDecimal> amounts) {
+        amounts.forEach((currency, amount) -> userBalanceRepository.credit(userId, currency, amount));
+    }
+
+    /**
+     * Create a user's ledger entry for one side of a transaction.
+     *
+     * @param userId      ID of the user
+     * @param transaction the transaction
+     * @param amount      signed amount (negative for the sender)
+     * @param fee         fees charged to the user
+     * @return the ledger entry
+     */
+    private UserLedgerEntity newLedgerEntry(long userId, TransactionEntity transaction, BigDecimal amount, BigDecimal fee) {
+        UserLedgerEntity ledgerEntry = new UserLedgerEntity();
+        ledgerEntry.setUserId(userId);
+        ledgerEntry.setType(UserLedgerEntity.Type.TRANSACTION);
+        ledgerEntry.setTransactionId(transaction.getId());
+        ledgerEntry.setCurrency(transaction.getCurrency());
+        ledgerEntry.setAmount(amount);
+        ledgerEntry.setFee(fee);
+        ledgerEntry.setDate(transaction.getDate());
+        return ledgerEntry;
+    }
+
+    /**
+     * Atomically withdraw an amount from a user's balance, if it covers it.
      *
      * @param userId   ID of the user
-     * @param currency currency of the balance to returns
-     * @return the balance
-     */
-    private UserBalanceEntity getBalance(long userId, Currency currency) {
-        UserBalanceEntity userBalanceEntity = userBalanceRepository.findByUserIdAndCurrency(userId, currency).orElse(null);
-        if (userBalanceEntity == null) {
-            userBalanceEntity = new UserBalanceEntity();
-            userBalanceEntity.setUserId(userId);
-            userBalanceEntity.setCurrency(currency);
-            userBalanceEntity.setAmount(new BigDecimal(0));
+     * @param currency currency of the balance
+     * @param amount   amount to withdraw
+     * @throws NotEnoughFundsException if the balance does not cover the amount
+     */
+    private void debit(long userId, Currency currency, BigDecimal amount) {
+        if (userBalanceRepository.debit(userId, currency, amount) == 0) {
+            throw notEnoughFunds(userId, currency, amount);
         }
-        return userBalanceEntity;
+    }
+
+    /**
+     * Create the exception thrown when a user's balance does not cover an amount (reading the balance to compute the
+     * missing amount - this is not a hot path).
+     */
+    private NotEnoughFundsException notEnoughFunds(long userId, Currency currency, BigDecimal amount) {
+        BigDecimal balance = userBalanceRepository.findByUserIdAndCurrency(userId, currency)
+                .map(UserBalanceEntity::getAmount)
+                .orElse(BigDecimal.ZERO);
+        return new NotEnoughFundsException(currency, amount.subtract(balance));
+    }
+
+    /**
+     * A transaction to create (see {@link #createTransactions(long, List, ZonedDateTime)}).
+     */
+    @Builder(builderClassName = "Builder")
+    @NoArgsConstructor
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    @Data
+    public static class NewTransaction {
+        /**
+         * ID of the user receiving the money.
+         */
+        @NonNull
+        private Long recipientId;
+
+        /**
+         * Amount currency.
+         */
+        @NonNull
+        private Currency currency;
+
+        /**
+         * Amount value.
+         */
+        @NonNull
+        private BigDecimal amount;
+
+        /**
+         * Description of the transaction.
+         */
+        private String description;
+
+        /**
+         * Fees to charges to the sender (using the amount currency), or {@code null} for the default fees.
+         */
+        private BigDecimal fee;
     }
 }
@@ -158,6 +158,9 @@ public class UserService implements UserProvider {
 
     /**
      * Update the password of a user (from it's encoded version - so no validation is done).
+     * <p>
+     * The password is only updated if it has not changed since the user was loaded (passwords encoding is upgraded in
+     * background, it must not override a concurrent password change).
      *
      * @param user            the user
      * @param encodedPassword the new encoded password
@@ -165,8 +168,9 @@ public class UserService implements UserProvider {
     @Override
     @Transactional
     public void updateEncodedPassword(User user, String encodedPassword) {
-        userRepository.updatePassword(user.getId(), encodedPassword);
-        user.setEncodedPassword(encodedPassword);
+        if (userRepository.updatePassword(user.getId(), user.getEncodedPassword(), encodedPassword) != 0) {
+            user.setEncodedPassword(encodedPassword);
+        }
     }
 
     /**
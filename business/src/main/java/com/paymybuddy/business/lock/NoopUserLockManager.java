@@ -0,0 +1,14 @@
+package com.paymybuddy.business.lock;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * A {@link UserLockManager} that does not lock anything (the database row locks are the only ones used).
+ */
+public class NoopUserLockManager implements UserLockManager {
+    @Override
+    public <T> T runLocked(Collection<Long> userIds, Supplier<T> action) {
+        return action.get();
+    }
+}
@@ -0,0 +1,73 @@
+package com.paymybuddy.business.lock;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Striped;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+
+/**
+ * A {@link UserLockManager} using a fixed number of lock stripes (users are mapped to a stripe by their ID).
+ * <p>
+ * Stripes are always acquired in the same order, so that two operations on the same users cannot deadlock. Two
+ * unrelated users may share a stripe: more stripes means less false contention.
+ * <p>
+ * Metrics:
+ * <ul>
+ * <li>- {@code paymybuddy.user_locks.stripes}: number of stripes</li>
+ * <li>- {@code paymybuddy.user_locks.wait}: time spent waiting to acquire the locks</li>
+ * </ul>
+ */
+public class StripedUserLockManager implements UserLockManager {
+    private final Striped<Lock> stripes;
+    private final Timer waitTimer;
+
+    /**
+     * @param stripes       minimum number of stripes (rounded up to a power of two)
+     * @param meterRegistry registry to publish metrics to
+     */
+    public StripedUserLockManager(int stripes, MeterRegistry meterRegistry) {
+        Preconditions.checkArgument(stripes > 0, "stripes must be strictly positive");
+        this.stripes = Striped.lock(stripes);
+        Gauge.builder("paymybuddy.user_locks.stripes", this.stripes, Striped::size)
+                .description("Number of user lock stripes")
+                .register(meterRegistry);
+        waitTimer = Timer.builder("paymybuddy.user_locks.wait")
+                .description("Time spent waiting to acquire user locks")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the number of stripes.
+     */
+    public int getStripesCount() {
+        return stripes.size();
+    }
+
+    @Override
+    public <T> T runLocked(Collection<Long> userIds, Supplier<T> action) {
+        // Stripes are returned sorted by index (some users may share the same stripe, which is fine since the locks are
+        // reentrant)
+        List<Lock> locks = ImmutableList.copyOf(stripes.bulkGet(userIds));
+        long start = System.nanoTime();
+        int locked = 0;
+        try {
+            for (Lock lock : locks) {
+                lock.lock();
+                ++locked;
+            }
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; --i) {
+                locks.get(i).unlock();
+            }
+        }
+    }
+}
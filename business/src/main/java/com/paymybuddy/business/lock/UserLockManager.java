@@ -0,0 +1,21 @@
+package com.paymybuddy.business.lock;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * In-process locks on users, taken before opening a database transaction.
+ * <p>
+ * Concurrent operations on the same users then wait in the JVM, instead of waiting for the database row locks while
+ * holding a connection.
+ */
+public interface UserLockManager {
+    /**
+     * Run an action while holding the locks of some users.
+     *
+     * @param userIds IDs of the users to lock
+     * @param action  action to run
+     * @return the action result
+     */
+    <T> T runLocked(Collection<Long> userIds, Supplier<T> action);
+}
@@ -0,0 +1,213 @@
+package com.paymybuddy.business.pageable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.io.BaseEncoding;
+import com.paymybuddy.business.pageable.type.BinaryReader;
+import com.paymybuddy.business.pageable.type.BinaryWriter;
+import com.paymybuddy.business.pageable.type.PropertyType;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.List;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Encode and decode the {@link CursorFetcher} cursors, as a compact binary blob signed with an HMAC tag so that crafted
+ * cursors are rejected before reaching the database.
+ * <p>
+ * Cursor format (base64url encoded, without padding):
+ * <ul>
+ * <li>- a header byte: the format version (4 high bits), whether some values are null (bit 3) and the cursor kind (bits
+ * 0-2)</li>
+ * <li>- if some values are null: a bitmap of the null values (as a variable-length long)</li>
+ * <li>- the non-null values (written by their {@link PropertyType})</li>
+ * <li>- the tag: the truncated HMAC-SHA256 of the above bytes and of the cursor context (eg. the sort instructions, so
+ * that a cursor cannot be reused with another sort)</li>
+ * </ul>
+ */
+public class CursorCodec {
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int HMAC_LENGTH = 32;
+    private static final int TAG_LENGTH = 8;
+    private static final int MIN_KEY_LENGTH = 32;
+    private static final int VERSION = 1;
+    private static final int HAS_NULLS_FLAG = 0x08;
+    private static final int KIND_MASK = 0x07;
+    private static final int MAX_VALUES = 63;
+    private static final BaseEncoding BASE64_URL = BaseEncoding.base64Url().omitPadding();
+
+    /**
+     * Max-length of a cursor string (used for fast-fail checks).
+     */
+    private static final int CURSOR_MAX_LEN = 512;
+
+    private static final byte[] BASE64_URL_DECODING = new byte[128];
+
+    static {
+        Arrays.fill(BASE64_URL_DECODING, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); ++i) {
+            BASE64_URL_DECODING[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private final ThreadLocal<Signer> signers;
+
+    /**
+     * @param key secret key used to sign the cursors (at least 32 bytes)
+     */
+    public CursorCodec(byte[] key) {
+        Preconditions.checkArgument(key.length >= MIN_KEY_LENGTH, "key must be at least %s bytes long", MIN_KEY_LENGTH);
+        SecretKeySpec secretKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+        new Signer(secretKey); // fail-fast
+        signers = ThreadLocal.withInitial(() -> new Signer(secretKey));
+    }
+
+    /**
+     * Encode and sign a cursor.
+     *
+     * @param kind    kind of the cursor (between 0 and 7)
+     * @param types   types of the values
+     * @param values  values to encode (nullable)
+     * @param context cursor context (the same context must be given to decode the cursor)
+     * @return the cursor
+     */
+    String encode(int kind, List<PropertyType<Object>> types, List<?> values, byte[] context) {
+        Preconditions.checkArgument((kind & ~KIND_MASK) == 0, "invalid kind: %s", kind);
+        Preconditions.checkArgument(values.size() == types.size() && values.size() <= MAX_VALUES, "invalid values count");
+
+        long nulls = 0;
+        for (int i = 0; i < values.size(); ++i) {
+            if (values.get(i) == null) {
+                nulls |= 1L << i;
+            }
+        }
+
+        BinaryWriter out = new BinaryWriter(16 + 10 * values.size());
+        out.writeByte((VERSION << 4) | (nulls != 0 ? HAS_NULLS_FLAG : 0) | kind);
+        if (nulls != 0) {
+            out.writeVarLong(nulls);
+        }
+        for (int i = 0; i < values.size(); ++i) {
+            Object value = values.get(i);
+            if (value != null) {
+                types.get(i).write(value, out);
+            }
+        }
+        int payloadLength = out.size();
+        out.ensureCapacity(TAG_LENGTH);
+        byte[] buf = out.buffer();
+        System.arraycopy(signers.get().sign(buf, payloadLength, context), 0, buf, payloadLength, TAG_LENGTH);
+        return BASE64_URL.encode(buf, 0, payloadLength + TAG_LENGTH);
+    }
+
+    /**
+     * Verify and decode a cursor.
+     *
+     * @param cursor  cursor to decode
+     * @param types   types of the values
+     * @param context cursor context (the same as given to encode the cursor)
+     * @param values  array to store the decoded values to (nullable)
+     * @return the kind of the cursor
+     * @throws IllegalArgumentException if the cursor is invalid (malformed or not correctly signed)
+     */
+    int decode(String cursor, List<PropertyType<Object>> types, byte[] context, Object[] values) {
+        if (cursor.length() > CURSOR_MAX_LEN) {
+            throw new IllegalArgumentException("Cursor too long");
+        }
+        byte[] buf = decodeBase64Url(cursor);
+        int payloadLength = buf.length - TAG_LENGTH;
+        if (payloadLength < 1) {
+            throw new IllegalArgumentException("Cursor too short");
+        }
+
+        // Verify the tag (in constant time) before reading anything
+        byte[] expectedTag = signers.get().sign(buf, payloadLength, context);
+        int diff = 0;
+        for (int i = 0; i < TAG_LENGTH; ++i) {
+            diff |= expectedTag[i] ^ buf[payloadLength + i];
+        }
+        if (diff != 0) {
+            throw new IllegalArgumentException("Invalid cursor signature");
+        }
+
+        BinaryReader in = new BinaryReader(buf, 0, payloadLength);
+        int header = in.readByte();
+        if ((header >>> 4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported cursor version");
+        }
+        long nulls = (header & HAS_NULLS_FLAG) != 0 ? in.readVarLong() : 0;
+        if (types.size() > MAX_VALUES || (nulls >>> types.size()) != 0) {
+            throw new IllegalArgumentException("Cursor overflow");
+        }
+        for (int i = 0; i < types.size(); ++i) {
+            values[i] = (nulls & (1L << i)) != 0 ? null : types.get(i).read(in);
+        }
+        if (in.remaining() != 0) {
+            throw new IllegalArgumentException("Cursor overflow");
+        }
+        return header & KIND_MASK;
+    }
+
+    /**
+     * Decode a base64url string (without padding) in a single pass.
+     */
+    private static byte[] decodeBase64Url(String str) {
+        int length = str.length();
+        if (length % 4 == 1) {
+            throw new IllegalArgumentException("Invalid base64 length");
+        }
+        byte[] ret = new byte[length * 3 / 4];
+        int bits = 0;
+        int bitsCount = 0;
+        int pos = 0;
+        for (int i = 0; i < length; ++i) {
+            char c = str.charAt(i);
+            int value = c < 128 ? BASE64_URL_DECODING[c] : -1;
+            if (value < 0) {
+                throw new IllegalArgumentException("Invalid base64 character");
+            }
+            bits = (bits << 6) | value;
+            bitsCount += 6;
+            if (bitsCount >= 8) {
+                bitsCount -= 8;
+                ret[pos++] = (byte) (bits >>> bitsCount);
+            }
+        }
+        if ((bits & ((1 << bitsCount) - 1)) != 0) {
+            throw new IllegalArgumentException("Invalid base64 trailing bits");
+        }
+        return ret;
+    }
+
+    /**
+     * A per-thread {@link Mac} (with its output buffer).
+     */
+    private static class Signer {
+        private final Mac mac;
+        private final byte[] hmac = new byte[HMAC_LENGTH];
+
+        private Signer(SecretKeySpec secretKey) {
+            try {
+                mac = Mac.getInstance(HMAC_ALGORITHM);
+                mac.init(secretKey);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Returns the HMAC of the payload and context (only the first {@link #TAG_LENGTH} bytes are used).
+         */
+        private byte[] sign(byte[] payload, int payloadLength, byte[] context) {
+            try {
+                mac.update(payload, 0, payloadLength);
+                mac.update(context);
+                mac.doFinal(hmac, 0);
+                return hmac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
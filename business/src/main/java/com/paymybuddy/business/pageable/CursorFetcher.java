@@ -1,22 +1,29 @@
 package com.paymybuddy.business.pageable;
 
 import com.google.common.base.Preconditions;
-import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
-import com.google.common.io.BaseEncoding;
 import com.paymybuddy.api.model.collection.CursorResponse;
 import com.paymybuddy.business.exception.PreconditionException;
 import com.paymybuddy.business.pageable.type.PropertyType;
+import com.paymybuddy.persistence.util.RowValuePredicate;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
@@ -24,10 +31,11 @@ import lombok.Data;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.experimental.Accessors;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.jpa.domain.Specification;
@@ -35,110 +43,72 @@ import org.springframework.data.jpa.domain.Specification;
 /**
  * An utility to retrieve paginated results, using an CURSOR/COMPARISON logic.
  * <p>
+ * A fetcher is immutable and thread-safe: build it once per endpoint, then call {@link #fetch(CursorRequest, Function)}
+ * for each request. Each sort combination is compiled once (properties, query sorts, cursor context and comparison
+ * templates) and cached, so that only the cursor values vary per request.
+ * <p>
  * See: https://medium.com/swlh/why-you-shouldnt-use-offset-and-limit-for-your-pagination-4440e421ba87
  *
  * @param <Model>  model
  * @param <Entity> database entity
  */
-@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
-@Data
-@Accessors(fluent = true)
-public class CursorFetcher<Model, Entity> {
-    private static final BaseEncoding BASE64_URL = BaseEncoding.base64Url().omitPadding();
-    private static final Splitter DOT_SPLITTER = Splitter.on('.');
-
+public final class CursorFetcher<Model, Entity> {
     /**
-     * Create a new {@link CursorFetcher} instance.
-     * <p>
-     * You must now set {@link #recordsQuery(Function)}, {@link #recordMapper(Function)} and
-     * at least one {@link #property(String, PropertyType, Function, boolean)} before calling {@link #fetch(CursorRequest)}.
+     * Maximum number of cached sort plans (sort combinations are bounded by the request parsers, this is only a
+     * safety net).
      */
-    public static <Model, Entity> CursorFetcher<Model, Entity> create() {
-        return new CursorFetcher<>();
-    }
+    private static final int MAX_SORT_PLANS = 64;
 
     /**
-     * Query function, to retrieve {@linkplain #<Entity> entities} records.
-     */
-    private Function<Query<Entity>, Page<Entity>> recordsQuery;
-
-    /**
-     * Mapping function, to transform the fetched {@linkplain #<Entity> entities} records to {@linkplain #<Model> models}.
-     */
-    private Function<Entity, Model> recordMapper;
-
-    /**
-     * Sortable properties, used by the cursor for comparisons.
-     */
-    private final Map<String, Property<?, Entity>> properties = new HashMap<>();
-    private String uniquePropertyName;
-
-    private Function<String, String> propertyTransformer;
-
-    /**
-     * Register a non-unique property.
-     *
-     * @return this
-     * @see #property(String, PropertyType, Function, boolean)
+     * Create a new {@link CursorFetcher} builder.
+     * <p>
+     * You must now set {@link Builder#recordMapper(Function)}, {@link Builder#cursorCodec(CursorCodec)} and
+     * at least one unique {@link Builder#property(String, PropertyType, Function, boolean)} before calling
+     * {@link Builder#build()}.
      */
-    public <V> CursorFetcher<Model, Entity> property(String propertyName, PropertyType<V> type, Function<Entity, V> accessor) {
-        return property(propertyName, type, accessor, false);
+    public static <Model, Entity> Builder<Model, Entity> create() {
+        return new Builder<>();
     }
 
-    /**
-     * Register a property. A property is a sortable entity column (used for the cursor comparisons).
-     * At least one unique property is required to maintains the cursor consistency.
-     *
-     * @param propertyName name of the property, must be the same as the entity column name (eg. "id")
-     * @param type         type of the column (to serialize/deserialize the cursor)
-     * @param accessor     column getter (eg. {@code <code>Entity::getId</code>})
-     * @param unique       whether this column is unique or not
-     * @return this
-     */
-    public <V> CursorFetcher<Model, Entity> property(String propertyName, PropertyType<V> type, Function<Entity, V> accessor, boolean unique) {
-        if (uniquePropertyName == null && unique) {
-            uniquePropertyName = propertyName;
-        }
-        properties.put(propertyName, new Property<>(type, accessor, unique));
-        return this;
+    private final Function<Entity, Model> recordMapper;
+    private final CursorCodec cursorCodec;
+    private final Map<String, Property<?, Entity>> properties;
+    private final String uniquePropertyName;
+    private final Function<String, String> propertyTransformer;
+    private final boolean rowValueComparison;
+    private final ConcurrentMap<List<String>, SortPlan<Entity>> sortPlans = new ConcurrentHashMap<>();
+
+    private CursorFetcher(Builder<Model, Entity> builder) {
+        Preconditions.checkNotNull(builder.recordMapper, "recordMapper cannot be null");
+        Preconditions.checkNotNull(builder.cursorCodec, "cursorCodec cannot be null");
+        Preconditions.checkNotNull(builder.uniquePropertyName, "require at least one unique property");
+        recordMapper = builder.recordMapper;
+        cursorCodec = builder.cursorCodec;
+        properties = ImmutableMap.copyOf(builder.properties);
+        uniquePropertyName = builder.uniquePropertyName;
+        propertyTransformer = builder.propertyTransformer;
+        rowValueComparison = builder.rowValueComparison;
     }
 
     /**
      * Perform a request and returns paginated results.
      *
-     * @param request request parameters
+     * @param request      request parameters
+     * @param recordsQuery query function, to retrieve {@linkplain #<Entity> entities} records. Prefer returning a
+     *                     {@link Slice} (eg. using a {@code SliceSpecificationExecutor}) over a
+     *                     {@link org.springframework.data.domain.Page}, since the total count is never used by cursors.
      * @return the paginated results
      */
-    public CursorResponse<Model> fetch(CursorRequest request) {
-        Preconditions.checkNotNull(recordsQuery, "recordsQuery cannot be null");
-        Preconditions.checkNotNull(recordMapper, "recordMapper cannot be null");
-        Preconditions.checkNotNull(uniquePropertyName, "require at least one unique property");
-
+    public CursorResponse<Model> fetch(CursorRequest request, Function<Query<Entity>, Slice<Entity>> recordsQuery) {
         CursorResponse<Model> res = CursorResponse.<Model>builder().hasNext(false).hasPrev(false).build();
         String cursor = request.getCursor();
         int pageSize = request.getPageSize();
-
-        // Parse pageSort, and validate that they belong to a registered property.
-        // Also check that at least one unique property is used, else add the first unique property at end.
-        List<Sort.Order> sorts = PageableUtil.parseSortInstructions(request.getPageSort(), propertyTransformer);
-        boolean hasUnique = false;
-        for (Sort.Order sort : sorts) {
-            Property<?, Entity> property = properties.get(sort.getProperty());
-            if (property == null) {
-                throw new IllegalArgumentException(sort.getProperty() + " is not a supported property");
-            }
-            if (property.isUnique()) {
-                hasUnique = true;
-            }
-        }
-        if (!hasUnique) {
-            sorts.add(Sort.Order.asc(uniquePropertyName));
-        }
+        SortPlan<Entity> plan = getSortPlan(request.getPageSort());
 
         // Decode/deserialize the cursor
         Cursor c;
         try {
-            c = decodeCursor(cursor, sorts);
+            c = decodeCursor(cursor, plan);
         } catch (IllegalArgumentException ignored) {
             throw new PreconditionException("cursor", "IsCursor", "must be a valid cursor", Collections.emptyMap());
         }
@@ -152,71 +122,40 @@ public class CursorFetcher<Model, Entity> {
                 reverse = true;
                 if (!c.getType().isInclude()) {
                     res.setPrevCursor(cursor);
-                    res.setNextCursor(CursorType.AFTER_INCLUDE.getSymbol() + cursor.substring(1));
+                    res.setNextCursor(encodeCursor(CursorType.AFTER_INCLUDE, c.getValues(), plan));
                     res.setHasNext(true);
                 }
             } else if (!c.getType().isInclude()) {
                 res.setNextCursor(cursor);
-                res.setPrevCursor(CursorType.BEFORE_INCLUDE.getSymbol() + cursor.substring(1));
+                res.setPrevCursor(encodeCursor(CursorType.BEFORE_INCLUDE, c.getValues(), plan));
                 res.setHasPrev(true);
             }
 
-            Specification<Entity> prev = null;
-            int valueIndex = 0;
-            for (Sort.Order sort : sorts) {
-                String property = sort.getProperty();
-                CursorComparator comparator;
-                if (sort.getDirection() == Direction.ASC) {
-                    comparator = c.getType().getComparator();
-                } else {
-                    comparator = c.getType().inverse().getComparator();
-                }
-
-                @SuppressWarnings("unchecked") // values are validated in decodeCursor
-                Comparable<Object> value = (Comparable<Object>) c.getValues().get(valueIndex);
-                if (prev == null) {
-                    specification = specification.or((root, query, builder) -> comparator.compare(builder, root.get(property), value));
-                    prev = (root, query, builder) -> builder.equal(root.get(property), value);
-                } else {
-                    Specification<Entity> prevF = prev;
-                    specification = specification.or((root, query, builder) -> builder.and(prevF.toPredicate(root, query, builder), comparator.compare(builder, root.get(property), value)));
-                    prev = (root, query, builder) -> builder.and(prevF.toPredicate(root, query, builder), builder.equal(root.get(property), value));
-                }
-                ++valueIndex;
+            if (plan.isRowValueComparison() && c.getValues().stream().allMatch(Objects::nonNull)) {
+                specification = rowValueComparison(c, plan);
+            } else {
+                specification = comparisonChain(c, plan);
             }
         }
 
-        // Generate the query sort (reversing it if needed - see the explanation above)
-        Sort sort;
-        if (reverse) {
-            sort = Sort.by(sorts.stream()
-                    .map(o -> new Sort.Order(o.getDirection() == Direction.ASC ? Direction.DESC : Direction.ASC, o.getProperty()))
-                    .collect(Collectors.toList()));
-        } else {
-            sort = Sort.by(sorts);
-        }
-
-        // Perform the query (to retrieve entities)
-        // TODO: Explain the 'pageSize + 1' limit
-        // TODO: Find a way to prevent spring from fetching totalElements (since we are using PageRequest)...
-        //       This is not needed here and costly.
-        Iterator<Entity> it = recordsQuery.apply(new Query<>(specification, PageRequest.of(0, pageSize + 1, sort))).iterator();
-        List<Entity> entities = new ArrayList<>(pageSize);
-        int entitiesSize = 0;
-        for (; it.hasNext() && entitiesSize < pageSize; ++entitiesSize) {
-            entities.add(it.next());
-        }
+        // Perform the query (to retrieve entities), with the query sort reversed if needed (see the explanation above)
+        // The returned slice tells us if there are more records after this page (without counting them), which is
+        // used to know if there is a next page (or a previous one when reversed).
+        Sort sort = reverse ? plan.getReverseSort() : plan.getSort();
+        Slice<Entity> slice = recordsQuery.apply(new Query<>(specification, PageRequest.of(0, pageSize, sort)));
+        List<Entity> entities = slice.getContent();
+        int entitiesSize = entities.size();
 
         // Set the future cursor values (reversing them if needed - see the explanation above)
         if (!entities.isEmpty()) {
             if (!reverse) {
-                res.setPrevCursor(encodeCursor(CursorType.BEFORE, entities.get(0), sorts));
-                res.setNextCursor(encodeCursor(CursorType.AFTER, entities.get(entitiesSize - 1), sorts));
-                res.setHasNext(it.hasNext());
+                res.setPrevCursor(encodeCursor(CursorType.BEFORE, entities.get(0), plan));
+                res.setNextCursor(encodeCursor(CursorType.AFTER, entities.get(entitiesSize - 1), plan));
+                res.setHasNext(slice.hasNext());
             } else {
-                res.setNextCursor(encodeCursor(CursorType.AFTER, entities.get(0), sorts));
-                res.setPrevCursor(encodeCursor(CursorType.BEFORE, entities.get(entitiesSize - 1), sorts));
-                res.setHasPrev(it.hasNext());
+                res.setNextCursor(encodeCursor(CursorType.AFTER, entities.get(0), plan));
+                res.setPrevCursor(encodeCursor(CursorType.BEFORE, entities.get(entitiesSize - 1), plan));
+                res.setHasPrev(slice.hasNext());
             }
         }
 
@@ -227,64 +166,245 @@ public class CursorFetcher<Model, Entity> {
     }
 
     /**
-     * Deserialize the cursor from it's string representation.
+     * Returns the (cached) plan of a sort combination.
      */
-    private Cursor decodeCursor(String cursor, List<Sort.Order> sorts) {
-        if (cursor == null || cursor.isEmpty()) {
-            return null;
+    private SortPlan<Entity> getSortPlan(Collection<String> pageSort) {
+        List<String> key = new ArrayList<>(pageSort);
+        SortPlan<Entity> plan = sortPlans.get(key);
+        if (plan == null) {
+            plan = compileSortPlan(key);
+            if (sortPlans.size() < MAX_SORT_PLANS) {
+                sortPlans.putIfAbsent(key, plan);
+            }
         }
+        return plan;
+    }
 
-        CursorType type = CursorType.bySymbol(cursor.charAt(0));
-        if (type == null) {
-            throw new IllegalArgumentException("Unknown cursor type");
+    /**
+     * Parse sort instructions, and validate that they belong to a registered property.
+     * Also check that at least one unique property is used, else add the first unique property at end.
+     */
+    @SuppressWarnings("unchecked")
+    private SortPlan<Entity> compileSortPlan(List<String> pageSort) {
+        List<Sort.Order> sorts = PageableUtil.parseSortInstructions(pageSort, propertyTransformer);
+        boolean hasUnique = false;
+        for (Sort.Order sort : sorts) {
+            Property<?, Entity> property = properties.get(sort.getProperty());
+            if (property == null) {
+                throw new IllegalArgumentException(sort.getProperty() + " is not a supported property");
+            }
+            if (property.isUnique()) {
+                hasUnique = true;
+            }
+        }
+        if (!hasUnique) {
+            sorts.add(Sort.Order.asc(uniquePropertyName));
         }
 
-        List<Object> values = new ArrayList<>(sorts.size());
-        int valuesIndex = 0;
-        for (String str : DOT_SPLITTER.split(cursor.substring(1))) {
-            if (valuesIndex >= sorts.size()) {
-                throw new IllegalArgumentException("Cursor overflow");
+        int size = sorts.size();
+        String[][] propertyPaths = new String[size][];
+        List<PropertyType<Object>> types = new ArrayList<>(size);
+        List<Function<Entity, Object>> accessors = new ArrayList<>(size);
+        CursorComparator[][] comparators = new CursorComparator[CursorType.values().length][size];
+        for (int i = 0; i < size; ++i) {
+            Sort.Order sort = sorts.get(i);
+            Property<Object, Entity> property = (Property<Object, Entity>) properties.get(sort.getProperty());
+            propertyPaths[i] = sort.getProperty().split("\\.");
+            types.add(property.getType());
+            accessors.add(property.getAccessor());
+            for (CursorType type : CursorType.values()) {
+                comparators[type.ordinal()][i] = (sort.getDirection() == Direction.ASC ? type : type.inverse()).getComparator();
             }
+        }
 
-            if (str.equals("$")) {
-                values.add(null);
-            } else {
-                try {
-                    byte[] bytes = BASE64_URL.decode(str);
-                    Property<?, Entity> property = properties.get(sorts.get(valuesIndex).getProperty());
-                    values.add(property.getType().deserialize(bytes));
-                } catch (Exception e) {
-                    throw new IllegalArgumentException("Unreadable cursor property", e);
+        Direction direction = sorts.get(0).getDirection();
+        RowValueComparator[] rowValueComparators = new RowValueComparator[CursorType.values().length];
+        for (CursorType type : CursorType.values()) {
+            rowValueComparators[type.ordinal()] = (direction == Direction.ASC ? type : type.inverse()).getRowValueComparator();
+        }
+
+        return new SortPlan<>(
+                propertyPaths,
+                ImmutableList.copyOf(types),
+                ImmutableList.copyOf(accessors),
+                sorts.stream()
+                        .map(sort -> (sort.getDirection() == Direction.DESC ? "-" : "") + sort.getProperty())
+                        .collect(Collectors.joining(","))
+                        .getBytes(StandardCharsets.UTF_8),
+                Sort.by(sorts),
+                Sort.by(sorts.stream()
+                        .map(o -> new Sort.Order(o.getDirection() == Direction.ASC ? Direction.DESC : Direction.ASC, o.getProperty()))
+                        .collect(Collectors.toList())),
+                comparators,
+                rowValueComparison && sorts.stream().allMatch(sort -> sort.getDirection() == direction),
+                rowValueComparators);
+    }
+
+    /**
+     * Generate a chain of comparisons matching the records after (or before) the cursor values.
+     * <p>
+     * Eg. with {@code sort=-amount,id}: {@code (amount < ?) OR (amount = ? AND id > ?)}.
+     */
+    private Specification<Entity> comparisonChain(Cursor c, SortPlan<Entity> plan) {
+        String[][] propertyPaths = plan.getPropertyPaths();
+        CursorComparator[] comparators = plan.getComparators()[c.getType().ordinal()];
+        @SuppressWarnings("unchecked") // values are validated in decodeCursor
+        List<Comparable<Object>> values = (List<Comparable<Object>>) (List<?>) c.getValues();
+        return (root, query, builder) -> {
+            Path<Comparable<Object>>[] paths = paths(root, propertyPaths);
+            Predicate[] predicates = new Predicate[propertyPaths.length];
+            for (int i = 0; i < propertyPaths.length; ++i) {
+                Predicate comparison = comparators[i].compare(builder, paths[i], values.get(i));
+                if (i == 0) {
+                    predicates[i] = comparison;
+                } else {
+                    Predicate[] conjunction = new Predicate[i + 1];
+                    for (int j = 0; j < i; ++j) {
+                        conjunction[j] = builder.equal(paths[j], values.get(j));
+                    }
+                    conjunction[i] = comparison;
+                    predicates[i] = builder.and(conjunction);
                 }
             }
-            ++valuesIndex;
+            return predicates.length == 1 ? predicates[0] : builder.or(predicates);
+        };
+    }
+
+    /**
+     * Generate a row-value comparison matching the records after (or before) the cursor values.
+     * <p>
+     * Eg. with {@code sort=-amount,-id}: {@code (amount, id) < (?, ?)}.
+     */
+    private Specification<Entity> rowValueComparison(Cursor c, SortPlan<Entity> plan) {
+        String[][] propertyPaths = plan.getPropertyPaths();
+        RowValueComparator comparator = plan.getRowValueComparators()[c.getType().ordinal()];
+        List<Object> values = c.getValues();
+        return (root, query, builder) -> comparator.compare(builder, Arrays.asList(paths(root, propertyPaths)), values);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Path<T>[] paths(Path<?> root, String[][] propertyPaths) {
+        Path<T>[] paths = new Path[propertyPaths.length];
+        for (int i = 0; i < propertyPaths.length; ++i) {
+            Path<?> path = root;
+            for (String attributeName : propertyPaths[i]) {
+                path = path.get(attributeName);
+            }
+            paths[i] = (Path<T>) path;
+        }
+        return paths;
+    }
+
+    /**
+     * Deserialize the cursor from it's string representation.
+     */
+    private Cursor decodeCursor(String cursor, SortPlan<Entity> plan) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
         }
-        if (valuesIndex != sorts.size()) {
-            throw new IllegalArgumentException("Incomplete cursor");
+
+        Object[] values = new Object[plan.getTypes().size()];
+        int kind = cursorCodec.decode(cursor, plan.getTypes(), plan.getCursorContext(), values);
+        return new Cursor(CursorType.values()[kind], Arrays.asList(values));
+    }
+
+    /**
+     * Serialize a cursor positioned on an entity, to a string representation.
+     */
+    private String encodeCursor(CursorType type, Entity entity, SortPlan<Entity> plan) {
+        List<Function<Entity, Object>> accessors = plan.getAccessors();
+        List<Object> values = new ArrayList<>(accessors.size());
+        for (Function<Entity, Object> accessor : accessors) {
+            values.add(accessor.apply(entity));
         }
-        return new Cursor(type, values);
+        return encodeCursor(type, values, plan);
     }
 
     /**
      * Serialize a cursor, to a string representation.
      */
-    @SuppressWarnings("unchecked")
-    private String encodeCursor(CursorType type, Entity entity, List<Sort.Order> sorts) {
-        return type.getSymbol() + sorts.stream()
-                .map(sort -> {
-                    Property<Object, Entity> property = (Property<Object, Entity>) properties.get(sort.getProperty());
-                    Object value = property.getAccessor().apply(entity);
-                    if (value == null) {
-                        return "$";
-                    }
-                    return BASE64_URL.encode(property.getType().serialize(value));
-                })
-                .collect(Collectors.joining("."));
+    private String encodeCursor(CursorType type, List<Object> values, SortPlan<Entity> plan) {
+        return cursorCodec.encode(type.ordinal(), plan.getTypes(), values, plan.getCursorContext());
+    }
+
+    /**
+     * A {@link CursorFetcher} builder.
+     */
+    @Setter
+    @Accessors(fluent = true)
+    public static final class Builder<Model, Entity> {
+        /**
+         * Mapping function, to transform the fetched {@linkplain #<Entity> entities} records to
+         * {@linkplain #<Model> models}.
+         */
+        private Function<Entity, Model> recordMapper;
+
+        /**
+         * Codec used to encode (and sign) the cursors.
+         */
+        private CursorCodec cursorCodec;
+
+        /**
+         * Sortable properties, used by the cursor for comparisons.
+         */
+        @Setter(AccessLevel.NONE)
+        private final Map<String, Property<?, Entity>> properties = new LinkedHashMap<>();
+        @Setter(AccessLevel.NONE)
+        private String uniquePropertyName;
+
+        private Function<String, String> propertyTransformer;
+
+        /**
+         * Whether to compare the cursor values using a single row-value comparison (eg. {@code (amount, id) > (?, ?)})
+         * instead of a chain of comparisons (eg. {@code (amount > ?) OR (amount = ? AND id > ?)}), when all the sort
+         * directions agree. The database can then resolve it as a single index range.
+         * <p>
+         * Properties must not be nullable, and the database dialect must support row-value constructors.
+         */
+        private boolean rowValueComparison;
+
+        private Builder() {
+        }
+
+        /**
+         * Register a non-unique property.
+         *
+         * @return this
+         * @see #property(String, PropertyType, Function, boolean)
+         */
+        public <V> Builder<Model, Entity> property(String propertyName, PropertyType<V> type, Function<Entity, V> accessor) {
+            return property(propertyName, type, accessor, false);
+        }
+
+        /**
+         * Register a property. A property is a sortable entity column (used for the cursor comparisons).
+         * At least one unique property is required to maintains the cursor consistency.
+         *
+         * @param propertyName name of the property, must be the same as the entity column name (eg. "id"), or a path
+         *                     through a to-one association (eg. "contact.name")
+         * @param type         type of the column (to serialize/deserialize the cursor)
+         * @param accessor     column getter (eg. {@code <code>Entity::getId</code>})
+         * @param unique       whether this column is unique or not
+         * @return this
+         */
+        public <V> Builder<Model, Entity> property(String propertyName, PropertyType<V> type, Function<Entity, V> accessor, boolean unique) {
+            if (uniquePropertyName == null && unique) {
+                uniquePropertyName = propertyName;
+            }
+            properties.put(propertyName, new Property<>(type, accessor, unique));
+            return this;
+        }
+
+        /**
+         * Build the (immutable) fetcher.
+         */
+        public CursorFetcher<Model, Entity> build() {
+            return new CursorFetcher<>(this);
+        }
     }
 
     @RequiredArgsConstructor
     @Data
-    @Accessors(fluent = false)
     public static class Query<E> {
         private final Specification<E> specification;
         private final Pageable pageable;
@@ -293,57 +413,77 @@ public class CursorFetcher<Model, Entity> {
     @NoArgsConstructor
     @AllArgsConstructor
     @Data
-    @Accessors(fluent = false)
     private static class Cursor {
         private CursorType type;
         private List<Object> values;
     }
 
+    /**
+     * A compiled sort combination.
+     */
+    @RequiredArgsConstructor
+    @Getter
+    private static class SortPlan<E> {
+        /**
+         * Sorted properties paths (including the unique property added at end, if any), eg. {@code [contact, name]}.
+         */
+        private final String[][] propertyPaths;
+        private final List<PropertyType<Object>> types;
+        private final List<Function<E, Object>> accessors;
+        /**
+         * Context the cursors are bound to: the sort instructions (eg. {@code -absAmount,transactionId}).
+         */
+        private final byte[] cursorContext;
+        private final Sort sort;
+        private final Sort reverseSort;
+        /**
+         * Comparators of each property, by cursor type ordinal.
+         */
+        private final CursorComparator[][] comparators;
+        /**
+         * Whether the cursor values can be compared using a single row-value comparison: all sorts directions must
+         * agree (cursor values must also be non-null).
+         */
+        private final boolean rowValueComparison;
+        /**
+         * Row-value comparators, by cursor type ordinal.
+         */
+        private final RowValueComparator[] rowValueComparators;
+    }
+
+    /**
+     * Cursor types (their ordinal is the cursor kind encoded by the {@link CursorCodec}, so they must not be reordered).
+     */
     @RequiredArgsConstructor
     @Getter
-    @Accessors(fluent = false)
     private enum CursorType {
-        AFTER('a', CriteriaBuilder::greaterThan, false, false) {
+        AFTER(CriteriaBuilder::greaterThan, RowValuePredicate::greaterThan, false, false) {
             @Override
             public CursorType inverse() {
                 return BEFORE;
             }
         },
-        AFTER_INCLUDE('A', CriteriaBuilder::greaterThanOrEqualTo, false, true) {
+        AFTER_INCLUDE(CriteriaBuilder::greaterThanOrEqualTo, RowValuePredicate::greaterThanOrEqualTo, false, true) {
             @Override
             public CursorType inverse() {
                 return BEFORE_INCLUDE;
             }
         },
-        BEFORE('b', CriteriaBuilder::lessThan, true, false) {
+        BEFORE(CriteriaBuilder::lessThan, RowValuePredicate::lessThan, true, false) {
             @Override
             public CursorType inverse() {
                 return AFTER;
             }
         },
-        BEFORE_INCLUDE('B', CriteriaBuilder::lessThanOrEqualTo, true, true) {
+        BEFORE_INCLUDE(CriteriaBuilder::lessThanOrEqualTo, RowValuePredicate::lessThanOrEqualTo, true, true) {
             @Override
             public CursorType inverse() {
                 return AFTER_INCLUDE;
             }
         };
 
-        private static final Map<Character, CursorType> BY_SYMBOL;
-
-        static {
-            Map<Character, CursorType> bySymbol = new HashMap<>(values().length, 0.25F);
-            for (CursorType cursorType : values()) {
-                bySymbol.put(cursorType.symbol, cursorType);
-            }
-            BY_SYMBOL = Collections.unmodifiableMap(bySymbol);
-        }
-
-        public static CursorType bySymbol(char symbol) {
-            return BY_SYMBOL.get(symbol);
-        }
-
-        private final char symbol;
         private final CursorComparator comparator;
+        private final RowValueComparator rowValueComparator;
         private final boolean before;
         private final boolean include;
 
@@ -355,9 +495,13 @@ public class CursorFetcher<Model, Entity> {
         <Y extends Comparable<? super Y>> Predicate compare(CriteriaBuilder builder, Expression<? extends Y> x, Y y);
     }
 
+    @FunctionalInterface
+    private interface RowValueComparator {
+        Predicate compare(CriteriaBuilder builder, List<? extends Expression<?>> x, List<?> y);
+    }
+
     @RequiredArgsConstructor
     @Data
-    @Accessors(fluent = false)
     private static class Property<T, E> {
         private final PropertyType<T> type;
         private final Function<E, T> accessor;
@@ -2,12 +2,14 @@ package com.paymybuddy.business.pageable;
 
 import com.google.common.base.Preconditions;
 import com.paymybuddy.api.model.collection.PageResponse;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
-import lombok.AccessLevel;
-import lombok.Data;
-import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.experimental.Accessors;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -16,49 +18,50 @@ import org.springframework.data.domain.Sort;
 
 /**
  * An utility to retrieve paginated results, using an OFFSET/LIMIT logic.
+ * <p>
+ * A fetcher is immutable and thread-safe: build it once per endpoint, then call
+ * {@link #fetch(com.paymybuddy.business.pageable.PageRequest, Function)} for each request. The query sort of each sort
+ * combination is parsed once and cached.
  *
  * @param <Model>  model
  * @param <Entity> database entity
  */
-@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
-@Data
-@Accessors(fluent = true)
-public class PageFetcher<Model, Entity> {
+public final class PageFetcher<Model, Entity> {
     /**
-     * Create a new {@link PageFetcher} instance.
-     * <p>
-     * You must now set {@link #recordsQuery(Function)} and {@link #recordMapper(Function)} before calling
-     * {@link #fetch(com.paymybuddy.business.pageable.PageRequest)}.
+     * Maximum number of cached sorts (sort combinations are bounded by the request parsers, this is only a safety net).
      */
-    public static <Model, Entity> PageFetcher<Model, Entity> create() {
-        return new PageFetcher<>();
-    }
+    private static final int MAX_SORTS = 64;
 
     /**
-     * Query function, to retrieve {@linkplain #<Entity> entities} records.
+     * Create a new {@link PageFetcher} builder.
+     * <p>
+     * You must now set {@link Builder#recordMapper(Function)} before calling {@link Builder#build()}.
      */
-    private Function<Pageable, Page<Entity>> recordsQuery;
+    public static <Model, Entity> Builder<Model, Entity> create() {
+        return new Builder<>();
+    }
 
-    /**
-     * Mapping function, to transform the fetched {@linkplain #<Entity> entities} records to {@linkplain #<Model> models}.
-     */
-    private Function<Entity, Model> recordMapper;
+    private final Function<Entity, Model> recordMapper;
+    private final Function<String, String> sortPropertyTransformer;
+    private final ConcurrentMap<List<String>, Sort> sorts = new ConcurrentHashMap<>();
 
-    private Function<String, String> sortPropertyTransformer;
+    private PageFetcher(Builder<Model, Entity> builder) {
+        Preconditions.checkNotNull(builder.recordMapper, "recordMapper cannot be null");
+        recordMapper = builder.recordMapper;
+        sortPropertyTransformer = builder.sortPropertyTransformer;
+    }
 
     /**
      * Perform a request and returns paginated results.
      *
-     * @param request request parameters
+     * @param request      request parameters
+     * @param recordsQuery query function, to retrieve {@linkplain #<Entity> entities} records
      * @return the paginated results
      */
-    public PageResponse<Model> fetch(com.paymybuddy.business.pageable.PageRequest request) {
-        Preconditions.checkNotNull(recordsQuery, "recordsQuery cannot be null");
-        Preconditions.checkNotNull(recordMapper, "recordMapper cannot be null");
-
+    public PageResponse<Model> fetch(com.paymybuddy.business.pageable.PageRequest request, Function<Pageable, Page<Entity>> recordsQuery) {
         int page = request.getPage();
         int pageSize = request.getPageSize();
-        Sort sort = Sort.by(PageableUtil.parseSortInstructions(request.getPageSort(), sortPropertyTransformer));
+        Sort sort = getSort(request.getPageSort());
 
         Page<Entity> entities = recordsQuery.apply(PageRequest.of(page, pageSize, sort));
         int totalCount = Math.toIntExact(entities.getTotalElements());
@@ -71,4 +74,44 @@ public class PageFetcher<Model, Entity> {
                 .records(records)
                 .build();
     }
+
+    /**
+     * Returns the (cached) query sort of a sort combination.
+     */
+    private Sort getSort(Collection<String> pageSort) {
+        List<String> key = new ArrayList<>(pageSort);
+        Sort sort = sorts.get(key);
+        if (sort == null) {
+            sort = Sort.by(PageableUtil.parseSortInstructions(key, sortPropertyTransformer));
+            if (sorts.size() < MAX_SORTS) {
+                sorts.putIfAbsent(key, sort);
+            }
+        }
+        return sort;
+    }
+
+    /**
+     * A {@link PageFetcher} builder.
+     */
+    @Setter
+    @Accessors(fluent = true)
+    public static final class Builder<Model, Entity> {
+        /**
+         * Mapping function, to transform the fetched {@linkplain #<Entity> entities} records to
+         * {@linkplain #<Model> models}.
+         */
+        private Function<Entity, Model> recordMapper;
+
+        private Function<String, String> sortPropertyTransformer;
+
+        private Builder() {
+        }
+
+        /**
+         * Build the (immutable) fetcher.
+         */
+        public PageFetcher<Model, Entity> build() {
+            return new PageFetcher<>(this);
+        }
+    }
 }
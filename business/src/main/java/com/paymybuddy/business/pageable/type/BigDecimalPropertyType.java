@@ -1,16 +1,41 @@
 package com.paymybuddy.business.pageable.type;
 
 import java.math.BigDecimal;
-import java.nio.charset.StandardCharsets;
+import java.math.BigInteger;
 
 public class BigDecimalPropertyType implements PropertyType<BigDecimal> {
+    /**
+     * Maximum length of an unscaled value (enough for a DECIMAL(65), the largest MySQL/MariaDB decimal).
+     */
+    private static final int MAX_UNSCALED_LENGTH = 28;
+
     @Override
-    public byte[] serialize(BigDecimal value) {
-        return value.stripTrailingZeros().toPlainString().getBytes(StandardCharsets.US_ASCII);
+    public void write(BigDecimal value, BinaryWriter out) {
+        value = value.stripTrailingZeros();
+        out.writeZigZagLong(value.scale());
+        BigInteger unscaledValue = value.unscaledValue();
+        if (unscaledValue.bitLength() < 64) {
+            out.writeByte(0);
+            out.writeZigZagLong(unscaledValue.longValue());
+        } else {
+            out.writeByte(1);
+            out.writeBytes(unscaledValue.toByteArray());
+        }
     }
 
     @Override
-    public BigDecimal deserialize(byte[] bytes) {
-        return new BigDecimal(new String(bytes, StandardCharsets.US_ASCII));
+    public BigDecimal read(BinaryReader in) {
+        long scale = in.readZigZagLong();
+        if (scale < Integer.MIN_VALUE || scale > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Malformed decimal scale");
+        }
+        switch (in.readByte()) {
+            case 0:
+                return BigDecimal.valueOf(in.readZigZagLong(), (int) scale);
+            case 1:
+                return new BigDecimal(new BigInteger(in.readBytes(MAX_UNSCALED_LENGTH)), (int) scale);
+            default:
+                throw new IllegalArgumentException("Malformed decimal");
+        }
     }
 }
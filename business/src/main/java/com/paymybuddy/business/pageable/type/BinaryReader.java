@@ -0,0 +1,77 @@
+package com.paymybuddy.business.pageable.type;
+
+import java.util.Arrays;
+
+/**
+ * A reader of the binary values written by a {@link BinaryWriter}.
+ * <p>
+ * Malformed inputs throw an {@link IllegalArgumentException}.
+ */
+public final class BinaryReader {
+    private final byte[] buf;
+    private final int limit;
+    private int pos;
+
+    /**
+     * @param buf    buffer to read from
+     * @param offset index of the first byte to read
+     * @param limit  index after the last byte to read
+     */
+    public BinaryReader(byte[] buf, int offset, int limit) {
+        this.buf = buf;
+        this.pos = offset;
+        this.limit = limit;
+    }
+
+    /**
+     * Returns the number of bytes left to read.
+     */
+    public int remaining() {
+        return limit - pos;
+    }
+
+    public int readByte() {
+        if (pos >= limit) {
+            throw new IllegalArgumentException("Truncated value");
+        }
+        return buf[pos++] & 0xFF;
+    }
+
+    /**
+     * Read an unsigned variable-length long.
+     */
+    public long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed variable-length value");
+    }
+
+    /**
+     * Read a signed variable-length long (zig-zag encoded).
+     */
+    public long readZigZagLong() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Read a length-prefixed byte array.
+     *
+     * @param maxLength maximum length of the array
+     */
+    public byte[] readBytes(int maxLength) {
+        long length = readVarLong();
+        if (length > maxLength || length > remaining()) {
+            throw new IllegalArgumentException("Malformed bytes length");
+        }
+        byte[] bytes = Arrays.copyOfRange(buf, pos, pos + (int) length);
+        pos += (int) length;
+        return bytes;
+    }
+}
@@ -0,0 +1,73 @@
+package com.paymybuddy.business.pageable.type;
+
+import java.util.Arrays;
+
+/**
+ * A growable buffer to write compact binary values (used by the {@linkplain PropertyType property types} to serialize
+ * the cursors values).
+ */
+public final class BinaryWriter {
+    private byte[] buf;
+    private int size;
+
+    public BinaryWriter(int initialCapacity) {
+        buf = new byte[initialCapacity];
+    }
+
+    /**
+     * Returns the internal buffer (only the first {@link #size()} bytes are written).
+     */
+    public byte[] buffer() {
+        return buf;
+    }
+
+    /**
+     * Returns the number of written bytes.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Ensure that {@code n} more bytes can be written without growing the buffer.
+     */
+    public void ensureCapacity(int n) {
+        if (size + n > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + n));
+        }
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buf[size++] = (byte) value;
+    }
+
+    /**
+     * Write an unsigned variable-length long (7 bits per byte, least significant group first).
+     */
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buf[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[size++] = (byte) value;
+    }
+
+    /**
+     * Write a signed variable-length long, using the zig-zag encoding (values close to zero are the shortest).
+     */
+    public void writeZigZagLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Write a length-prefixed byte array.
+     */
+    public void writeBytes(byte[] bytes) {
+        writeVarLong(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buf, size, bytes.length);
+        size += bytes.length;
+    }
+}
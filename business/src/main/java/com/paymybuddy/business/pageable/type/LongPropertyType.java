@@ -1,15 +1,13 @@
 package com.paymybuddy.business.pageable.type;
 
-import com.google.common.primitives.Longs;
-
 public class LongPropertyType implements PropertyType<Long> {
     @Override
-    public byte[] serialize(Long value) {
-        return Longs.toByteArray(value);
+    public void write(Long value, BinaryWriter out) {
+        out.writeZigZagLong(value);
     }
 
     @Override
-    public Long deserialize(byte[] bytes) {
-        return Longs.fromByteArray(bytes);
+    public Long read(BinaryReader in) {
+        return in.readZigZagLong();
     }
 }
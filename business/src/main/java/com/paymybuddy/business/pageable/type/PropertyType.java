@@ -1,7 +1,15 @@
 package com.paymybuddy.business.pageable.type;
 
 public interface PropertyType<T> {
-    byte[] serialize(T value);
+    /**
+     * Write a (non-null) value.
+     */
+    void write(T value, BinaryWriter out);
 
-    T deserialize(byte[] str);
+    /**
+     * Read a value.
+     *
+     * @throws IllegalArgumentException if the input is malformed
+     */
+    T read(BinaryReader in);
 }
@@ -0,0 +1,20 @@
+package com.paymybuddy.business.pageable.type;
+
+import java.nio.charset.StandardCharsets;
+
+public class StringPropertyType implements PropertyType<String> {
+    /**
+     * Maximum length of a value, in bytes (enough for a VARCHAR(255) in UTF-8).
+     */
+    private static final int MAX_LENGTH = 255 * 4;
+
+    @Override
+    public void write(String value, BinaryWriter out) {
+        out.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String read(BinaryReader in) {
+        return new String(in.readBytes(MAX_LENGTH), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,190 @@
+package com.paymybuddy.business.search;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.paymybuddy.auth.InvalidationBus;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Contacts search, on {@linkplain ContactSearchIndex per-user indexes} cached in-process.
+ * <p>
+ * A user's index is built from his contacts on his first search, then replaced by an updated copy as contacts are
+ * added or removed on this node. The other nodes drop their copy of the index through an {@link InvalidationBus}. An
+ * index whose build raced an update or an invalidation on this node is not kept (it may have been read before the
+ * update was committed). Since the bus delivery is best-effort, indexes also expire after a fixed delay: searches
+ * results must be checked against the database.
+ * <p>
+ * The cache is bounded by the total number of indexed contacts (an index is weighed each time it is replaced).
+ * <p>
+ * Metrics:
+ * <ul>
+ * <li>- {@code paymybuddy.contact_search.index_cache.hits}: number of searches using a cached index</li>
+ * <li>- {@code paymybuddy.contact_search.index_cache.misses}: number of searches building an index</li>
+ * <li>- {@code paymybuddy.contact_search.index_cache.evictions}: number of indexes evicted from the cache (expired or
+ * over capacity, invalidations are not counted)</li>
+ * </ul>
+ */
+public class ContactSearchEngine {
+    /**
+     * Name of the bus channel used to invalidate the cached indexes.
+     */
+    static final String INVALIDATION_CHANNEL = "contact-search";
+
+    /**
+     * Number of invalidation versions (users share a version by hash, a shared version only causes spurious reloads).
+     */
+    private static final int VERSION_STRIPES = 1024;
+
+    private final InvalidationBus invalidationBus;
+    private final Cache<Long, ContactSearchIndex> cache;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * @param maximumContacts maximum number of contacts indexed (in all the cached indexes)
+     * @param ttl             delay after which a cached index expires
+     * @param invalidationBus bus to broadcast the indexes invalidations to
+     * @param meterRegistry   registry to publish metrics to
+     */
+    public ContactSearchEngine(long maximumContacts, Duration ttl, InvalidationBus invalidationBus, MeterRegistry meterRegistry) {
+        this(maximumContacts, ttl, invalidationBus, meterRegistry, Ticker.systemTicker());
+    }
+
+    ContactSearchEngine(long maximumContacts, Duration ttl, InvalidationBus invalidationBus, MeterRegistry meterRegistry, Ticker ticker) {
+        Preconditions.checkArgument(maximumContacts > 0, "maximumContacts must be strictly positive");
+        Preconditions.checkArgument(!ttl.isNegative() && !ttl.isZero(), "ttl must be strictly positive");
+        this.invalidationBus = invalidationBus;
+        cache = CacheBuilder.newBuilder()
+                .maximumWeight(maximumContacts)
+                .weigher((Long userId, ContactSearchIndex index) -> Math.max(index.getContactsCount(), 1))
+                .expireAfterWrite(ttl.toNanos(), TimeUnit.NANOSECONDS)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        invalidationBus.subscribe(INVALIDATION_CHANNEL, this::onInvalidation);
+
+        FunctionCounter.builder("paymybuddy.contact_search.index_cache.hits", cache, c -> c.stats().hitCount())
+                .description("Number of searches using a cached index")
+                .register(meterRegistry);
+        FunctionCounter.builder("paymybuddy.contact_search.index_cache.misses", cache, c -> c.stats().missCount())
+                .description("Number of searches building an index")
+                .register(meterRegistry);
+        FunctionCounter.builder("paymybuddy.contact_search.index_cache.evictions", cache, c -> c.stats().evictionCount())
+                .description("Number of indexes evicted from the cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cache statistics.
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Search for a user's contacts (see {@link ContactSearchIndex#search(String, int)}).
+     *
+     * @param userId ID of the user to search contacts
+     * @param input  term to look for
+     * @param limit  maximum number of results
+     * @param loader function building the user's index, if not cached
+     * @return the IDs of the matching contacts (sorted from best matching to the less)
+     */
+    public List<Long> search(long userId, String input, int limit, Supplier<ContactSearchIndex> loader) {
+        int stripe = stripe(userId);
+        long version = versions.get(stripe);
+        boolean[] loaded = new boolean[1];
+        ContactSearchIndex index;
+        try {
+            index = cache.get(userId, () -> {
+                loaded[0] = true;
+                return loader.get();
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        if (loaded[0] && versions.get(stripe) != version) {
+            // Invalidated while loading: the index may miss the update, it is only used for this search
+            cache.asMap().remove(userId, index);
+        }
+        return index.search(input, limit);
+    }
+
+    /**
+     * Update a user's index after a contact is added (to be called once the contact is committed).
+     *
+     * @param userId    ID of the user
+     * @param contactId ID of the added contact
+     * @param name      name of the added contact
+     * @param email     email of the added contact
+     */
+    public void contactAdded(long userId, long contactId, String name, String email) {
+        update(userId, index -> index.withContact(contactId, name, email));
+    }
+
+    /**
+     * Update a user's index after a contact is removed (to be called once the removal is committed).
+     *
+     * @param userId    ID of the user
+     * @param contactId ID of the removed contact
+     */
+    public void contactRemoved(long userId, long contactId) {
+        update(userId, index -> index.withoutContact(contactId));
+    }
+
+    /**
+     * Invalidate a user's index on every node.
+     *
+     * @param userId ID of the user
+     */
+    public void invalidate(long userId) {
+        invalidateLocally(userId);
+        invalidationBus.publish(INVALIDATION_CHANNEL, userId + ":");
+    }
+
+    private void update(long userId, UnaryOperator<ContactSearchIndex> update) {
+        // bumped first: a load racing the update is either updated once done, or discarded
+        versions.incrementAndGet(stripe(userId));
+        cache.asMap().computeIfPresent(userId, (id, index) -> update.apply(index));
+        // this node index is up-to-date, only the other nodes drop theirs
+        invalidationBus.publish(INVALIDATION_CHANNEL, userId + ":" + nodeId);
+    }
+
+    private void invalidateLocally(long userId) {
+        // bumped first: a load racing the invalidation is either dropped here, or discarded once done
+        versions.incrementAndGet(stripe(userId));
+        cache.invalidate(userId);
+    }
+
+    private void onInvalidation(String message) {
+        int sep = message.indexOf(':');
+        if (sep == -1 || nodeId.equals(message.substring(sep + 1))) {
+            return; // not an invalidation, or published by this node
+        }
+        try {
+            invalidateLocally(Long.parseLong(message.substring(0, sep)));
+        } catch (NumberFormatException ignored) {
+            // not an user ID
+        }
+    }
+
+    private static int stripe(long userId) {
+        return (Long.hashCode(userId) & Integer.MAX_VALUE) % VERSION_STRIPES;
+    }
+}
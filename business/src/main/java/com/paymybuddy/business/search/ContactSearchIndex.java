@@ -0,0 +1,417 @@
+package com.paymybuddy.business.search;
+
+import com.google.common.base.Ascii;
+import com.google.common.base.CharMatcher;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.regex.Pattern;
+
+/**
+ * In-process search index of a user's contacts (by name and email).
+ * <p>
+ * Names and emails are normalized (lower-cased, without accents), and their trigrams are indexed: a search only
+ * checks the contacts having the least common trigram of the input. Inputs shorter than a trigram check every
+ * contact.
+ * <p>
+ * Results are ranked by match quality, then by name:
+ * <ol>
+ * <li>the name starts with the input;</li>
+ * <li>the email starts with the input;</li>
+ * <li>a word of the name starts with the input;</li>
+ * <li>the name contains the input;</li>
+ * <li>the email contains the input.</li>
+ * </ol>
+ * <p>
+ * The index is immutable (so thread-safe): adding or removing a contact returns an updated copy. The copy shares the
+ * postings of the trigrams the contact does not have, which is much cheaper than rebuilding the index.
+ */
+public class ContactSearchIndex {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final int RANK_NAME_PREFIX = 0;
+    private static final int RANK_EMAIL_PREFIX = 1;
+    private static final int RANK_NAME_WORD_PREFIX = 2;
+    private static final int RANK_NAME_INFIX = 3;
+    private static final int RANK_EMAIL_INFIX = 4;
+
+    private final long[] contactIds;
+    private final String[] names; // normalized
+    private final String[] emails; // normalized
+    private final long[] trigrams; // sorted
+    private final int[][] postings; // ordinals of the contacts having each trigram (unordered, without duplicates)
+
+    private ContactSearchIndex(long[] contactIds, String[] names, String[] emails, long[] trigrams, int[][] postings) {
+        this.contactIds = contactIds;
+        this.names = names;
+        this.emails = emails;
+        this.trigrams = trigrams;
+        this.postings = postings;
+    }
+
+    /**
+     * Returns a builder of a new index.
+     *
+     * @param expectedContacts expected number of contacts (to size the index)
+     */
+    public static Builder builder(int expectedContacts) {
+        return new Builder(expectedContacts);
+    }
+
+    /**
+     * Returns the number of indexed contacts.
+     */
+    public int getContactsCount() {
+        return contactIds.length;
+    }
+
+    /**
+     * Returns a copy of this index with a contact added (or updated if already indexed).
+     *
+     * @param contactId ID of the contact
+     * @param name      name of the contact
+     * @param email     email of the contact
+     * @return the updated index
+     */
+    public ContactSearchIndex withContact(long contactId, String name, String email) {
+        ContactSearchIndex base = withoutContact(contactId);
+        String normalizedName = normalize(name);
+        String normalizedEmail = normalize(email);
+        int ordinal = base.contactIds.length;
+
+        long[] contactIds = Arrays.copyOf(base.contactIds, ordinal + 1);
+        String[] names = Arrays.copyOf(base.names, ordinal + 1);
+        String[] emails = Arrays.copyOf(base.emails, ordinal + 1);
+        contactIds[ordinal] = contactId;
+        names[ordinal] = normalizedName;
+        emails[ordinal] = normalizedEmail;
+
+        int[][] postings = base.postings.clone();
+        long[] added = distinctTrigrams(normalizedName, normalizedEmail);
+        int addedCount = 0;
+        for (long trigram : added) {
+            int index = Arrays.binarySearch(base.trigrams, trigram);
+            if (index >= 0) {
+                int[] ordinals = Arrays.copyOf(postings[index], postings[index].length + 1);
+                ordinals[ordinals.length - 1] = ordinal;
+                postings[index] = ordinals;
+            } else {
+                added[addedCount++] = trigram; // not indexed yet (still sorted)
+            }
+        }
+        if (addedCount == 0) {
+            return new ContactSearchIndex(contactIds, names, emails, base.trigrams, postings);
+        }
+
+        // Merge the new trigrams
+        long[] trigrams = new long[base.trigrams.length + addedCount];
+        int[][] mergedPostings = new int[trigrams.length][];
+        for (int i = 0, j = 0, k = 0; k < trigrams.length; ++k) {
+            if (j == addedCount || (i < base.trigrams.length && base.trigrams[i] < added[j])) {
+                trigrams[k] = base.trigrams[i];
+                mergedPostings[k] = postings[i++];
+            } else {
+                trigrams[k] = added[j++];
+                mergedPostings[k] = new int[]{ordinal};
+            }
+        }
+        return new ContactSearchIndex(contactIds, names, emails, trigrams, mergedPostings);
+    }
+
+    /**
+     * Returns a copy of this index without a contact (or this index if the contact is not indexed).
+     * <p>
+     * The last contact takes the place of the removed one, so that the index never has holes.
+     *
+     * @param contactId ID of the contact
+     * @return the updated index
+     */
+    public ContactSearchIndex withoutContact(long contactId) {
+        int ordinal = ordinalOf(contactId);
+        if (ordinal == -1) {
+            return this;
+        }
+        int last = contactIds.length - 1;
+
+        long[] contactIds = Arrays.copyOf(this.contactIds, last);
+        String[] names = Arrays.copyOf(this.names, last);
+        String[] emails = Arrays.copyOf(this.emails, last);
+        int[][] postings = this.postings.clone();
+        int emptyPostings = 0;
+        for (long trigram : distinctTrigrams(this.names[ordinal], this.emails[ordinal])) {
+            int index = Arrays.binarySearch(trigrams, trigram);
+            postings[index] = replace(postings[index], ordinal, -1);
+            if (postings[index].length == 0) {
+                ++emptyPostings;
+            }
+        }
+        if (ordinal != last) {
+            contactIds[ordinal] = this.contactIds[last];
+            names[ordinal] = this.names[last];
+            emails[ordinal] = this.emails[last];
+            for (long trigram : distinctTrigrams(this.names[last], this.emails[last])) {
+                int index = Arrays.binarySearch(trigrams, trigram);
+                postings[index] = replace(postings[index], last, ordinal);
+            }
+        }
+        if (emptyPostings == 0) {
+            return new ContactSearchIndex(contactIds, names, emails, trigrams, postings);
+        }
+
+        // Drop the trigrams which are not indexed anymore
+        long[] keptTrigrams = new long[trigrams.length - emptyPostings];
+        int[][] keptPostings = new int[keptTrigrams.length][];
+        for (int i = 0, k = 0; i < trigrams.length; ++i) {
+            if (postings[i].length != 0) {
+                keptTrigrams[k] = trigrams[i];
+                keptPostings[k++] = postings[i];
+            }
+        }
+        return new ContactSearchIndex(contactIds, names, emails, keptTrigrams, keptPostings);
+    }
+
+    /**
+     * Search for contacts.
+     *
+     * @param input term to look for (an empty term matches every contact)
+     * @param limit maximum number of results
+     * @return the IDs of the matching contacts (sorted from best matching to the less)
+     */
+    public List<Long> search(String input, int limit) {
+        String term = normalize(input).trim();
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        // Keep the best matches, the worst one at the head
+        Comparator<Match> order = Comparator.comparingInt((Match m) -> m.rank)
+                .thenComparing(m -> names[m.ordinal])
+                .thenComparingLong(m -> contactIds[m.ordinal]);
+        PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, order.reversed());
+
+        int[] candidates = null;
+        if (term.length() >= 3) {
+            candidates = getLeastCommonTrigramPostings(term);
+            if (candidates == null) {
+                return Collections.emptyList();
+            }
+        }
+        int candidatesCount = candidates == null ? contactIds.length : candidates.length;
+        for (int i = 0; i < candidatesCount; ++i) {
+            int ordinal = candidates == null ? i : candidates[i];
+            int rank = rank(ordinal, term);
+            if (rank == -1) {
+                continue;
+            }
+            if (best.size() < limit) {
+                best.add(new Match(ordinal, rank));
+            } else if (rank <= best.peek().rank) { // cheap check first, most matches are worse
+                Match match = new Match(ordinal, rank);
+                if (order.compare(match, best.peek()) < 0) {
+                    best.poll();
+                    best.add(match);
+                }
+            }
+        }
+        Long[] ret = new Long[best.size()];
+        for (int i = ret.length - 1; i >= 0; --i) {
+            ret[i] = contactIds[best.poll().ordinal];
+        }
+        return Arrays.asList(ret);
+    }
+
+    /**
+     * Returns the postings of the input trigram having the fewest contacts; or {@code null} if a trigram is not indexed
+     * (ie. nothing can match).
+     */
+    private int[] getLeastCommonTrigramPostings(String term) {
+        int[] ret = null;
+        for (int i = 0; i + 3 <= term.length(); ++i) {
+            int index = Arrays.binarySearch(trigrams, trigram(term, i));
+            if (index < 0) {
+                return null;
+            }
+            if (ret == null || postings[index].length < ret.length) {
+                ret = postings[index];
+            }
+        }
+        return ret;
+    }
+
+    private int rank(int ordinal, String term) {
+        String name = names[ordinal];
+        String email = emails[ordinal];
+        if (name.startsWith(term)) {
+            return RANK_NAME_PREFIX;
+        }
+        if (email.startsWith(term)) {
+            return RANK_EMAIL_PREFIX;
+        }
+        int index = name.indexOf(term, 1);
+        if (index != -1) {
+            do {
+                if (!Character.isLetterOrDigit(name.charAt(index - 1))) {
+                    return RANK_NAME_WORD_PREFIX;
+                }
+                index = name.indexOf(term, index + 1);
+            } while (index != -1);
+            return RANK_NAME_INFIX;
+        }
+        return email.contains(term) ? RANK_EMAIL_INFIX : -1;
+    }
+
+    private int ordinalOf(long contactId) {
+        for (int i = 0; i < contactIds.length; ++i) {
+            if (contactIds[i] == contactId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a copy of postings with an ordinal replaced by another one (or removed if the replacement is -1).
+     */
+    private static int[] replace(int[] ordinals, int ordinal, int replacement) {
+        for (int i = 0; i < ordinals.length; ++i) {
+            if (ordinals[i] == ordinal) {
+                if (replacement != -1) {
+                    int[] ret = ordinals.clone();
+                    ret[i] = replacement;
+                    return ret;
+                }
+                int[] ret = Arrays.copyOf(ordinals, ordinals.length - 1);
+                if (i != ret.length) {
+                    ret[i] = ordinals[ret.length];
+                }
+                return ret;
+            }
+        }
+        throw new IllegalStateException("ordinal not indexed: " + ordinal);
+    }
+
+    /**
+     * Returns the distinct trigrams of normalized name and email, sorted.
+     */
+    private static long[] distinctTrigrams(String name, String email) {
+        long[] ret = new long[Math.max(name.length() - 2, 0) + Math.max(email.length() - 2, 0)];
+        int count = 0;
+        for (int i = 0; i + 3 <= name.length(); ++i) {
+            ret[count++] = trigram(name, i);
+        }
+        for (int i = 0; i + 3 <= email.length(); ++i) {
+            ret[count++] = trigram(email, i);
+        }
+        Arrays.sort(ret);
+        int distinct = 0;
+        for (int i = 0; i < count; ++i) {
+            if (distinct == 0 || ret[distinct - 1] != ret[i]) {
+                ret[distinct++] = ret[i];
+            }
+        }
+        return Arrays.copyOf(ret, distinct);
+    }
+
+    /**
+     * Normalize a name or an email (lower-cased, without accents), close to how the database collation compares them.
+     */
+    static String normalize(String str) {
+        if (str == null) {
+            return "";
+        }
+        if (CharMatcher.ascii().matchesAllOf(str)) {
+            return Ascii.toLowerCase(str); // fast path
+        }
+        return DIACRITICS.matcher(Normalizer.normalize(str, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private static long trigram(String str, int index) {
+        return ((long) str.charAt(index) << 32) | ((long) str.charAt(index + 1) << 16) | str.charAt(index + 2);
+    }
+
+    /**
+     * Builder of a new index (not thread-safe).
+     */
+    public static final class Builder {
+        private final Map<Long, Postings> trigrams = new HashMap<>();
+        private long[] contactIds;
+        private String[] names;
+        private String[] emails;
+        private int size;
+
+        private Builder(int expectedContacts) {
+            int capacity = Math.max(expectedContacts, 16);
+            contactIds = new long[capacity];
+            names = new String[capacity];
+            emails = new String[capacity];
+        }
+
+        /**
+         * Add a contact to the index (contacts must be added once).
+         *
+         * @param contactId ID of the contact
+         * @param name      name of the contact
+         * @param email     email of the contact
+         * @return this builder
+         */
+        public Builder add(long contactId, String name, String email) {
+            if (size == contactIds.length) {
+                int capacity = size * 2;
+                contactIds = Arrays.copyOf(contactIds, capacity);
+                names = Arrays.copyOf(names, capacity);
+                emails = Arrays.copyOf(emails, capacity);
+            }
+            int ordinal = size++;
+            contactIds[ordinal] = contactId;
+            names[ordinal] = normalize(name);
+            emails[ordinal] = normalize(email);
+            for (long trigram : distinctTrigrams(names[ordinal], emails[ordinal])) {
+                trigrams.computeIfAbsent(trigram, k -> new Postings()).add(ordinal);
+            }
+            return this;
+        }
+
+        public ContactSearchIndex build() {
+            long[] keys = new long[trigrams.size()];
+            int i = 0;
+            for (Long trigram : trigrams.keySet()) {
+                keys[i++] = trigram;
+            }
+            Arrays.sort(keys);
+            int[][] postings = new int[keys.length][];
+            for (i = 0; i < keys.length; ++i) {
+                Postings p = trigrams.get(keys[i]);
+                postings[i] = Arrays.copyOf(p.ordinals, p.size);
+            }
+            return new ContactSearchIndex(Arrays.copyOf(contactIds, size), Arrays.copyOf(names, size), Arrays.copyOf(emails, size),
+                    keys, postings);
+        }
+    }
+
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private int size;
+
+        void add(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+    }
+
+    private static final class Match {
+        private final int ordinal;
+        private final int rank;
+
+        Match(int ordinal, int rank) {
+            this.ordinal = ordinal;
+            this.rank = rank;
+        }
+    }
+}
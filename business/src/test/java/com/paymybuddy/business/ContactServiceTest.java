@@ -1,5 +1,6 @@
 package com.paymybuddy.business;
 
+import com.paymybuddy.api.model.collection.CursorResponse;
 import com.paymybuddy.api.model.collection.ListResponse;
 import com.paymybuddy.api.model.collection.PageResponse;
 import com.paymybuddy.api.model.user.User;
@@ -10,23 +11,30 @@ import com.paymybuddy.business.mapper.UserMapper;
 import com.paymybuddy.business.mapper.UserMapperImpl;
 import com.paymybuddy.business.mock.MockUsers;
 import com.paymybuddy.business.mock.TestBusinessConfig;
+import com.paymybuddy.business.pageable.CursorRequest;
+import com.paymybuddy.business.search.ContactSearchEngine;
 import com.paymybuddy.persistence.entity.UserContactEntity;
 import com.paymybuddy.persistence.entity.UserEntity;
+import com.paymybuddy.persistence.repository.UserContactCountRepository;
 import com.paymybuddy.persistence.repository.UserContactRepository;
 import com.paymybuddy.persistence.repository.UserRepository;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -34,7 +42,9 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -45,15 +55,26 @@ class ContactServiceTest {
     @MockBean
     private UserContactRepository userContactRepository;
 
+    @MockBean
+    private UserContactCountRepository userContactCountRepository;
+
     @MockBean
     private UserRepository userRepository;
 
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private ContactSearchEngine contactSearchEngine;
+
     @Autowired
     private ContactService contactService;
 
+    @BeforeEach
+    void setUp() {
+        contactSearchEngine.invalidate(1L); // the search indexes are shared by the tests
+    }
+
     @Test
     void listContacts() {
         when(userContactRepository.findContactByUserId(eq(1L), any())).thenAnswer(m -> {
@@ -61,8 +82,9 @@ class ContactServiceTest {
             List<UserEntity> content = IntStream.range(0, pageable.getPageSize()).boxed()
                     .map(id -> MockUsers.newUserEntity(id + 10L))
                     .collect(Collectors.toList());
-            return new PageImpl<>(content, pageable, pageable.getPageSize() * 2L + 3L);
+            return new SliceImpl<>(content, pageable, true);
         });
+        when(userContactCountRepository.getContacts(1L)).thenReturn(13);
 
         com.paymybuddy.business.pageable.PageRequest req = new com.paymybuddy.business.pageable.PageRequest();
         req.setPage(2);
@@ -74,13 +96,80 @@ class ContactServiceTest {
         assertEquals(3, res.getPageCount());
         assertEquals(15, res.getTotalCount());
         assertEquals(5, res.getRecords().size());
+
+        // Sorted by the (indexed) contact email/name copies, and the total count is never counted
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(userContactRepository).findContactByUserId(eq(1L), pageable.capture());
+        assertEquals(Sort.by(Sort.Order.desc("email"), Sort.Order.asc("name")), pageable.getValue().getSort());
+        verify(userContactRepository, never()).countByUserId(anyLong());
+    }
+
+    @Test
+    void listContactsByCursor() {
+        when(userContactRepository.findContactsSlice(any(), any(Pageable.class))).thenAnswer(m -> {
+            Pageable pageable = m.getArgument(1);
+            List<UserContactEntity> content = IntStream.range(0, pageable.getPageSize()).boxed()
+                    .map(id -> {
+                        UserContactEntity e = new UserContactEntity();
+                        e.setUserId(1L);
+                        e.setContactId(id + 10L);
+                        e.setContact(MockUsers.newUserEntity(id + 10L));
+                        e.setName(e.getContact().getName());
+                        e.setEmail(e.getContact().getEmail());
+                        return e;
+                    })
+                    .collect(Collectors.toList());
+            return new SliceImpl<>(content, pageable, true);
+        });
+
+        CursorRequest req = new CursorRequest();
+        req.setPageSize(5);
+        req.setPageSort(Collections.singletonList("name"));
+        CursorResponse<User> res = contactService.listContactsByCursor(1L, req);
+        assertEquals(false, res.getHasPrev());
+        assertEquals(true, res.getHasNext());
+        assertEquals(userMapper.toContact(MockUsers.newUserEntity(10L)), res.getRecords().get(0));
+        assertEquals(5, res.getRecords().size());
+
+        // Next page: sorted by (indexed) contact name copy, then by contact ID
+        req.setCursor(res.getNextCursor());
+        res = contactService.listContactsByCursor(1L, req);
+        assertEquals(true, res.getHasPrev());
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(userContactRepository, times(2)).findContactsSlice(any(), pageable.capture());
+        assertEquals(Sort.by("name", "contactId"), pageable.getValue().getSort());
     }
 
     @Test
     void searchContacts() {
-        ListResponse<User> res = contactService.searchContacts(1L, "t_e%s_t%", 5);
-        assertTrue(res.getRecords().isEmpty());
-        verify(userContactRepository, times(1)).searchContact(1L, "%t\\_e\\%s\\_t\\%%", PageRequest.of(0, 5));
+        when(userContactRepository.findByUserId(1L)).thenReturn(Arrays.asList(
+                newContactEntry(1L, 10L, "Alice Martin", "am@domain.tld"),
+                newContactEntry(1L, 11L, "Bob Alison", "bob@domain.tld"),
+                newContactEntry(1L, 12L, "Carol", "carol.alice@domain.tld"),
+                newContactEntry(1L, 13L, "Dave", "dave@domain.tld")));
+        // contact 11 was removed (the index is outdated)
+        when(userContactRepository.findContactByUserIdAndContactIdIn(eq(1L), any())).thenReturn(Arrays.asList(
+                MockUsers.newUserEntity(12L), MockUsers.newUserEntity(10L)));
+
+        // Prefix matches first, and the removed contact is skipped
+        ListResponse<User> res = contactService.searchContacts(1L, "ali", 5);
+        assertEquals(Arrays.asList(userMapper.toContact(MockUsers.newUserEntity(10L)), userMapper.toContact(MockUsers.newUserEntity(12L))),
+                res.getRecords());
+        verify(userContactRepository).findContactByUserIdAndContactIdIn(1L, Arrays.asList(10L, 11L, 12L));
+
+        // The index is built once
+        assertTrue(contactService.searchContacts(1L, "zzz", 5).getRecords().isEmpty());
+        verify(userContactRepository, times(1)).findByUserId(1L);
+        verify(userContactRepository, times(1)).findContactByUserIdAndContactIdIn(anyLong(), any());
+    }
+
+    private static UserContactEntity newContactEntry(long userId, long contactId, String name, String email) {
+        UserContactEntity e = new UserContactEntity();
+        e.setUserId(userId);
+        e.setContactId(contactId);
+        e.setName(name);
+        e.setEmail(email);
+        return e;
     }
 
     @Test
@@ -90,6 +179,17 @@ class ContactServiceTest {
         assertFalse(contactService.isContact(1L, 3L));
     }
 
+    @Test
+    void areContacts() {
+        when(userContactRepository.countByUserIdAndContactIdIn(eq(1L), any())).thenAnswer(m -> {
+            Collection<Long> contactIds = m.getArgument(1);
+            return contactIds.stream().filter(contactId -> contactId == 2L || contactId == 3L).count();
+        });
+        assertTrue(contactService.areContacts(1L, Collections.emptyList()));
+        assertTrue(contactService.areContacts(1L, Arrays.asList(2L, 3L, 2L)));
+        assertFalse(contactService.areContacts(1L, Arrays.asList(2L, 4L)));
+    }
+
     @Test
     void addContact() {
         UserEntity user1 = MockUsers.newUserEntity(1L);
@@ -97,7 +197,21 @@ class ContactServiceTest {
         when(userRepository.findByEmail(user1.getEmail())).thenReturn(Optional.of(user1));
         when(userRepository.findByEmail(user2.getEmail())).thenReturn(Optional.of(user2));
 
+        when(userContactRepository.insertIfAbsent(user1.getId(), user2.getId())).thenReturn(1, 0);
+        when(userContactRepository.findByUserId(user1.getId())).thenReturn(Collections.emptyList());
+        when(userContactRepository.findContactByUserIdAndContactIdIn(eq(user1.getId()), any())).thenReturn(Collections.singletonList(user2));
+        assertTrue(contactService.searchContacts(user1.getId(), user2.getName(), 5).getRecords().isEmpty()); // load the (empty) search index
+
+        // The search index is updated with the added contact
+        assertEquals(userMapper.toContact(user2), contactService.addContact(user1.getId(), user2.getEmail()));
+        assertEquals(Collections.singletonList(userMapper.toContact(user2)), contactService.searchContacts(user1.getId(), user2.getName(), 5).getRecords());
+        verify(userContactRepository, times(1)).findByUserId(user1.getId());
+
+        // Already added: nothing is updated
         assertEquals(userMapper.toContact(user2), contactService.addContact(user1.getId(), user2.getEmail()));
+        contactService.searchContacts(user1.getId(), user2.getName(), 5);
+        verify(userContactRepository, times(1)).findByUserId(user1.getId());
+        verify(userContactCountRepository, times(1)).increment(user1.getId());
         assertThrows(ContactNotFoundException.class, () -> contactService.addContact(user1.getId(), "unknown@domain.com"));
         assertThrows(IsHimselfException.class, () -> contactService.addContact(user1.getId(), user1.getEmail()));
     }
@@ -113,7 +227,21 @@ class ContactServiceTest {
             return Optional.of(e);
         });
 
+        when(userContactRepository.deleteContact(user1.getId(), user2.getId())).thenReturn(1, 0);
+        when(userContactRepository.findByUserId(user1.getId())).thenReturn(Collections.singletonList(
+                newContactEntry(user1.getId(), user2.getId(), user2.getName(), user2.getEmail())));
+        contactService.searchContacts(user1.getId(), "", 5); // load the search index
+
+        // The search index is updated without the removed contact
+        assertEquals(userMapper.toContact(user2), contactService.removeContact(user1.getId(), user2.getId()));
+        assertTrue(contactService.searchContacts(user1.getId(), user2.getName(), 5).getRecords().isEmpty());
+        verify(userContactRepository, times(1)).findByUserId(user1.getId());
+
+        // Concurrently removed: nothing is updated
         assertEquals(userMapper.toContact(user2), contactService.removeContact(user1.getId(), user2.getId()));
+        contactService.searchContacts(user1.getId(), user2.getName(), 5);
+        verify(userContactRepository, times(1)).findByUserId(user1.getId());
+        verify(userContactCountRepository, times(1)).decrement(user1.getId());
         assertThrows(ContactNotFoundException.class, () -> contactService.removeContact(user1.getId(), 3L));
     }
 
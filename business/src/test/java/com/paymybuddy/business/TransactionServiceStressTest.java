@@ -0,0 +1,202 @@
+package com.paymybuddy.business;
+
+import com.google.common.collect.Lists;
+import com.paymybuddy.api.model.Currency;
+import com.paymybuddy.business.exception.NotEnoughFundsException;
+import com.paymybuddy.business.lock.NoopUserLockManager;
+import com.paymybuddy.business.lock.UserLockManager;
+import com.paymybuddy.business.mapper.TransactionMapperImpl;
+import com.paymybuddy.business.mapper.UserBalanceMapperImpl;
+import com.paymybuddy.business.mapper.UserMapperImpl;
+import com.paymybuddy.business.mock.MockUsers;
+import com.paymybuddy.business.mock.TestBusinessConfig;
+import com.paymybuddy.business.pageable.CursorCodec;
+import com.paymybuddy.persistence.entity.TransactionEntity;
+import com.paymybuddy.persistence.entity.UserEntity;
+import com.paymybuddy.persistence.repository.TransactionRepository;
+import com.paymybuddy.persistence.repository.UserBalanceRepository;
+import com.paymybuddy.persistence.repository.UserLedgerRepository;
+import com.paymybuddy.persistence.repository.UserRepository;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * Concurrent transfers on an emulated database (balances row locks held until the end of the transaction, atomic
+ * debits and credits, rollbacks), checking that money is never created nor lost.
+ */
+@SpringBootTest(classes = {TransactionService.class, UserMapperImpl.class, UserBalanceMapperImpl.class, TransactionMapperImpl.class})
+@Import(TransactionServiceStressTest.TestConfig.class)
+class TransactionServiceStressTest {
+    private static final int USERS = 8;
+    private static final int THREADS = 16;
+    private static final int TRANSFERS_PER_THREAD = 500;
+    private static final Currency CURRENCY = Currency.USD;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000");
+
+    private static final Map<Long, ReentrantLock> rowLocks = new ConcurrentHashMap<>();
+    private static final ThreadLocal<List<ReentrantLock>> heldRowLocks = ThreadLocal.withInitial(ArrayList::new);
+    private static final ThreadLocal<List<Runnable>> rollbackActions = ThreadLocal.withInitial(ArrayList::new);
+
+    @MockBean
+    private TransactionRepository transactionRepository;
+
+    @MockBean
+    private UserBalanceRepository userBalanceRepository;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private UserLedgerRepository userLedgerRepository;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Test
+    void createTransactionConservesTotals() throws Exception {
+        Map<Long, UserEntity> users = new ConcurrentHashMap<>();
+        Map<Long, BigDecimal> balances = new ConcurrentHashMap<>();
+        for (long userId = 1; userId <= USERS; ++userId) {
+            users.put(userId, MockUsers.newUserEntity(userId));
+            balances.put(userId, INITIAL_BALANCE);
+            rowLocks.put(userId, new ReentrantLock());
+        }
+        AtomicReference<BigDecimal> fees = new AtomicReference<>(BigDecimal.ZERO);
+
+        when(userRepository.findById(anyLong())).thenAnswer(m -> Optional.ofNullable(users.get(m.<Long>getArgument(0))));
+        when(userBalanceRepository.debit(anyLong(), any(), any())).thenAnswer(m -> {
+            long userId = m.getArgument(0);
+            BigDecimal amount = m.getArgument(2);
+            lockRow(userId);
+            if (balances.get(userId).compareTo(amount) < 0) {
+                return 0;
+            }
+            balances.merge(userId, amount.negate(), BigDecimal::add);
+            rollbackActions.get().add(() -> balances.merge(userId, amount, BigDecimal::add));
+            return 1;
+        });
+        doAnswer(m -> {
+            long userId = m.getArgument(0);
+            BigDecimal amount = m.getArgument(2);
+            lockRow(userId);
+            balances.merge(userId, amount, BigDecimal::add);
+            rollbackActions.get().add(() -> balances.merge(userId, amount.negate(), BigDecimal::add));
+            return null;
+        }).when(userBalanceRepository).credit(anyLong(), any(), any());
+        when(transactionRepository.save(any())).thenAnswer(m -> {
+            TransactionEntity transaction = m.getArgument(0);
+            fees.accumulateAndGet(transaction.getFee(), BigDecimal::add);
+            return transaction;
+        });
+
+        // Run transfers, half of them to the same (popular) recipient
+        AtomicInteger succeeded = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; ++t) {
+                Random random = new Random(t);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < TRANSFERS_PER_THREAD; ++i) {
+                        long senderId = 1 + random.nextInt(USERS);
+                        long recipientId = random.nextBoolean() ? 1 : 1 + random.nextInt(USERS);
+                        if (senderId == recipientId) {
+                            continue;
+                        }
+                        BigDecimal amount = BigDecimal.valueOf(1 + random.nextInt(20000), 2);
+                        try {
+                            transactionService.createTransaction(senderId, recipientId, CURRENCY, amount, "", ZonedDateTime.now());
+                            succeeded.incrementAndGet();
+                        } catch (NotEnoughFundsException ignored) {
+                            // the sender balance is too low, nothing must have changed
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Check that the totals are conserved (and that no balance is negative)
+        assertTrue(succeeded.get() > 0);
+        BigDecimal total = balances.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add).add(fees.get());
+        assertEquals(0, INITIAL_BALANCE.multiply(BigDecimal.valueOf(USERS)).compareTo(total), "total is " + total);
+        balances.values().forEach(balance -> assertTrue(balance.signum() >= 0, "negative balance " + balance));
+    }
+
+    /**
+     * Emulate a database row lock (released at the end of the transaction).
+     */
+    private static void lockRow(long userId) {
+        ReentrantLock lock = rowLocks.get(userId);
+        lock.lock();
+        heldRowLocks.get().add(lock);
+    }
+
+    @TestConfiguration
+    static class TestConfig {
+        /**
+         * Emulate database transactions: writes are rolled back on failure, and row locks are released at the end.
+         */
+        @Bean
+        public TransactionOperations getTransactionOperations() {
+            return new TransactionOperations() {
+                @Override
+                public <T> T execute(TransactionCallback<T> action) {
+                    try {
+                        return action.doInTransaction(null);
+                    } catch (RuntimeException e) {
+                        Lists.reverse(rollbackActions.get()).forEach(Runnable::run);
+                        throw e;
+                    } finally {
+                        rollbackActions.get().clear();
+                        heldRowLocks.get().forEach(ReentrantLock::unlock);
+                        heldRowLocks.get().clear();
+                    }
+                }
+            };
+        }
+
+        @Bean
+        public UserLockManager getUserLockManager() {
+            return new NoopUserLockManager();
+        }
+
+        @Bean
+        public CursorCodec getCursorCodec() {
+            return TestBusinessConfig.newCursorCodec();
+        }
+    }
+}
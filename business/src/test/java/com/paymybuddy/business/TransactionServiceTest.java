@@ -2,12 +2,13 @@ package com.paymybuddy.business;
 
 import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Table;
 import com.paymybuddy.api.model.Currency;
 import com.paymybuddy.api.model.collection.CursorResponse;
 import com.paymybuddy.api.model.transaction.Transaction;
 import com.paymybuddy.business.exception.NotEnoughFundsException;
+import com.paymybuddy.business.exception.PreconditionException;
 import com.paymybuddy.business.exception.RecipientNotFoundException;
 import com.paymybuddy.business.exception.SenderNotFoundException;
 import com.paymybuddy.business.mapper.TransactionMapperImpl;
@@ -20,38 +21,51 @@ import com.paymybuddy.business.pageable.CursorRequest;
 import com.paymybuddy.persistence.entity.TransactionEntity;
 import com.paymybuddy.persistence.entity.UserBalanceEntity;
 import com.paymybuddy.persistence.entity.UserEntity;
+import com.paymybuddy.persistence.entity.UserLedgerEntity;
 import com.paymybuddy.persistence.repository.TransactionRepository;
 import com.paymybuddy.persistence.repository.UserBalanceRepository;
+import com.paymybuddy.persistence.repository.UserLedgerRepository;
 import com.paymybuddy.persistence.repository.UserRepository;
+import com.paymybuddy.persistence.util.RowValuePredicate;
 import java.math.BigDecimal;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.LongStream;
-import java.util.stream.Stream;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import org.hibernate.query.criteria.internal.CriteriaBuilderImpl;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest(classes = {TransactionService.class, UserService.class, UserMapperImpl.class, UserBalanceMapperImpl.class, TransactionMapperImpl.class})
@@ -66,6 +80,9 @@ class TransactionServiceTest {
     @MockBean
     private UserRepository userRepository;
 
+    @MockBean
+    private UserLedgerRepository userLedgerRepository;
+
     @Autowired
     private UserMapper userMapper;
 
@@ -74,16 +91,18 @@ class TransactionServiceTest {
 
     @Test
     void listTransactions() {
-        when(transactionRepository.findAll(any(Specification.class), any(Pageable.class))).thenAnswer(m -> {
+        when(userLedgerRepository.findTransactionsSlice(any(), any(Pageable.class))).thenAnswer(m -> {
             Pageable pageable = m.getArgument(1);
-            List<TransactionEntity> content = LongStream.range(0, pageable.getPageSize()).boxed()
+            List<UserLedgerEntity> content = LongStream.range(0, pageable.getPageSize()).boxed()
                     .map(id -> {
-                        TransactionEntity e = new TransactionEntity();
-                        e.setId(id);
+                        UserLedgerEntity e = new UserLedgerEntity();
+                        e.setTransactionId(id);
+                        e.setTransaction(new TransactionEntity());
+                        e.getTransaction().setId(id);
                         return e;
                     })
                     .collect(Collectors.toList());
-            return new PageImpl<>(content, pageable, pageable.getPageSize() * 2L + 3L);
+            return new SliceImpl<>(content, pageable, true);
         });
 
         CursorRequest req = new CursorRequest();
@@ -92,10 +111,105 @@ class TransactionServiceTest {
 
         CursorResponse<Transaction> res = transactionService.listTransactions(1L, req);
         assertEquals(false, res.getHasPrev());
-        assertEquals("b$.AAAAAAAAAAA", res.getPrevCursor());
+        assertNotNull(res.getPrevCursor());
         assertEquals(true, res.getHasNext());
-        assertEquals("a$.AAAAAAAAAAQ", res.getNextCursor());
+        assertNotNull(res.getNextCursor());
         assertEquals(5, res.getRecords().size());
+
+        // Check that a single sliced fetch is performed per page, and that no count query is
+        verify(userLedgerRepository, times(1)).findTransactionsSlice(any(), argThat(pageable -> pageable.getPageSize() == 5));
+        verifyNoMoreInteractions(userLedgerRepository);
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void listTransactionsRowValueCursor() {
+        when(userLedgerRepository.findTransactionsSlice(any(), any(Pageable.class))).thenAnswer(m -> {
+            Pageable pageable = m.getArgument(1);
+            List<UserLedgerEntity> content = LongStream.range(0, pageable.getPageSize()).boxed()
+                    .map(id -> {
+                        UserLedgerEntity e = new UserLedgerEntity();
+                        e.setTransactionId(id);
+                        e.setTransaction(new TransactionEntity());
+                        e.getTransaction().setId(id);
+                        e.setAbsAmount(BigDecimal.valueOf(id));
+                        return e;
+                    })
+                    .collect(Collectors.toList());
+            return new SliceImpl<>(content, pageable, true);
+        });
+
+        // All sort directions agree: a single row-value comparison is used
+        CursorRequest req = new CursorRequest();
+        req.setPageSize(5);
+        req.setPageSort(Arrays.asList("-amount", "-id"));
+        req.setCursor(transactionService.listTransactions(1L, req).getNextCursor());
+        CriteriaBuilderImpl builder = Mockito.mock(CriteriaBuilderImpl.class, Mockito.RETURNS_MOCKS);
+        applyListTransactionsSpecification(req, builder);
+        assertEquals(1, countRowValuePredicates(builder));
+        verify(builder, never()).lessThan(any(), any(BigDecimal.class));
+
+        // Sort directions differ: fallback to a chain of comparisons
+        req = new CursorRequest();
+        req.setPageSize(5);
+        req.setPageSort(Arrays.asList("-amount", "id"));
+        req.setCursor(transactionService.listTransactions(1L, req).getNextCursor());
+        builder = Mockito.mock(CriteriaBuilderImpl.class, Mockito.RETURNS_MOCKS);
+        applyListTransactionsSpecification(req, builder);
+        assertEquals(0, countRowValuePredicates(builder));
+        verify(builder, times(1)).lessThan(any(), any(BigDecimal.class));
+        verify(builder, times(1)).greaterThan(any(), any(Long.class));
+    }
+
+    @Test
+    void listTransactionsRejectsInvalidCursors() {
+        when(userLedgerRepository.findTransactionsSlice(any(), any(Pageable.class))).thenAnswer(m -> {
+            UserLedgerEntity e = new UserLedgerEntity();
+            e.setTransactionId(7L);
+            e.setAbsAmount(BigDecimal.TEN);
+            return new SliceImpl<>(Collections.singletonList(e), m.getArgument(1), true);
+        });
+        CursorRequest req = new CursorRequest();
+        req.setPageSize(1);
+        req.setPageSort(Arrays.asList("-amount", "id"));
+        String cursor = transactionService.listTransactions(1L, req).getNextCursor();
+        Mockito.clearInvocations(userLedgerRepository);
+
+        // Tampered cursors
+        for (String tampered : Arrays.asList("a", "a$.AAAAAAAAAAQ", cursor.substring(1), cursor + "A",
+                (cursor.charAt(0) == 'A' ? 'B' : 'A') + cursor.substring(1))) {
+            CursorRequest tamperedReq = new CursorRequest();
+            tamperedReq.setPageSize(1);
+            tamperedReq.setPageSort(req.getPageSort());
+            tamperedReq.setCursor(tampered);
+            assertThrows(PreconditionException.class, () -> transactionService.listTransactions(1L, tamperedReq), tampered);
+        }
+
+        // Cursor reused with another sort
+        CursorRequest otherSortReq = new CursorRequest();
+        otherSortReq.setPageSize(1);
+        otherSortReq.setPageSort(Arrays.asList("amount", "id"));
+        otherSortReq.setCursor(cursor);
+        assertThrows(PreconditionException.class, () -> transactionService.listTransactions(1L, otherSortReq));
+
+        // Crafted cursors never reach the database
+        verifyNoInteractions(userLedgerRepository);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void applyListTransactionsSpecification(CursorRequest req, CriteriaBuilderImpl builder) {
+        Mockito.clearInvocations(userLedgerRepository);
+        transactionService.listTransactions(1L, req);
+        ArgumentCaptor<Specification<UserLedgerEntity>> specification = ArgumentCaptor.forClass(Specification.class);
+        verify(userLedgerRepository).findTransactionsSlice(specification.capture(), any(Pageable.class));
+        specification.getValue().toPredicate(Mockito.mock(Root.class, Mockito.RETURNS_MOCKS), Mockito.mock(CriteriaQuery.class), builder);
+    }
+
+    private static long countRowValuePredicates(CriteriaBuilderImpl builder) {
+        return Mockito.mockingDetails(builder).getInvocations().stream()
+                .flatMap(invocation -> Arrays.stream(invocation.getArguments()))
+                .filter(arg -> arg instanceof RowValuePredicate)
+                .count();
     }
 
     @Test
@@ -110,28 +224,12 @@ class TransactionServiceTest {
 
         UserEntity sender = MockUsers.newUserEntity(senderId);
         UserEntity recipient = MockUsers.newUserEntity(recipientId);
-        when(userRepository.findAllByIdsForUpdate(any())).thenAnswer(m -> {
-            Collection<Long> ids = m.getArgument(0);
-            return Stream.of(
-                    ids.contains(sender.getId()) ? sender : null,
-                    ids.contains(recipient.getId()) ? recipient : null
-            ).filter(Objects::nonNull).collect(Collectors.toList());
-        });
+        Map<Long, UserEntity> users = ImmutableMap.of(senderId, sender, recipientId, recipient);
+        when(userRepository.findById(anyLong())).thenAnswer(m -> Optional.ofNullable(users.get(m.<Long>getArgument(0))));
 
         Table<Long, Currency, UserBalanceEntity> balances = HashBasedTable.create();
         balances.put(senderId, currency, MockUsers.newBalance(new BigDecimal("1000000"), currency, sender));
-        when(userBalanceRepository.findByUserIdAndCurrency(anyLong(), any())).thenAnswer(m -> {
-            return Optional.ofNullable(balances.get(m.<Long>getArgument(0), m.<Currency>getArgument(1)));
-        });
-        when(userBalanceRepository.saveAll(any())).thenAnswer(m -> {
-            List<UserBalanceEntity> ret = new ArrayList<>();
-            m.<Iterable<UserBalanceEntity>>getArgument(0).forEach(e -> {
-                e.setUser(Iterables.getFirst(userRepository.findAllByIdsForUpdate(Collections.singleton(e.getUserId())), null));
-                balances.put(e.getUserId(), e.getCurrency(), e);
-                ret.add(e);
-            });
-            return ret;
-        });
+        mockBalances(balances, users::get);
 
         // Check createTransaction fee overload
         TransactionService transactionServiceSpy = Mockito.spy(transactionService);
@@ -158,7 +256,10 @@ class TransactionServiceTest {
         assertThrows(RecipientNotFoundException.class, () -> transactionService.createTransaction(senderId, 3L, currency, amount, description, fee, date));
 
         // Check NotEnoughFundsException
-        assertThrows(NotEnoughFundsException.class, () -> transactionService.createTransaction(senderId, recipientId, currency, new BigDecimal("100000000.00"), description, fee, date));
+        balances.put(senderId, currency, MockUsers.newBalance(new BigDecimal("1000000"), currency, sender));
+        NotEnoughFundsException e = assertThrows(NotEnoughFundsException.class, () -> transactionService.createTransaction(senderId, recipientId, currency, new BigDecimal("1000000.00"), description, fee, date));
+        assertEquals(currency, e.getCurrency());
+        assertEquals(fee, e.getMissingAmount());
 
         // Check success
         for (int i = 0; i < 2; ++i) {
@@ -168,6 +269,7 @@ class TransactionServiceTest {
                 balances.put(recipientId, currency, MockUsers.newBalance(new BigDecimal("1000000"), currency, recipient));
             }
 
+            Mockito.clearInvocations(userRepository, userBalanceRepository, transactionRepository, userLedgerRepository);
             Transaction res = transactionService.createTransaction(senderId, recipientId, currency, amount, description, fee, date);
             assertEquals(userMapper.toContact(sender), res.getSender());
             assertEquals(userMapper.toContact(recipient), res.getRecipient());
@@ -179,9 +281,113 @@ class TransactionServiceTest {
 
             assertEquals(ImmutableMap.of(Currency.USD, MockUsers.newBalance(new BigDecimal("998759.26"), currency, sender)), balances.row(senderId));
             assertEquals(ImmutableMap.of(Currency.USD, MockUsers.newBalance(i == 0 ? new BigDecimal("1001234.56") : amount, currency, recipient)), balances.row(recipientId));
+
+            ArgumentCaptor<Iterable<UserLedgerEntity>> ledgerEntries = ArgumentCaptor.forClass(Iterable.class);
+            verify(userLedgerRepository, times(1)).saveAll(ledgerEntries.capture());
+            List<UserLedgerEntity> entries = Lists.newArrayList(ledgerEntries.getValue());
+            assertEquals(2, entries.size());
+            assertLedgerEntry(entries.get(0), senderId, UserLedgerEntity.Type.TRANSACTION, currency, amount.negate(), fee);
+            assertLedgerEntry(entries.get(1), recipientId, UserLedgerEntity.Type.TRANSACTION, currency, amount, BigDecimal.ZERO);
+
+            // The transfer runs a fixed number of statements (balances are neither read nor locked beforehand)
+            verify(userRepository, times(2)).findById(anyLong());
+            verify(userBalanceRepository, times(1)).debit(senderId, currency, amount.add(fee));
+            verify(userBalanceRepository, times(1)).credit(recipientId, currency, amount);
+            verify(transactionRepository, times(1)).save(any());
+            verifyNoMoreInteractions(userRepository, userBalanceRepository, transactionRepository, userLedgerRepository);
         }
     }
 
+    @Test
+    void createTransactions() {
+        long senderId = 2L;
+        ZonedDateTime date = ZonedDateTime.of(2020, 9, 1, 16, 30, 15, 0, ZoneId.of("Europe/Paris"));
+        Map<Long, UserEntity> users = LongStream.rangeClosed(1L, 3L).boxed()
+                .collect(Collectors.toMap(Function.identity(), MockUsers::newUserEntity));
+        when(userRepository.findById(anyLong())).thenAnswer(m -> Optional.ofNullable(users.get(m.<Long>getArgument(0))));
+        when(userRepository.findAllById(any())).thenAnswer(m -> {
+            Iterable<Long> ids = m.getArgument(0);
+            return Lists.newArrayList(ids).stream().map(users::get).filter(Objects::nonNull).collect(Collectors.toList());
+        });
+
+        Table<Long, Currency, UserBalanceEntity> balances = HashBasedTable.create();
+        mockBalances(balances, users::get);
+
+        List<TransactionService.NewTransaction> transactions = Arrays.asList(
+                newTransaction(3L, Currency.USD, "111", null),
+                newTransaction(1L, Currency.EUR, "45", "0"),
+                newTransaction(3L, Currency.USD, "20.50", "1"));
+
+        // Validate the transactions
+        assertThrows(IllegalArgumentException.class, () -> transactionService.createTransactions(senderId, Collections.emptyList(), date));
+        assertThrows(IllegalArgumentException.class, () -> transactionService.createTransactions(senderId, Collections.singletonList(newTransaction(3L, Currency.USD, "10.001", null)), date));
+        assertThrows(IllegalArgumentException.class, () -> transactionService.createTransactions(senderId, Collections.singletonList(newTransaction(3L, Currency.USD, "0", null)), date));
+        assertThrows(IllegalArgumentException.class, () -> transactionService.createTransactions(senderId, Collections.singletonList(newTransaction(3L, Currency.USD, "10", "-1")), date));
+        assertThrows(IllegalArgumentException.class, () -> transactionService.createTransactions(senderId, Collections.singletonList(newTransaction(senderId, Currency.USD, "10", null)), date));
+
+        // Check SenderNotFoundException/RecipientNotFoundException
+        assertThrows(SenderNotFoundException.class, () -> transactionService.createTransactions(4L, transactions, date));
+        assertThrows(RecipientNotFoundException.class, () -> transactionService.createTransactions(senderId, Arrays.asList(transactions.get(0), newTransaction(4L, Currency.USD, "10", null)), date));
+
+        // Check NotEnoughFundsException (each transaction is covered, but not all of them)
+        balances.put(senderId, Currency.USD, MockUsers.newBalance(new BigDecimal("130"), Currency.USD, users.get(senderId)));
+        balances.put(senderId, Currency.EUR, MockUsers.newBalance(new BigDecimal("1000"), Currency.EUR, users.get(senderId)));
+        NotEnoughFundsException e = assertThrows(NotEnoughFundsException.class, () -> transactionService.createTransactions(senderId, transactions, date));
+        assertEquals(Currency.USD, e.getCurrency());
+        assertEquals(new BigDecimal("3.06"), e.getMissingAmount());
+
+        // Check success
+        balances.clear();
+        balances.put(senderId, Currency.USD, MockUsers.newBalance(new BigDecimal("1000"), Currency.USD, users.get(senderId)));
+        balances.put(senderId, Currency.EUR, MockUsers.newBalance(new BigDecimal("1000"), Currency.EUR, users.get(senderId)));
+        balances.put(3L, Currency.USD, MockUsers.newBalance(new BigDecimal("10"), Currency.USD, users.get(3L)));
+
+        Mockito.clearInvocations(userBalanceRepository, transactionRepository, userLedgerRepository);
+        List<Transaction> res = transactionService.createTransactions(senderId, transactions, date);
+        assertEquals(3, res.size());
+        for (int i = 0; i < res.size(); ++i) {
+            assertEquals(userMapper.toContact(users.get(senderId)), res.get(i).getSender());
+            assertEquals(userMapper.toContact(users.get(transactions.get(i).getRecipientId())), res.get(i).getRecipient());
+            assertEquals(transactions.get(i).getCurrency(), res.get(i).getCurrency());
+            assertEquals(transactions.get(i).getAmount().stripTrailingZeros(), res.get(i).getAmount());
+            assertEquals(date, res.get(i).getDate());
+        }
+        assertEquals(new BigDecimal("0.56"), res.get(0).getFee());
+
+        assertEquals(new BigDecimal("866.94"), balances.get(senderId, Currency.USD).getAmount());
+        assertEquals(new BigDecimal("955"), balances.get(senderId, Currency.EUR).getAmount());
+        assertEquals(new BigDecimal("141.5"), balances.get(3L, Currency.USD).getAmount());
+        assertEquals(new BigDecimal("45"), balances.get(1L, Currency.EUR).getAmount());
+
+        // The balances rows are debited/credited once, in the (user ID, currency) order
+        InOrder inOrder = Mockito.inOrder(userBalanceRepository);
+        inOrder.verify(userBalanceRepository).credit(1L, Currency.EUR, new BigDecimal("45"));
+        inOrder.verify(userBalanceRepository).debit(senderId, Currency.EUR, new BigDecimal("45"));
+        inOrder.verify(userBalanceRepository).debit(senderId, Currency.USD, new BigDecimal("133.06"));
+        inOrder.verify(userBalanceRepository).credit(3L, Currency.USD, new BigDecimal("131.5"));
+        verifyNoMoreInteractions(userBalanceRepository);
+        verify(transactionRepository, times(1)).saveAll(any());
+
+        ArgumentCaptor<Iterable<UserLedgerEntity>> ledgerEntries = ArgumentCaptor.forClass(Iterable.class);
+        verify(userLedgerRepository, times(1)).saveAll(ledgerEntries.capture());
+        List<UserLedgerEntity> entries = Lists.newArrayList(ledgerEntries.getValue());
+        assertEquals(6, entries.size());
+        assertLedgerEntry(entries.get(0), senderId, UserLedgerEntity.Type.TRANSACTION, Currency.USD, new BigDecimal("-111"), new BigDecimal("0.56"));
+        assertLedgerEntry(entries.get(1), 3L, UserLedgerEntity.Type.TRANSACTION, Currency.USD, new BigDecimal("111"), BigDecimal.ZERO);
+        assertLedgerEntry(entries.get(4), senderId, UserLedgerEntity.Type.TRANSACTION, Currency.USD, new BigDecimal("-20.5"), BigDecimal.ONE);
+        assertLedgerEntry(entries.get(5), 3L, UserLedgerEntity.Type.TRANSACTION, Currency.USD, new BigDecimal("20.5"), BigDecimal.ZERO);
+    }
+
+    private static TransactionService.NewTransaction newTransaction(long recipientId, Currency currency, String amount, String fee) {
+        return TransactionService.NewTransaction.builder()
+                .recipientId(recipientId)
+                .currency(currency)
+                .amount(new BigDecimal(amount))
+                .description("Hello World")
+                .fee(fee == null ? null : new BigDecimal(fee))
+                .build();
+    }
+
     @Test
     void withdrawToBank() {
         long userId = 1L;
@@ -190,27 +396,11 @@ class TransactionServiceTest {
         String  iban = "NL91ABNA0417164300";
 
         UserEntity user = MockUsers.newUserEntity(userId);
-        when(userRepository.findAllByIdsForUpdate(any())).thenAnswer(m -> {
-            Collection<Long> ids = m.getArgument(0);
-            return Stream.of(
-                    ids.contains(user.getId()) ? user : null
-            ).filter(Objects::nonNull).collect(Collectors.toList());
-        });
+        when(userRepository.existsById(anyLong())).thenAnswer(m -> m.<Long>getArgument(0) == userId);
 
         Table<Long, Currency, UserBalanceEntity> balances = HashBasedTable.create();
         balances.put(user.getId(), currency, MockUsers.newBalance(new BigDecimal("1000000"), currency, user));
-        when(userBalanceRepository.findByUserIdAndCurrency(anyLong(), any())).thenAnswer(m -> {
-            return Optional.ofNullable(balances.get(m.<Long>getArgument(0), m.<Currency>getArgument(1)));
-        });
-        when(userBalanceRepository.saveAll(any())).thenAnswer(m -> {
-            List<UserBalanceEntity> ret = new ArrayList<>();
-            m.<Iterable<UserBalanceEntity>>getArgument(0).forEach(e -> {
-                e.setUser(Iterables.getFirst(userRepository.findAllByIdsForUpdate(Collections.singleton(e.getUserId())), null));
-                balances.put(e.getUserId(), e.getCurrency(), e);
-                ret.add(e);
-            });
-            return ret;
-        });
+        mockBalances(balances, id -> id == userId ? user : null);
 
         // Validate the amount
         transactionService.withdrawToBank(userId, currency, new BigDecimal("10.000"), iban);
@@ -228,8 +418,54 @@ class TransactionServiceTest {
         balances.clear();
         balances.put(userId, currency, MockUsers.newBalance(new BigDecimal("1000000"), currency, user));
 
+        Mockito.clearInvocations(userRepository, userBalanceRepository, userLedgerRepository);
         transactionService.withdrawToBank(userId, currency, amount, iban);
         assertEquals(ImmutableMap.of(Currency.USD, MockUsers.newBalance(new BigDecimal("998765.44"), currency, user)), balances.row(userId));
+
+        ArgumentCaptor<UserLedgerEntity> ledgerEntry = ArgumentCaptor.forClass(UserLedgerEntity.class);
+        verify(userLedgerRepository, times(1)).save(ledgerEntry.capture());
+        assertLedgerEntry(ledgerEntry.getValue(), userId, UserLedgerEntity.Type.BANK_WITHDRAWAL, currency, amount.negate(), BigDecimal.ZERO);
+        assertEquals(iban, ledgerEntry.getValue().getIban());
+
+        // The withdrawal runs a fixed number of statements (the balance debit and the ledger entry insert)
+        verify(userBalanceRepository, times(1)).debit(userId, currency, amount);
+        verifyNoMoreInteractions(userRepository, userBalanceRepository, userLedgerRepository);
+    }
+
+    /**
+     * Emulate the balances atomic debits and credits (and reads) on a table.
+     */
+    private void mockBalances(Table<Long, Currency, UserBalanceEntity> balances, Function<Long, UserEntity> users) {
+        when(userBalanceRepository.findByUserIdAndCurrency(anyLong(), any())).thenAnswer(m -> {
+            return Optional.ofNullable(balances.get(m.<Long>getArgument(0), m.<Currency>getArgument(1)));
+        });
+        when(userBalanceRepository.debit(anyLong(), any(), any())).thenAnswer(m -> {
+            long userId = m.getArgument(0);
+            Currency currency = m.getArgument(1);
+            BigDecimal amount = m.getArgument(2);
+            UserBalanceEntity balance = balances.get(userId, currency);
+            if (balance == null || balance.getAmount().compareTo(amount) < 0) {
+                return 0;
+            }
+            balances.put(userId, currency, MockUsers.newBalance(balance.getAmount().subtract(amount), currency, users.apply(userId)));
+            return 1;
+        });
+        doAnswer(m -> {
+            long userId = m.getArgument(0);
+            Currency currency = m.getArgument(1);
+            UserBalanceEntity balance = balances.get(userId, currency);
+            BigDecimal balanceAmount = balance == null ? m.getArgument(2) : balance.getAmount().add(m.getArgument(2));
+            balances.put(userId, currency, MockUsers.newBalance(balanceAmount, currency, users.apply(userId)));
+            return null;
+        }).when(userBalanceRepository).credit(anyLong(), any(), any());
+    }
+
+    private static void assertLedgerEntry(UserLedgerEntity entry, long userId, UserLedgerEntity.Type type, Currency currency, BigDecimal amount, BigDecimal fee) {
+        assertEquals(userId, entry.getUserId());
+        assertEquals(type, entry.getType());
+        assertEquals(currency, entry.getCurrency());
+        assertEquals(amount, entry.getAmount());
+        assertEquals(fee, entry.getFee());
     }
 
     @Test
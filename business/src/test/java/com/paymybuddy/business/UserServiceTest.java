@@ -117,10 +117,16 @@ class UserServiceTest {
     @Test
     void updateEncodedPassword() {
         User user = userMapper.toUser(MockUsers.newUserEntity(1L));
+        String oldEncodedPassword = user.getEncodedPassword();
         String newEncodedPassword = "NEW_ENCODED_PASSWORD";
+        when(userRepository.updatePassword(user.getId(), oldEncodedPassword, newEncodedPassword)).thenReturn(1);
         userService.updateEncodedPassword(user, newEncodedPassword);
         assertEquals(newEncodedPassword, user.getEncodedPassword());
-        verify(userRepository, times(1)).updatePassword(user.getId(), newEncodedPassword);
+        verify(userRepository, times(1)).updatePassword(user.getId(), oldEncodedPassword, newEncodedPassword);
+
+        // Password changed concurrently
+        userService.updateEncodedPassword(user, "OTHER_ENCODED_PASSWORD");
+        assertEquals(newEncodedPassword, user.getEncodedPassword());
     }
 
     @Test
@@ -0,0 +1,76 @@
+package com.paymybuddy.business.lock;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StripedUserLockManagerTest {
+    @Test
+    void runLocked() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StripedUserLockManager lockManager = new StripedUserLockManager(60, meterRegistry);
+        assertEquals(64, lockManager.getStripesCount());
+        assertEquals(64, meterRegistry.get("paymybuddy.user_locks.stripes").gauge().value());
+
+        // Many senders hammering a single recipient (whose balance is not thread-safe), locking the users in both
+        // orders to check that it cannot deadlock
+        long recipientId = 1L;
+        int threads = 32;
+        int iterations = 1000;
+        long[] recipientBalance = {0L};
+        AtomicInteger running = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; ++t) {
+                long senderId = 2L + t;
+                List<Long> userIds = t % 2 == 0 ? Arrays.asList(senderId, recipientId) : Arrays.asList(recipientId, senderId);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < iterations; ++i) {
+                        lockManager.runLocked(userIds, () -> {
+                            assertEquals(1, running.incrementAndGet());
+                            ++recipientBalance[0];
+                            running.decrementAndGet();
+                            return null;
+                        });
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(threads * iterations, recipientBalance[0]);
+        assertEquals(threads * iterations, meterRegistry.get("paymybuddy.user_locks.wait").timer().count());
+    }
+
+    @Test
+    void runLockedReleasesOnException() throws Exception {
+        StripedUserLockManager lockManager = new StripedUserLockManager(16, new SimpleMeterRegistry());
+        assertThrows(IllegalStateException.class, () -> lockManager.runLocked(Collections.singletonList(1L), () -> {
+            throw new IllegalStateException();
+        }));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> future = executor.submit(() -> lockManager.runLocked(Collections.singletonList(1L), () -> true));
+            assertEquals(true, future.get(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,9 +1,18 @@
 package com.paymybuddy.business.mock;
 
+import com.paymybuddy.auth.LocalInvalidationBus;
+import com.paymybuddy.business.lock.NoopUserLockManager;
+import com.paymybuddy.business.lock.UserLockManager;
+import com.paymybuddy.business.pageable.CursorCodec;
+import com.paymybuddy.business.search.ContactSearchEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionOperations;
 
 @TestConfiguration
 public class TestBusinessConfig {
@@ -11,4 +20,28 @@ public class TestBusinessConfig {
     public PasswordEncoder getPasswordEncoder() {
         return new BCryptPasswordEncoder(BCryptPasswordEncoder.BCryptVersion.$2B, 4);
     }
+
+    @Bean
+    public TransactionOperations getTransactionOperations() {
+        return TransactionOperations.withoutTransaction();
+    }
+
+    @Bean
+    public UserLockManager getUserLockManager() {
+        return new NoopUserLockManager();
+    }
+
+    @Bean
+    public CursorCodec getCursorCodec() {
+        return newCursorCodec();
+    }
+
+    @Bean
+    public ContactSearchEngine getContactSearchEngine() {
+        return new ContactSearchEngine(10000, Duration.ofMinutes(1), new LocalInvalidationBus(), new SimpleMeterRegistry());
+    }
+
+    public static CursorCodec newCursorCodec() {
+        return new CursorCodec("test-cursor-key-test-cursor-key!".getBytes(StandardCharsets.UTF_8));
+    }
 }
@@ -0,0 +1,84 @@
+package com.paymybuddy.business.pageable;
+
+import com.paymybuddy.business.mock.TestBusinessConfig;
+import com.paymybuddy.business.pageable.type.BigDecimalPropertyType;
+import com.paymybuddy.business.pageable.type.LongPropertyType;
+import com.paymybuddy.business.pageable.type.PropertyType;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CursorCodecTest {
+    private static final byte[] CONTEXT = "-absAmount,transactionId".getBytes(StandardCharsets.UTF_8);
+
+    private final CursorCodec codec = TestBusinessConfig.newCursorCodec();
+
+    @SuppressWarnings("unchecked")
+    private static final List<PropertyType<Object>> TYPES = Arrays.asList(
+            (PropertyType<Object>) (PropertyType<?>) new BigDecimalPropertyType(),
+            (PropertyType<Object>) (PropertyType<?>) new LongPropertyType());
+
+    @Test
+    void roundTrip() {
+        for (Object[] values : new Object[][]{
+                {new BigDecimal("12.34"), 1L},
+                {new BigDecimal("-0.01"), -1L},
+                {BigDecimal.ZERO, 0L},
+                {new BigDecimal("123456789012345678901234567890.123"), Long.MAX_VALUE},
+                {new BigDecimal("-1E+20"), Long.MIN_VALUE},
+                {null, 42L},
+                {null, null},
+        }) {
+            for (int kind = 0; kind < 4; ++kind) {
+                String cursor = codec.encode(kind, TYPES, Arrays.asList(values), CONTEXT);
+                assertTrue(cursor.matches("[A-Za-z0-9_-]+"), cursor);
+                Object[] decoded = new Object[2];
+                assertEquals(kind, codec.decode(cursor, TYPES, CONTEXT, decoded));
+                assertArrayEquals(values, decoded);
+            }
+        }
+    }
+
+    @Test
+    void cursorsAreCompact() {
+        // header + two small varints + tag
+        String cursor = codec.encode(0, TYPES, Arrays.asList(new BigDecimal("9.99"), 1000L), CONTEXT);
+        assertTrue(cursor.length() <= 20, cursor);
+    }
+
+    @Test
+    void rejectInvalidCursors() {
+        String cursor = codec.encode(1, TYPES, Arrays.asList(BigDecimal.ONE, 5L), CONTEXT);
+        for (String invalid : Arrays.asList("", "A", "AAAA", "!" + cursor.substring(1), cursor.substring(0, cursor.length() - 1),
+                cursor.substring(0, cursor.length() - 2), cursor + "AA", (cursor.charAt(3) == 'A' ? 'B' : 'A') + cursor.substring(1))) {
+            assertThrows(IllegalArgumentException.class, () -> codec.decode(invalid, TYPES, CONTEXT, new Object[2]), invalid);
+        }
+        for (int i = 0; i < cursor.length(); ++i) {
+            char[] chars = cursor.toCharArray();
+            chars[i] = chars[i] == 'x' ? 'y' : 'x';
+            String tampered = new String(chars);
+            assertThrows(IllegalArgumentException.class, () -> codec.decode(tampered, TYPES, CONTEXT, new Object[2]), tampered);
+        }
+    }
+
+    @Test
+    void rejectCursorsFromAnotherContextOrKey() {
+        String cursor = codec.encode(0, TYPES, Arrays.asList(BigDecimal.ONE, 5L), CONTEXT);
+        byte[] otherContext = "absAmount,transactionId".getBytes(StandardCharsets.UTF_8);
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(cursor, TYPES, otherContext, new Object[2]));
+        CursorCodec otherCodec = new CursorCodec("another-cursor-key-another-key!!".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IllegalArgumentException.class, () -> otherCodec.decode(cursor, TYPES, CONTEXT, new Object[2]));
+    }
+
+    @Test
+    void rejectShortKeys() {
+        assertThrows(IllegalArgumentException.class, () -> new CursorCodec(new byte[16]));
+    }
+}
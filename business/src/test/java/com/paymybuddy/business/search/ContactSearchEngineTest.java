@@ -0,0 +1,123 @@
+package com.paymybuddy.business.search;
+
+import com.google.common.base.Ticker;
+import com.paymybuddy.auth.InvalidationBus;
+import com.paymybuddy.auth.LocalInvalidationBus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ContactSearchEngineTest {
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+    private final InvalidationBus invalidationBus = new LocalInvalidationBus(); // shared by every node
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private ContactSearchEngine newNode() {
+        return new ContactSearchEngine(1000, TTL, invalidationBus, new SimpleMeterRegistry(), ticker);
+    }
+
+    private Supplier<ContactSearchIndex> loader(long... contactIds) {
+        return () -> {
+            loads.incrementAndGet();
+            ContactSearchIndex.Builder builder = ContactSearchIndex.builder(contactIds.length);
+            for (long contactId : contactIds) {
+                builder.add(contactId, "Contact " + contactId, contactId + "@domain.tld");
+            }
+            return builder.build();
+        };
+    }
+
+    @Test
+    void searchLoadsTheIndexOnce() {
+        ContactSearchEngine engine = newNode();
+        assertEquals(Collections.singletonList(2L), engine.search(1L, "contact", 5, loader(2L)));
+        assertEquals(Collections.singletonList(2L), engine.search(1L, "contact", 5, loader(2L)));
+        assertEquals(1, loads.get());
+        assertEquals(1, engine.getStats().hitCount());
+
+        // Expired
+        nanos.addAndGet(TTL.toNanos());
+        engine.search(1L, "contact", 5, loader(2L));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void updatesReplaceTheIndexAndDropTheOtherCopies() {
+        ContactSearchEngine node1 = newNode();
+        ContactSearchEngine node2 = newNode();
+        node1.search(1L, "contact", 5, loader(2L));
+        node2.search(1L, "contact", 5, loader(2L));
+        node1.search(4L, "contact", 5, loader(5L));
+        assertEquals(3, loads.get());
+
+        // Contact added on the first node: its index is updated, the second node rebuilds it
+        node1.contactAdded(1L, 3L, "Contact 3", "3@domain.tld");
+        assertEquals(Arrays.asList(2L, 3L), node1.search(1L, "contact", 5, loader(2L, 3L)));
+        assertEquals(3, loads.get());
+        assertEquals(Arrays.asList(2L, 3L), node2.search(1L, "contact", 5, loader(2L, 3L)));
+        assertEquals(4, loads.get());
+
+        // Contact removed on the second node
+        node2.contactRemoved(1L, 2L);
+        assertEquals(Collections.singletonList(3L), node2.search(1L, "contact", 5, loader(3L)));
+        assertEquals(Collections.singletonList(3L), node1.search(1L, "contact", 5, loader(3L)));
+        assertEquals(5, loads.get());
+
+        // Not cached: nothing to update
+        node1.contactAdded(6L, 7L, "Contact 7", "7@domain.tld");
+        assertEquals(Collections.singletonList(7L), node1.search(6L, "contact", 5, loader(7L)));
+        assertEquals(6, loads.get());
+
+        // The other users indexes are kept
+        node1.search(4L, "contact", 5, loader(5L));
+        assertEquals(6, loads.get());
+    }
+
+    @Test
+    void invalidateDropsEveryCopy() {
+        ContactSearchEngine node1 = newNode();
+        ContactSearchEngine node2 = newNode();
+        node1.search(1L, "contact", 5, loader(2L));
+        node2.search(1L, "contact", 5, loader(2L));
+
+        node1.invalidate(1L);
+        assertEquals(Arrays.asList(2L, 3L), node1.search(1L, "contact", 5, loader(2L, 3L)));
+        assertEquals(Arrays.asList(2L, 3L), node2.search(1L, "contact", 5, loader(2L, 3L)));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void loadRacingAnInvalidationIsNotKept() {
+        ContactSearchEngine node1 = newNode();
+        ContactSearchEngine node2 = newNode();
+
+        // Contact 3 is added on the second node while the first node reads the contacts
+        Supplier<ContactSearchIndex> staleLoader = () -> {
+            ContactSearchIndex index = loader(2L).get();
+            node2.contactAdded(1L, 3L, "Contact 3", "3@domain.tld");
+            return index;
+        };
+        assertEquals(Collections.singletonList(2L), node1.search(1L, "contact", 5, staleLoader));
+
+        // The outdated index was only used by the racing search
+        assertEquals(Arrays.asList(2L, 3L), node1.search(1L, "contact", 5, loader(2L, 3L)));
+        assertEquals(Arrays.asList(2L, 3L), node1.search(1L, "contact", 5, loader(2L, 3L)));
+        assertEquals(2, loads.get());
+
+    }
+}
@@ -0,0 +1,86 @@
+package com.paymybuddy.business.search;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ContactSearchIndexTest {
+    private static ContactSearchIndex newIndex() {
+        return ContactSearchIndex.builder(0)
+                .add(1L, "Bob Alison", "bob@domain.tld")
+                .add(2L, "Alice Martin", "am@domain.tld")
+                .add(3L, "Carol", "carol.alice@domain.tld")
+                .add(4L, "Malika", "malika@domain.tld")
+                .add(5L, "Alexandre", "alex@domain.tld")
+                .add(6L, "Dave", "alice.dave@domain.tld")
+                .build();
+    }
+
+    @Test
+    void searchRanksPrefixMatchesFirst() {
+        ContactSearchIndex index = newIndex();
+
+        // name prefix, email prefix, name word prefix, name infix, email infix
+        assertEquals(Arrays.asList(2L, 6L, 1L, 4L, 3L), index.search("ali", 10));
+        assertEquals(Arrays.asList(2L, 6L, 1L), index.search("ali", 3));
+        assertEquals(Arrays.asList(5L, 2L, 6L, 1L, 4L, 3L), index.search("al", 10)); // shorter than a trigram
+        assertEquals(Collections.singletonList(4L), index.search("lika", 10));
+        assertEquals(Collections.emptyList(), index.search("alicia", 10));
+        assertEquals(Collections.emptyList(), index.search("ali", 0));
+    }
+
+    @Test
+    void searchIgnoresCaseAndAccents() {
+        ContactSearchIndex index = ContactSearchIndex.builder(0).add(1L, "Élodie Müller", "elodie@domain.tld").build();
+        assertEquals(Collections.singletonList(1L), index.search("ELODIE", 10));
+        assertEquals(Collections.singletonList(1L), index.search(" muller", 10));
+        assertEquals(Collections.singletonList(1L), index.search("élo", 10));
+    }
+
+    @Test
+    void searchEmptyInputReturnsAllContactsByName() {
+        ContactSearchIndex index = newIndex();
+        assertEquals(Arrays.asList(5L, 2L, 1L, 3L), index.search("", 4));
+    }
+
+    @Test
+    void withAndWithoutContact() {
+        ContactSearchIndex index = newIndex();
+
+        ContactSearchIndex updated = index
+                .withContact(2L, "Zoe", "zoe@domain.tld") // renamed
+                .withContact(7L, "Alicia", "alicia@domain.tld")
+                .withoutContact(4L)
+                .withoutContact(42L); // unknown
+        assertEquals(Arrays.asList(7L, 6L, 1L, 3L), updated.search("ali", 10));
+        assertEquals(Collections.singletonList(2L), updated.search("zoe", 10));
+        assertEquals(Collections.singletonList(7L), updated.search("alicia", 10));
+        assertEquals(Collections.emptyList(), updated.search("lika", 10));
+        assertEquals(6, updated.getContactsCount());
+
+        // The original index is unchanged
+        assertEquals(Arrays.asList(2L, 6L, 1L, 4L, 3L), index.search("ali", 10));
+        assertEquals(Collections.emptyList(), index.search("zoe", 10));
+        assertEquals(6, index.getContactsCount());
+    }
+
+    @Test
+    void withoutContactKeepsTheOtherContactsSearchable() {
+        ContactSearchIndex.Builder builder = ContactSearchIndex.builder(0);
+        for (long id = 0; id < 1000; ++id) {
+            builder.add(id, "Contact " + id, id + "@domain.tld");
+        }
+        ContactSearchIndex index = builder.build();
+        for (long id = 0; id < 1000; ++id) {
+            if (id % 100 != 50) {
+                index = index.withoutContact(id);
+            }
+        }
+        assertEquals(10, index.getContactsCount());
+        assertEquals(Arrays.asList(150L, 250L, 350L), index.search("contact", 3)); // sorted by name
+        assertEquals(Collections.singletonList(550L), index.search("550@", 10));
+        assertEquals(Collections.emptyList(), index.search("551", 10));
+    }
+}
@@ -20,6 +20,7 @@ export type ErrorCode =
     '_ABORTED'
     // Type: UNKNOWN
     | 'SERVER_EXCEPTION'
+    | 'SERVICE_UNAVAILABLE'
     // Type: CLIENT
     | 'BAD_REQUEST'
     | 'VALIDATION_FAILED'
@@ -15,6 +15,9 @@ print_usage() {
   echo "${green} docker logs${reset}           Print development containers logs"
   echo "${green} db-migration <desc>${reset}   Print database migration filename"
   echo "${green} db-seed${reset}               Seed the database with tests data"
+  echo "${green} db-bench${reset}              Seed the database with 1M transactions and benchmark queries"
+  echo "${green} api-bench${reset}             Benchmark the batch transactions endpoint of a running server"
+  echo "${green} jmh [args]${reset}            Build and run the JMH micro-benchmarks (args are passed to JMH)"
   echo "${green} docs generate${reset}         Generate docs"
   echo "${green} docs publish${reset}          Publish docs"
 }
@@ -38,6 +41,19 @@ db_seed() {
   ./.dev/seed-db.sh "$@"
 }
 
+db_bench() {
+  ./.dev/bench-db.sh "$@"
+}
+
+api_bench() {
+  ./.dev/bench-transfers.sh "$@"
+}
+
+jmh() {
+  mvn -B -P benchmarks package -pl benchmarks -am -DskipTests
+  java -jar benchmarks/target/paymybuddy-benchmarks.jar "$@"
+}
+
 docs() {
   ./.dev/docs.sh "$@"
 }
@@ -60,6 +76,15 @@ db-migration)
 db-seed)
   db_seed "$@"
   ;;
+db-bench)
+  db_bench "$@"
+  ;;
+api-bench)
+  api_bench "$@"
+  ;;
+jmh)
+  jmh "$@"
+  ;;
 docs)
   docs "$@"
   ;;
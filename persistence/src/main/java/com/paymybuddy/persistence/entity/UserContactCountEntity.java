@@ -0,0 +1,24 @@
+package com.paymybuddy.persistence.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity representing the contacts count of a user (users without contacts may have no count).
+ */
+@Entity
+@Table(name = "user_contact_counts")
+@NoArgsConstructor
+@Data
+public class UserContactCountEntity {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "contacts")
+    private Integer contacts;
+}
@@ -7,6 +7,8 @@ import javax.persistence.FetchType;
 import javax.persistence.Id;
 import javax.persistence.IdClass;
 import javax.persistence.JoinColumn;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
 import lombok.AllArgsConstructor;
@@ -19,9 +21,15 @@ import lombok.NoArgsConstructor;
 @Entity
 @Table(name = "user_contacts")
 @IdClass(UserContactEntity.Key.class)
+@NamedEntityGraph(name = UserContactEntity.CONTACT_GRAPH, attributeNodes = @NamedAttributeNode("contact"))
 @NoArgsConstructor
 @Data
 public class UserContactEntity {
+    /**
+     * Entity graph fetching the contact (to map contacts without additional queries).
+     */
+    public static final String CONTACT_GRAPH = "UserContactEntity.contact";
+
     @Id
     @Column(name = "user_id")
     private Long userId;
@@ -38,6 +46,18 @@ public class UserContactEntity {
     @JoinColumn(name = "contact_id", insertable = false, updatable = false)
     private UserEntity contact;
 
+    /**
+     * Copy of the contact name (users cannot be renamed yet, a rename would have to update it).
+     */
+    @Column(name = "name")
+    private String name;
+
+    /**
+     * Copy of the contact email (users cannot change their email yet, such an update would have to update it).
+     */
+    @Column(name = "email")
+    private String email;
+
     @NoArgsConstructor
     @AllArgsConstructor
     @Data
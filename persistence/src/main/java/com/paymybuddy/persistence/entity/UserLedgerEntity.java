@@ -0,0 +1,103 @@
+package com.paymybuddy.persistence.entity;
+
+import com.paymybuddy.api.model.Currency;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedSubgraph;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity representing a user's balance movement (one per user per transaction side, or per bank withdrawal).
+ * <p>
+ * This is a denormalized view of the transactions, allowing to read a user's history in a single index range.
+ */
+@Entity
+@Table(name = "user_ledger")
+@NamedEntityGraph(name = UserLedgerEntity.TRANSACTION_GRAPH,
+        attributeNodes = @NamedAttributeNode(value = "transaction", subgraph = "transaction"),
+        subgraphs = @NamedSubgraph(name = "transaction", attributeNodes = {
+                @NamedAttributeNode("sender"),
+                @NamedAttributeNode("recipient")}))
+@NoArgsConstructor
+@Data
+public class UserLedgerEntity {
+    /**
+     * Entity graph fetching the entry transaction, with its sender and recipient (to map transactions without
+     * additional queries).
+     */
+    public static final String TRANSACTION_GRAPH = "UserLedgerEntity.transaction";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_ledger_seq")
+    @SequenceGenerator(name = "user_ledger_seq", sequenceName = "user_ledger_seq", allocationSize = 50)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "type")
+    @Enumerated(EnumType.STRING)
+    private Type type;
+
+    @Column(name = "transaction_id")
+    private Long transactionId;
+
+    @ManyToOne(targetEntity = TransactionEntity.class, fetch = FetchType.LAZY)
+    @JoinColumn(name = "transaction_id", insertable = false, updatable = false)
+    private TransactionEntity transaction;
+
+    @Column(name = "currency", columnDefinition = "CHAR", length = 3)
+    @Enumerated(EnumType.STRING)
+    private Currency currency;
+
+    /**
+     * Signed amount (negative when the balance is debited).
+     */
+    @Column(name = "amount", precision = 40, scale = 20)
+    private BigDecimal amount;
+
+    /**
+     * Absolute amount (generated by the database).
+     */
+    @Column(name = "abs_amount", precision = 40, scale = 20, insertable = false, updatable = false)
+    private BigDecimal absAmount;
+
+    /**
+     * Fees charged to this user (in addition to the amount).
+     */
+    @Column(name = "fee", precision = 40, scale = 20)
+    private BigDecimal fee;
+
+    @Column(name = "iban")
+    private String iban;
+
+    @Column(name = "date")
+    private ZonedDateTime date;
+
+    public enum Type {
+        /**
+         * Money sent or received through a transaction (see {@link #getTransactionId()}).
+         */
+        TRANSACTION,
+        /**
+         * Money withdrawn to a bank account (see {@link #getIban()}).
+         */
+        BANK_WITHDRAWAL,
+    }
+}
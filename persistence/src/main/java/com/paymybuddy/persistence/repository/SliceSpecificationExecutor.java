@@ -0,0 +1,26 @@
+package com.paymybuddy.persistence.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.lang.Nullable;
+
+/**
+ * Repository fragment to execute {@link Specification}s as {@link Slice}s.
+ * <p>
+ * Unlike {@link org.springframework.data.jpa.repository.JpaSpecificationExecutor#findAll(Specification, Pageable)},
+ * no {@code COUNT} query is performed: a single query is executed, limited to {@code pageSize + 1} rows (the extra row
+ * only tells whether a next slice exists).
+ *
+ * @param <T> entity
+ */
+public interface SliceSpecificationExecutor<T> {
+    /**
+     * Returns a {@link Slice} of entities matching the given {@link Specification}.
+     *
+     * @param spec     can be {@code null}
+     * @param pageable must not be {@code null}
+     * @return never {@code null}
+     */
+    Slice<T> findSlice(@Nullable Specification<T> spec, Pageable pageable);
+}
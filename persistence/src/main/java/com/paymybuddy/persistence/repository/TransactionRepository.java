@@ -7,7 +7,8 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<TransactionEntity, Long>, JpaSpecificationExecutor<TransactionEntity> {
+public interface TransactionRepository extends JpaRepository<TransactionEntity, Long>, JpaSpecificationExecutor<TransactionEntity>,
+        SliceSpecificationExecutor<TransactionEntity> {
     static Specification<TransactionEntity> isSender(long userId) {
         return (root, query, builder) -> builder.equal(root.get("senderId"), userId);
     }
@@ -0,0 +1,22 @@
+package com.paymybuddy.persistence.repository;
+
+import com.paymybuddy.persistence.entity.TransactionEntity;
+import com.paymybuddy.persistence.util.JpaUtil;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Custom implementations of {@link TransactionRepository} methods.
+ */
+public class TransactionRepositoryImpl implements SliceSpecificationExecutor<TransactionEntity> {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<TransactionEntity> findSlice(Specification<TransactionEntity> spec, Pageable pageable) {
+        return JpaUtil.findSlice(entityManager, TransactionEntity.class, spec, pageable);
+    }
+}
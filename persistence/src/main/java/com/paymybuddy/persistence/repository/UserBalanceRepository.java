@@ -2,11 +2,37 @@ package com.paymybuddy.persistence.repository;
 
 import com.paymybuddy.api.model.Currency;
 import com.paymybuddy.persistence.entity.UserBalanceEntity;
+import java.math.BigDecimal;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface UserBalanceRepository extends JpaRepository<UserBalanceEntity, UserBalanceEntity.Key> {
     Optional<UserBalanceEntity> findByUserIdAndCurrency(Long userId, Currency currency);
+
+    /**
+     * Atomically withdraw an amount from a user's balance, only if it covers it (without locking it beforehand).
+     * <p>
+     * Note: The balance entity (if loaded in the persistence context) is not refreshed.
+     *
+     * @return the number of updated balances (ie. 0 if the balance does not exist or does not cover the amount)
+     */
+    @Modifying
+    @Query("UPDATE UserBalanceEntity b SET b.amount = b.amount - :amount"
+            + " WHERE b.userId = :userId AND b.currency = :currency AND b.amount >= :amount")
+    int debit(@Param("userId") long userId, @Param("currency") Currency currency, @Param("amount") BigDecimal amount);
+
+    /**
+     * Atomically add an amount to a user's balance (creating it if needed), without locking it beforehand.
+     * <p>
+     * Note: The balance entity (if loaded in the persistence context) is not refreshed.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_balances(user_id, currency, amount) VALUES (:userId, :#{#currency.name()}, :amount)"
+            + " ON DUPLICATE KEY UPDATE amount = amount + VALUES(amount)", nativeQuery = true)
+    void credit(@Param("userId") long userId, @Param("currency") Currency currency, @Param("amount") BigDecimal amount);
 }
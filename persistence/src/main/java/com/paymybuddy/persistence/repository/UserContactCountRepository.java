@@ -0,0 +1,37 @@
+package com.paymybuddy.persistence.repository;
+
+import com.paymybuddy.persistence.entity.UserContactCountEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserContactCountRepository extends JpaRepository<UserContactCountEntity, Long> {
+    /**
+     * Returns the contacts count of a user.
+     */
+    default int getContacts(long userId) {
+        return findById(userId).map(UserContactCountEntity::getContacts).orElse(0);
+    }
+
+    /**
+     * Atomically increment the contacts count of a user (creating it if needed).
+     * <p>
+     * Note: The count entity (if loaded in the persistence context) is not refreshed.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_contact_counts(user_id, contacts) VALUES (:userId, 1)"
+            + " ON DUPLICATE KEY UPDATE contacts = contacts + 1", nativeQuery = true)
+    void increment(@Param("userId") long userId);
+
+    /**
+     * Atomically decrement the contacts count of a user.
+     * <p>
+     * Note: The count entity (if loaded in the persistence context) is not refreshed.
+     */
+    @Modifying
+    @Query("UPDATE UserContactCountEntity c SET c.contacts = c.contacts - 1 WHERE c.userId = :userId AND c.contacts > 0")
+    void decrement(@Param("userId") long userId);
+}
@@ -2,22 +2,64 @@ package com.paymybuddy.persistence.repository;
 
 import com.paymybuddy.persistence.entity.UserContactEntity;
 import com.paymybuddy.persistence.entity.UserEntity;
+import java.util.Collection;
 import java.util.List;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 @SuppressWarnings("SpringDataRepositoryMethodReturnTypeInspection")
-public interface UserContactRepository extends JpaRepository<UserContactEntity, UserContactEntity.Key> {
+public interface UserContactRepository extends JpaRepository<UserContactEntity, UserContactEntity.Key>, SliceSpecificationExecutor<UserContactEntity>,
+        UserContactRepositoryCustom {
+    static Specification<UserContactEntity> isUserContact(long userId) {
+        return (root, query, builder) -> builder.equal(root.get("userId"), userId);
+    }
+
     long countByUserId(long userId);
 
+    long countByUserIdAndContactIdIn(long userId, Collection<Long> contactIds);
+
+    /**
+     * Returns a {@link Slice} of a user's contacts (without counting them, see {@link UserContactCountRepository}).
+     * <p>
+     * The sort properties are the contact entries ones (ie. "name" and "email" copies), which are indexed per user.
+     */
     @Query("SELECT c.contact FROM UserContactEntity AS c WHERE c.userId = :userId")
-    Page<UserEntity> findContactByUserId(@Param("userId") long userId, Pageable pageable);
+    Slice<UserEntity> findContactByUserId(@Param("userId") long userId, Pageable pageable);
+
+    /**
+     * Add a contact (along with a copy of its name and email), if not already added.
+     *
+     * @return the number of added contacts (ie. 0 if the contact was already added)
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO user_contacts(user_id, contact_id, name, email)"
+            + " SELECT :userId, u.id, u.name, u.email FROM users u WHERE u.id = :contactId", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") long userId, @Param("contactId") long contactId);
+
+    /**
+     * Remove a contact.
+     *
+     * @return the number of removed contacts (ie. 0 if the contact was already removed)
+     */
+    @Modifying
+    @Query("DELETE FROM UserContactEntity c WHERE c.userId = :userId AND c.contactId = :contactId")
+    int deleteContact(@Param("userId") long userId, @Param("contactId") long contactId);
+
+    /**
+     * Returns all the contact entries of a user (with their name and email copies, without joining the contacts).
+     */
+    List<UserContactEntity> findByUserId(long userId);
 
-    @Query("SELECT c.contact FROM UserContactEntity AS c WHERE c.userId = :userId AND (c.contact.name LIKE :input OR c.contact.email LIKE :input)")
-    List<UserEntity> searchContact(@Param("userId") long userId, @Param("input") String input, Pageable pageable);
+    /**
+     * Returns some of a user's contacts (the IDs which are not in the user's contacts are ignored).
+     */
+    @Query("SELECT c.contact FROM UserContactEntity AS c WHERE c.userId = :userId AND c.contactId IN :contactIds")
+    List<UserEntity> findContactByUserIdAndContactIdIn(@Param("userId") long userId, @Param("contactIds") Collection<Long> contactIds);
 }
@@ -0,0 +1,22 @@
+package com.paymybuddy.persistence.repository;
+
+import com.paymybuddy.persistence.entity.UserContactEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.lang.Nullable;
+
+/**
+ * Custom {@link UserContactRepository} methods.
+ */
+public interface UserContactRepositoryCustom {
+    /**
+     * Returns a {@link Slice} of contact entries, with their contact fetched in the same query (see
+     * {@link UserContactEntity#CONTACT_GRAPH}).
+     *
+     * @param spec     can be {@code null}
+     * @param pageable must not be {@code null}
+     * @return never {@code null}
+     */
+    Slice<UserContactEntity> findContactsSlice(@Nullable Specification<UserContactEntity> spec, Pageable pageable);
+}
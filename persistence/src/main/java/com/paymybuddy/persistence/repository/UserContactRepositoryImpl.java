@@ -0,0 +1,27 @@
+package com.paymybuddy.persistence.repository;
+
+import com.paymybuddy.persistence.entity.UserContactEntity;
+import com.paymybuddy.persistence.util.JpaUtil;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Custom implementations of {@link UserContactRepository} methods.
+ */
+public class UserContactRepositoryImpl implements SliceSpecificationExecutor<UserContactEntity>, UserContactRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<UserContactEntity> findSlice(Specification<UserContactEntity> spec, Pageable pageable) {
+        return JpaUtil.findSlice(entityManager, UserContactEntity.class, spec, pageable);
+    }
+
+    @Override
+    public Slice<UserContactEntity> findContactsSlice(Specification<UserContactEntity> spec, Pageable pageable) {
+        return JpaUtil.findSlice(entityManager, UserContactEntity.class, spec, pageable, UserContactEntity.CONTACT_GRAPH);
+    }
+}
@@ -0,0 +1,16 @@
+package com.paymybuddy.persistence.repository;
+
+import com.paymybuddy.persistence.entity.UserLedgerEntity;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserLedgerRepository extends JpaRepository<UserLedgerEntity, Long>, SliceSpecificationExecutor<UserLedgerEntity>,
+        UserLedgerRepositoryCustom {
+    static Specification<UserLedgerEntity> isUserTransaction(long userId) {
+        return (root, query, builder) -> builder.and(
+                builder.equal(root.get("userId"), userId),
+                builder.isNotNull(root.get("transactionId")));
+    }
+}
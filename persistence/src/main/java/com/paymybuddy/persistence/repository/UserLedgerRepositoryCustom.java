@@ -0,0 +1,22 @@
+package com.paymybuddy.persistence.repository;
+
+import com.paymybuddy.persistence.entity.UserLedgerEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.lang.Nullable;
+
+/**
+ * Custom {@link UserLedgerRepository} methods.
+ */
+public interface UserLedgerRepositoryCustom {
+    /**
+     * Returns a {@link Slice} of ledger entries, with their transaction, sender and recipient fetched in the same
+     * query (see {@link UserLedgerEntity#TRANSACTION_GRAPH}).
+     *
+     * @param spec     can be {@code null}
+     * @param pageable must not be {@code null}
+     * @return never {@code null}
+     */
+    Slice<UserLedgerEntity> findTransactionsSlice(@Nullable Specification<UserLedgerEntity> spec, Pageable pageable);
+}
@@ -0,0 +1,27 @@
+package com.paymybuddy.persistence.repository;
+
+import com.paymybuddy.persistence.entity.UserLedgerEntity;
+import com.paymybuddy.persistence.util.JpaUtil;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Custom implementations of {@link UserLedgerRepository} methods.
+ */
+public class UserLedgerRepositoryImpl implements SliceSpecificationExecutor<UserLedgerEntity>, UserLedgerRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<UserLedgerEntity> findSlice(Specification<UserLedgerEntity> spec, Pageable pageable) {
+        return JpaUtil.findSlice(entityManager, UserLedgerEntity.class, spec, pageable);
+    }
+
+    @Override
+    public Slice<UserLedgerEntity> findTransactionsSlice(Specification<UserLedgerEntity> spec, Pageable pageable) {
+        return JpaUtil.findSlice(entityManager, UserLedgerEntity.class, spec, pageable, UserLedgerEntity.TRANSACTION_GRAPH);
+    }
+}
@@ -1,9 +1,24 @@
 package com.paymybuddy.persistence.util;
 
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
 import lombok.experimental.UtilityClass;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.lang.Nullable;
 
 @UtilityClass
 public class JpaUtil {
+    private static final String FETCH_GRAPH_HINT = "javax.persistence.fetchgraph";
+
     /**
      * Escape a user input to be used safely as JPA/SQL LIKE parameter.
      *
@@ -13,4 +28,66 @@ public class JpaUtil {
     public static String escapeLikeParam(String param) {
         return param.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
+
+    /**
+     * Execute a {@link Specification} and returns the matching entities as a {@link Slice}.
+     * <p>
+     * Only one query is executed (no {@code COUNT} query), fetching one more row than the page size to determine if
+     * there is a next slice.
+     *
+     * @param entityManager entity manager to use
+     * @param domainClass   entity class
+     * @param spec          specification to execute (can be {@code null})
+     * @param pageable      page to fetch
+     * @return the slice
+     */
+    public static <T> Slice<T> findSlice(EntityManager entityManager, Class<T> domainClass, @Nullable Specification<T> spec, Pageable pageable) {
+        return findSlice(entityManager, domainClass, spec, pageable, null);
+    }
+
+    /**
+     * Execute a {@link Specification} and returns the matching entities as a {@link Slice}, fetching their associations
+     * described by an entity graph in the same query.
+     * <p>
+     * The graph must only contain to-one associations: collections fetched along with a limited query are paginated
+     * in memory by Hibernate.
+     *
+     * @param entityManager   entity manager to use
+     * @param domainClass     entity class
+     * @param spec            specification to execute (can be {@code null})
+     * @param pageable        page to fetch
+     * @param entityGraphName name of the entity graph to fetch (can be {@code null})
+     * @return the slice
+     * @see #findSlice(EntityManager, Class, Specification, Pageable)
+     */
+    public static <T> Slice<T> findSlice(EntityManager entityManager, Class<T> domainClass, @Nullable Specification<T> spec, Pageable pageable,
+            @Nullable String entityGraphName) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = builder.createQuery(domainClass);
+        Root<T> root = query.from(domainClass);
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, builder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.select(root);
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+        }
+
+        TypedQuery<T> typedQuery = entityManager.createQuery(query);
+        if (entityGraphName != null) {
+            typedQuery.setHint(FETCH_GRAPH_HINT, entityManager.getEntityGraph(entityGraphName));
+        }
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(typedQuery.getResultList(), pageable, false);
+        }
+        int pageSize = pageable.getPageSize();
+        typedQuery.setFirstResult(Math.toIntExact(pageable.getOffset()));
+        typedQuery.setMaxResults(pageSize + 1);
+        List<T> content = typedQuery.getResultList();
+        boolean hasNext = content.size() > pageSize;
+        return new SliceImpl<>(hasNext ? content.subList(0, pageSize) : content, pageable, hasNext);
+    }
 }
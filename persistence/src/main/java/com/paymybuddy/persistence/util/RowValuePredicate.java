@@ -0,0 +1,85 @@
+package com.paymybuddy.persistence.util;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import org.hibernate.query.criteria.internal.CriteriaBuilderImpl;
+import org.hibernate.query.criteria.internal.ParameterContainer;
+import org.hibernate.query.criteria.internal.ParameterRegistry;
+import org.hibernate.query.criteria.internal.Renderable;
+import org.hibernate.query.criteria.internal.compile.RenderingContext;
+import org.hibernate.query.criteria.internal.predicate.AbstractSimplePredicate;
+import org.hibernate.query.criteria.internal.predicate.ComparisonPredicate.ComparisonOperator;
+
+/**
+ * A row-value (tuple) comparison predicate, eg. {@code (amount, id) > (?, ?)}.
+ * <p>
+ * The JPA criteria API does not support row-value constructors, but the Hibernate query language does (if the dialect
+ * supports it, which is the case of MySQL/MariaDB). Unlike the equivalent chain of {@code OR}'ed comparisons, a
+ * row-value comparison can be resolved by the database as a single index range.
+ * <p>
+ * Note: Columns must not be nullable (row-value comparisons involving {@code NULL} are always unknown).
+ */
+public class RowValuePredicate extends AbstractSimplePredicate implements Serializable {
+    public static Predicate greaterThan(CriteriaBuilder builder, List<? extends Expression<?>> x, List<?> y) {
+        return new RowValuePredicate(builder, ComparisonOperator.GREATER_THAN, x, y);
+    }
+
+    public static Predicate greaterThanOrEqualTo(CriteriaBuilder builder, List<? extends Expression<?>> x, List<?> y) {
+        return new RowValuePredicate(builder, ComparisonOperator.GREATER_THAN_OR_EQUAL, x, y);
+    }
+
+    public static Predicate lessThan(CriteriaBuilder builder, List<? extends Expression<?>> x, List<?> y) {
+        return new RowValuePredicate(builder, ComparisonOperator.LESS_THAN, x, y);
+    }
+
+    public static Predicate lessThanOrEqualTo(CriteriaBuilder builder, List<? extends Expression<?>> x, List<?> y) {
+        return new RowValuePredicate(builder, ComparisonOperator.LESS_THAN_OR_EQUAL, x, y);
+    }
+
+    private final ComparisonOperator comparisonOperator;
+    private final List<Expression<?>> leftHandOperands;
+    private final List<Expression<?>> rightHandOperands;
+
+    private RowValuePredicate(CriteriaBuilder builder, ComparisonOperator comparisonOperator, List<? extends Expression<?>> x, List<?> y) {
+        super((CriteriaBuilderImpl) builder);
+        if (x.isEmpty() || x.size() != y.size()) {
+            throw new IllegalArgumentException("row-values must be non-empty and have the same size");
+        }
+        this.comparisonOperator = comparisonOperator;
+        this.leftHandOperands = Collections.unmodifiableList(new ArrayList<>(x));
+        List<Expression<?>> rightHandOperands = new ArrayList<>(y.size());
+        for (Object value : y) {
+            rightHandOperands.add(builder.literal(value));
+        }
+        this.rightHandOperands = Collections.unmodifiableList(rightHandOperands);
+    }
+
+    public ComparisonOperator getComparisonOperator(boolean isNegated) {
+        return isNegated ? comparisonOperator.negated() : comparisonOperator;
+    }
+
+    @Override
+    public void registerParameters(ParameterRegistry registry) {
+        leftHandOperands.forEach(operand -> ParameterContainer.Helper.possibleParameter(operand, registry));
+        rightHandOperands.forEach(operand -> ParameterContainer.Helper.possibleParameter(operand, registry));
+    }
+
+    @Override
+    public String render(boolean isNegated, RenderingContext renderingContext) {
+        return render(leftHandOperands, renderingContext)
+                + getComparisonOperator(isNegated).rendered()
+                + render(rightHandOperands, renderingContext);
+    }
+
+    private static String render(List<Expression<?>> operands, RenderingContext renderingContext) {
+        return operands.stream()
+                .map(operand -> ((Renderable) operand).render(renderingContext))
+                .collect(Collectors.joining(", ", "(", ")"));
+    }
+}
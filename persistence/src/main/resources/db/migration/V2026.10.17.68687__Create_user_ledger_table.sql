@@ -0,0 +1,27 @@
+CREATE TABLE `user_ledger` (
+  `id` BIGINT(20) UNSIGNED NOT NULL AUTO_INCREMENT,
+  `user_id` BIGINT(20) UNSIGNED NOT NULL,
+  `type` VARCHAR(32) CHARACTER SET ascii COLLATE ascii_bin NOT NULL,
+  `transaction_id` BIGINT(20) UNSIGNED NULL DEFAULT NULL,
+  `currency` CHAR(3) CHARACTER SET ascii COLLATE ascii_bin NOT NULL,
+  `amount` DECIMAL(40, 20) NOT NULL DEFAULT 0,
+  `abs_amount` DECIMAL(40, 20) AS (ABS(`amount`)) PERSISTENT,
+  `fee` DECIMAL(40, 20) NOT NULL DEFAULT 0,
+  `iban` VARCHAR(34) CHARACTER SET ascii COLLATE ascii_bin NULL DEFAULT NULL,
+  `date` DATETIME NOT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE INDEX `user_id_transaction_id` (`user_id`, `transaction_id`),
+  INDEX `user_id_amount` (`user_id`, `abs_amount`, `transaction_id`),
+  INDEX `transaction_id` (`transaction_id`),
+  CONSTRAINT `fk__user_ledger__users` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE CASCADE ON UPDATE CASCADE,
+  CONSTRAINT `fk__user_ledger__transactions` FOREIGN KEY (`transaction_id`) REFERENCES `transactions` (`id`) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 ROW_FORMAT = COMPACT;
+
+INSERT INTO `user_ledger`(`user_id`, `type`, `transaction_id`, `currency`, `amount`, `fee`, `date`)
+SELECT `user_id`, 'TRANSACTION', `transaction_id`, `currency`, `amount`, `fee`, `date`
+FROM (SELECT `id` AS `transaction_id`, `sender_id` AS `user_id`, `currency`, -`amount` AS `amount`, `fee`, `date`
+      FROM `transactions`
+      UNION ALL
+      SELECT `id` AS `transaction_id`, `recipient_id` AS `user_id`, `currency`, `amount`, 0 AS `fee`, `date`
+      FROM `transactions`) AS `t`
+ORDER BY `transaction_id`, `amount`;
@@ -0,0 +1,22 @@
+-- The identifiers are generated by Hibernate from pooled sequences (allocation size: 50) so that inserts can be batched.
+-- A sequence value is the upper bound of a pool (eg. 100 is the pool 51-100), so the sequences start at MAX(id) + 50.
+-- The columns default to the next sequence value: manual inserts consume a whole pool, and never collide with Hibernate.
+
+SET @start = (SELECT COALESCE(MAX(`id`), 0) + 50 FROM `transactions`);
+SET @query = CONCAT('CREATE SEQUENCE `transactions_seq` START WITH ', @start, ' INCREMENT BY 50');
+PREPARE statement FROM @query;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+SET @start = (SELECT COALESCE(MAX(`id`), 0) + 50 FROM `user_ledger`);
+SET @query = CONCAT('CREATE SEQUENCE `user_ledger_seq` START WITH ', @start, ' INCREMENT BY 50');
+PREPARE statement FROM @query;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+SET FOREIGN_KEY_CHECKS = 0;
+ALTER TABLE `transactions`
+  MODIFY `id` BIGINT(20) UNSIGNED NOT NULL DEFAULT NEXT VALUE FOR `transactions_seq`;
+ALTER TABLE `user_ledger`
+  MODIFY `id` BIGINT(20) UNSIGNED NOT NULL DEFAULT NEXT VALUE FOR `user_ledger_seq`;
+SET FOREIGN_KEY_CHECKS = 1;
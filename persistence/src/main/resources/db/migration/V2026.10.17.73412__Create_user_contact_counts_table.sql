@@ -0,0 +1,14 @@
+-- Contacts count of each user (maintained when adding/removing contacts, to avoid counting them on each page).
+-- It is kept apart from the `users` table: adding a contact locks the user rows in share mode (foreign keys checks),
+-- so updating a counter in `users` would deadlock when two users add each other at the same time.
+CREATE TABLE `user_contact_counts` (
+  `user_id` BIGINT(20) UNSIGNED NOT NULL,
+  `contacts` INT(10) UNSIGNED NOT NULL DEFAULT 0,
+  PRIMARY KEY (`user_id`),
+  CONSTRAINT `fk__user_contact_counts__users` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 ROW_FORMAT = COMPACT;
+
+INSERT INTO `user_contact_counts`(`user_id`, `contacts`)
+SELECT `user_id`, COUNT(*)
+FROM `user_contacts`
+GROUP BY `user_id`;
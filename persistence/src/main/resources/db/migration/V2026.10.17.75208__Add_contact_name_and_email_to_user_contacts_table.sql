@@ -0,0 +1,19 @@
+-- Copy of the contacts names and emails, so that a user's contacts can be listed in name/email order by index range
+-- scans (instead of sorting the whole contacts set after joining the users table).
+-- Users cannot be renamed (nor change their email) yet: such an update will have to update the copies too (and to
+-- invalidate the cached users and the contacts search indexes holding them).
+ALTER TABLE `user_contacts`
+  ADD COLUMN `name` VARCHAR(255) CHARACTER SET utf8 COLLATE utf8_unicode_ci NOT NULL DEFAULT '' AFTER `contact_id`,
+  ADD COLUMN `email` VARCHAR(255) CHARACTER SET utf8 COLLATE utf8_unicode_ci NOT NULL DEFAULT '' AFTER `name`;
+
+UPDATE `user_contacts` AS `c`
+INNER JOIN `users` AS `u` ON `u`.`id` = `c`.`contact_id`
+SET `c`.`name` = `u`.`name`,
+    `c`.`email` = `u`.`email`;
+
+ALTER TABLE `user_contacts`
+  ALTER COLUMN `name` DROP DEFAULT,
+  ALTER COLUMN `email` DROP DEFAULT,
+  DROP INDEX `user_id`,
+  ADD INDEX `user_id_name` (`user_id`, `name`, `contact_id`),
+  ADD INDEX `user_id_email` (`user_id`, `email`, `contact_id`);
@@ -0,0 +1,10 @@
+package com.paymybuddy.persistence;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Spring Boot configuration of the persistence tests (entities and repositories are scanned from this package).
+ */
+@SpringBootApplication
+public class TestPersistenceApplication {
+}
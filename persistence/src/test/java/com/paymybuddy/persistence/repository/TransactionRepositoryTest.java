@@ -0,0 +1,146 @@
+package com.paymybuddy.persistence.repository;
+
+import com.paymybuddy.api.model.Currency;
+import com.paymybuddy.persistence.entity.TransactionEntity;
+import com.paymybuddy.persistence.entity.UserEntity;
+import com.paymybuddy.persistence.util.RowValuePredicate;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import static com.paymybuddy.persistence.repository.TransactionRepository.isSender;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+})
+class TransactionRepositoryTest {
+    private static final int TRANSACTIONS = 30;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private UserEntity sender;
+    private List<TransactionEntity> transactions;
+
+    @BeforeEach
+    void setup() {
+        sender = newUser("sender");
+        UserEntity recipient = newUser("recipient");
+
+        // Amounts are repeated, only the (amount, id) pair is unique
+        transactions = new ArrayList<>();
+        for (int i = 0; i < TRANSACTIONS; ++i) {
+            TransactionEntity transaction = new TransactionEntity();
+            transaction.setSenderId(sender.getId());
+            transaction.setRecipientId(recipient.getId());
+            transaction.setCurrency(Currency.USD);
+            transaction.setAmount(BigDecimal.valueOf(i % 7));
+            transaction.setFee(BigDecimal.ZERO);
+            transaction.setDescription("");
+            transaction.setDate(ZonedDateTime.now());
+            entityManager.persist(transaction);
+            transactions.add(transaction);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private UserEntity newUser(String name) {
+        UserEntity user = new UserEntity();
+        user.setEmail(name + "@domain.tld");
+        user.setName(name);
+        user.setEncodedPassword("");
+        user.setDefaultCurrency(Currency.USD);
+        return entityManager.persist(user);
+    }
+
+    @Test
+    void findSliceUsesASingleStatement() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Long> ids = transactions.stream().map(TransactionEntity::getId).sorted().collect(Collectors.toList());
+        for (int pageSize : new int[]{1, 10, TRANSACTIONS, TRANSACTIONS + 1}) {
+            for (int page : new int[]{0, 1}) {
+                entityManager.clear();
+                statistics.clear();
+
+                Slice<TransactionEntity> slice = transactionRepository.findSlice(isSender(sender.getId()),
+                        PageRequest.of(page, pageSize, Sort.by("id")));
+                int from = Math.min(page * pageSize, TRANSACTIONS);
+                int to = Math.min(from + pageSize, TRANSACTIONS);
+                assertEquals(ids.subList(from, to), slice.getContent().stream().map(TransactionEntity::getId).collect(Collectors.toList()));
+                assertEquals(to < TRANSACTIONS, slice.hasNext());
+
+                // The next slice is detected by fetching one more row, there is no COUNT query
+                String message = "page " + page + " of " + pageSize;
+                assertEquals(1, statistics.getPrepareStatementCount(), "statements for " + message);
+                assertFalse(Arrays.stream(statistics.getQueries()).anyMatch(query -> query.toLowerCase().contains("count(")), "count for " + message);
+            }
+        }
+    }
+
+    @Test
+    void findSliceAfterRowValue() {
+        Comparator<TransactionEntity> order = Comparator.comparing(TransactionEntity::getAmount).thenComparing(TransactionEntity::getId);
+        List<Long> expectedIds = transactions.stream().sorted(order).map(TransactionEntity::getId).collect(Collectors.toList());
+        assertEquals(expectedIds, fetchAllByRowValue(Sort.Direction.ASC));
+    }
+
+    @Test
+    void findSliceBeforeRowValue() {
+        Comparator<TransactionEntity> order = Comparator.comparing(TransactionEntity::getAmount).thenComparing(TransactionEntity::getId).reversed();
+        List<Long> expectedIds = transactions.stream().sorted(order).map(TransactionEntity::getId).collect(Collectors.toList());
+        assertEquals(expectedIds, fetchAllByRowValue(Sort.Direction.DESC));
+    }
+
+    /**
+     * Fetch all the sender transactions, slice by slice, each slice starting after the {@code (amount, id)} of the last
+     * transaction of the previous one.
+     */
+    private List<Long> fetchAllByRowValue(Sort.Direction direction) {
+        Sort sort = Sort.by(direction, "amount", "id");
+        List<Long> ids = new ArrayList<>();
+        TransactionEntity last = null;
+        for (int slices = 0; ; ++slices) {
+            assertTrue(slices <= TRANSACTIONS / 4, "too many slices");
+            Specification<TransactionEntity> spec = isSender(sender.getId());
+            if (last != null) {
+                List<Object> cursor = Arrays.asList(last.getAmount(), last.getId());
+                spec = spec.and((root, query, builder) -> direction.isAscending()
+                        ? RowValuePredicate.greaterThan(builder, Arrays.asList(root.get("amount"), root.get("id")), cursor)
+                        : RowValuePredicate.lessThan(builder, Arrays.asList(root.get("amount"), root.get("id")), cursor));
+            }
+            Slice<TransactionEntity> slice = transactionRepository.findSlice(spec, PageRequest.of(0, 4, sort));
+            slice.forEach(transaction -> ids.add(transaction.getId()));
+            if (!slice.hasNext()) {
+                return ids;
+            }
+            last = slice.getContent().get(slice.getNumberOfElements() - 1);
+        }
+    }
+}
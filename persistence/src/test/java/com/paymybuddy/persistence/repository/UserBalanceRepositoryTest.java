@@ -0,0 +1,94 @@
+package com.paymybuddy.persistence.repository;
+
+import com.paymybuddy.api.model.Currency;
+import com.paymybuddy.persistence.entity.UserBalanceEntity;
+import com.paymybuddy.persistence.entity.UserEntity;
+import java.math.BigDecimal;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * The balances are updated with MySQL statements ({@code ON DUPLICATE KEY UPDATE}): the in-memory database runs in
+ * MySQL mode.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:user_balances;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class UserBalanceRepositoryTest {
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserBalanceRepository userBalanceRepository;
+
+    private UserEntity user;
+
+    @BeforeEach
+    void setup() {
+        user = new UserEntity();
+        user.setEmail("user@domain.tld");
+        user.setName("User");
+        user.setEncodedPassword("");
+        user.setDefaultCurrency(Currency.USD);
+        entityManager.persistAndFlush(user);
+    }
+
+    private Optional<BigDecimal> getBalance(Currency currency) {
+        entityManager.clear();
+        return userBalanceRepository.findByUserIdAndCurrency(user.getId(), currency).map(UserBalanceEntity::getAmount);
+    }
+
+    private static void assertAmountEquals(String expected, Optional<BigDecimal> actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual.orElseThrow(AssertionError::new)), expected + " != " + actual);
+    }
+
+    @Test
+    void credit() {
+        // the first credit creates the balance
+        userBalanceRepository.credit(user.getId(), Currency.USD, new BigDecimal("10.50"));
+        assertAmountEquals("10.50", getBalance(Currency.USD));
+
+        // the next ones add to it
+        userBalanceRepository.credit(user.getId(), Currency.USD, new BigDecimal("2.25"));
+        assertAmountEquals("12.75", getBalance(Currency.USD));
+
+        // other currencies are separate balances
+        userBalanceRepository.credit(user.getId(), Currency.EUR, new BigDecimal("1"));
+        assertAmountEquals("1", getBalance(Currency.EUR));
+        assertAmountEquals("12.75", getBalance(Currency.USD));
+    }
+
+    @Test
+    void debit() {
+        userBalanceRepository.credit(user.getId(), Currency.USD, new BigDecimal("10"));
+
+        assertEquals(1, userBalanceRepository.debit(user.getId(), Currency.USD, new BigDecimal("4")));
+        assertAmountEquals("6", getBalance(Currency.USD));
+
+        // the whole balance can be withdrawn
+        assertEquals(1, userBalanceRepository.debit(user.getId(), Currency.USD, new BigDecimal("6")));
+        assertAmountEquals("0", getBalance(Currency.USD));
+    }
+
+    @Test
+    void debitInsufficientFunds() {
+        userBalanceRepository.credit(user.getId(), Currency.USD, new BigDecimal("10"));
+
+        assertEquals(0, userBalanceRepository.debit(user.getId(), Currency.USD, new BigDecimal("10.01")));
+        assertAmountEquals("10", getBalance(Currency.USD));
+
+        // no balance in this currency
+        assertEquals(0, userBalanceRepository.debit(user.getId(), Currency.EUR, new BigDecimal("1")));
+        assertFalse(getBalance(Currency.EUR).isPresent());
+    }
+}
@@ -0,0 +1,95 @@
+package com.paymybuddy.persistence.repository;
+
+import com.paymybuddy.api.model.Currency;
+import com.paymybuddy.persistence.entity.UserEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The counts and contacts are inserted with MySQL statements ({@code ON DUPLICATE KEY UPDATE}, {@code INSERT IGNORE}):
+ * the in-memory database runs in MySQL mode.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:user_contact_counts;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class UserContactCountRepositoryTest {
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserContactCountRepository userContactCountRepository;
+
+    @Autowired
+    private UserContactRepository userContactRepository;
+
+    private UserEntity user;
+
+    @BeforeEach
+    void setup() {
+        user = newUser("user@domain.tld", "User");
+    }
+
+    private UserEntity newUser(String email, String name) {
+        UserEntity user = new UserEntity();
+        user.setEmail(email);
+        user.setName(name);
+        user.setEncodedPassword("");
+        user.setDefaultCurrency(Currency.USD);
+        return entityManager.persistAndFlush(user);
+    }
+
+    private int getContacts() {
+        entityManager.clear();
+        return userContactCountRepository.getContacts(user.getId());
+    }
+
+    @Test
+    void increment() {
+        assertEquals(0, getContacts());
+
+        // the first increment creates the count
+        userContactCountRepository.increment(user.getId());
+        assertEquals(1, getContacts());
+
+        // the next ones add to it
+        userContactCountRepository.increment(user.getId());
+        assertEquals(2, getContacts());
+    }
+
+    @Test
+    void decrement() {
+        // no count yet: nothing to decrement
+        userContactCountRepository.decrement(user.getId());
+        assertEquals(0, getContacts());
+
+        userContactCountRepository.increment(user.getId());
+        userContactCountRepository.decrement(user.getId());
+        assertEquals(0, getContacts());
+
+        // never below zero
+        userContactCountRepository.decrement(user.getId());
+        assertEquals(0, getContacts());
+    }
+
+    @Test
+    void duplicateContactIsNotCounted() {
+        UserEntity contact = newUser("contact@domain.tld", "Contact");
+
+        // as done when adding a contact: the count is only incremented if the contact is inserted
+        for (int i = 0; i < 2; ++i) {
+            if (userContactRepository.insertIfAbsent(user.getId(), contact.getId()) != 0) {
+                userContactCountRepository.increment(user.getId());
+            }
+        }
+        assertEquals(1, getContacts());
+        assertEquals(1, userContactRepository.findByUserId(user.getId()).size());
+    }
+}
@@ -0,0 +1,143 @@
+package com.paymybuddy.persistence.repository;
+
+import com.paymybuddy.api.model.Currency;
+import com.paymybuddy.persistence.entity.UserContactEntity;
+import com.paymybuddy.persistence.entity.UserEntity;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import static com.paymybuddy.persistence.repository.UserContactRepository.isUserContact;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The contacts are inserted with MySQL statements ({@code INSERT IGNORE}): the in-memory database runs in MySQL mode.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:user_contacts;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class UserContactRepositoryTest {
+    private static final int CONTACTS = 20;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserContactRepository userContactRepository;
+
+    private UserEntity user;
+
+    @BeforeEach
+    void setup() {
+        user = newUser("user@domain.tld", "User");
+
+        // Contacts are named in the reverse order of their IDs
+        for (int i = 0; i < CONTACTS; ++i) {
+            UserEntity contact = newUser("contact" + i + "@domain.tld", String.format("Contact %02d", CONTACTS - i));
+            UserContactEntity entry = new UserContactEntity();
+            entry.setUserId(user.getId());
+            entry.setContactId(contact.getId());
+            entry.setName(contact.getName());
+            entry.setEmail(contact.getEmail());
+            entityManager.persist(entry);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private UserEntity newUser(String email, String name) {
+        UserEntity user = new UserEntity();
+        user.setEmail(email);
+        user.setName(name);
+        user.setEncodedPassword("");
+        user.setDefaultCurrency(Currency.USD);
+        return entityManager.persist(user);
+    }
+
+    @Test
+    void findContactsSliceByName() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Seek after "Contact 05", on the contact name copy
+        Specification<UserContactEntity> afterName = (root, query, builder) -> builder.greaterThan(root.get("name"), "Contact 05");
+        Slice<UserContactEntity> slice = userContactRepository.findContactsSlice(afterName.and(isUserContact(user.getId())),
+                PageRequest.of(0, 5, Sort.by("name", "contactId")));
+        List<String> names = slice.getContent().stream().map(e -> e.getContact().getName()).collect(Collectors.toList());
+        slice.getContent().forEach(e -> assertEquals(e.getContact().getEmail(), e.getEmail()));
+        assertEquals(names.stream().sorted().collect(Collectors.toList()), names);
+        assertEquals("Contact 06", names.get(0));
+        assertEquals(5, names.size());
+        assertTrue(slice.hasNext());
+
+        // The contacts are read along with the contact entries
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        slice = userContactRepository.findContactsSlice(isUserContact(user.getId()), PageRequest.of(0, CONTACTS));
+        assertEquals(CONTACTS, slice.getNumberOfElements());
+        assertFalse(slice.hasNext());
+    }
+
+    @Test
+    void findContactByUserIdAndContactIdIn() {
+        List<Long> contactIds = userContactRepository.findByUserId(user.getId()).stream()
+                .map(UserContactEntity::getContactId)
+                .collect(Collectors.toList());
+        assertEquals(CONTACTS, contactIds.size());
+
+        // The user himself is not one of his contacts
+        List<UserEntity> contacts = userContactRepository.findContactByUserIdAndContactIdIn(user.getId(),
+                Arrays.asList(contactIds.get(0), contactIds.get(1), user.getId()));
+        assertEquals(2, contacts.size());
+    }
+
+    @Test
+    void insertIfAbsentCopiesNameAndEmail() {
+        UserEntity contact = newUser("contact@domain.tld", "Contact");
+        entityManager.flush();
+
+        assertEquals(1, userContactRepository.insertIfAbsent(user.getId(), contact.getId()));
+        assertEquals(0, userContactRepository.insertIfAbsent(user.getId(), contact.getId()));
+        assertEquals(0, userContactRepository.insertIfAbsent(user.getId(), -1L)); // unknown contact
+        entityManager.clear();
+        assertEquals(Arrays.asList("Contact", "contact@domain.tld"), getContactCopy(user, contact));
+        assertEquals(CONTACTS + 1, userContactRepository.findByUserId(user.getId()).size());
+    }
+
+    private List<String> getContactCopy(UserEntity user, UserEntity contact) {
+        return userContactRepository.findByUserId(user.getId()).stream()
+                .filter(entry -> entry.getContactId().equals(contact.getId()))
+                .map(entry -> Arrays.asList(entry.getName(), entry.getEmail()))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+    }
+
+    @Test
+    void findContactByUserIdSortedByName() {
+        Slice<UserEntity> slice = userContactRepository.findContactByUserId(user.getId(), PageRequest.of(1, 5, Sort.by("name")));
+        List<String> names = slice.getContent().stream().map(UserEntity::getName).collect(Collectors.toList());
+        assertEquals(Arrays.asList("Contact 06", "Contact 07", "Contact 08", "Contact 09", "Contact 10"), names);
+        assertTrue(slice.hasNext());
+    }
+}
@@ -0,0 +1,110 @@
+package com.paymybuddy.persistence.repository;
+
+import com.paymybuddy.api.model.Currency;
+import com.paymybuddy.persistence.entity.TransactionEntity;
+import com.paymybuddy.persistence.entity.UserEntity;
+import com.paymybuddy.persistence.entity.UserLedgerEntity;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.List;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import static com.paymybuddy.persistence.repository.UserLedgerRepository.isUserTransaction;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+})
+class UserLedgerRepositoryTest {
+    private static final int USERS = 10;
+    private static final int TRANSACTIONS = 50;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserLedgerRepository userLedgerRepository;
+
+    private UserEntity user;
+
+    @BeforeEach
+    void setup() {
+        UserEntity[] users = new UserEntity[USERS];
+        for (int i = 0; i < USERS; ++i) {
+            users[i] = new UserEntity();
+            users[i].setEmail("user" + i + "@domain.tld");
+            users[i].setName("User " + i);
+            users[i].setEncodedPassword("");
+            users[i].setDefaultCurrency(Currency.USD);
+            entityManager.persist(users[i]);
+        }
+        user = users[0];
+
+        // Transactions from/to the user, with a different contact each time
+        for (int i = 0; i < TRANSACTIONS; ++i) {
+            UserEntity contact = users[1 + i % (USERS - 1)];
+            boolean sent = i % 2 == 0;
+            TransactionEntity transaction = new TransactionEntity();
+            transaction.setSenderId(sent ? user.getId() : contact.getId());
+            transaction.setRecipientId(sent ? contact.getId() : user.getId());
+            transaction.setCurrency(Currency.USD);
+            transaction.setAmount(BigDecimal.ONE);
+            transaction.setFee(BigDecimal.ZERO);
+            transaction.setDescription("");
+            transaction.setDate(ZonedDateTime.now());
+            entityManager.persist(transaction);
+
+            UserLedgerEntity entry = new UserLedgerEntity();
+            entry.setUserId(user.getId());
+            entry.setType(UserLedgerEntity.Type.TRANSACTION);
+            entry.setTransactionId(transaction.getId());
+            entry.setCurrency(Currency.USD);
+            entry.setAmount(sent ? BigDecimal.ONE.negate() : BigDecimal.ONE);
+            entry.setFee(BigDecimal.ZERO);
+            entry.setDate(transaction.getDate());
+            entityManager.persist(entry);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findTransactionsSliceUsesASingleStatement() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (int pageSize : new int[]{1, 20, TRANSACTIONS}) {
+            entityManager.clear();
+            statistics.clear();
+
+            Slice<UserLedgerEntity> slice = userLedgerRepository.findTransactionsSlice(isUserTransaction(user.getId()),
+                    PageRequest.of(0, pageSize, Sort.by("transactionId")));
+            List<UserLedgerEntity> entries = slice.getContent();
+            assertEquals(pageSize, entries.size());
+            assertEquals(pageSize < TRANSACTIONS, slice.hasNext());
+            for (UserLedgerEntity entry : entries) {
+                TransactionEntity transaction = entry.getTransaction();
+                assertNotNull(transaction.getSender().getName());
+                assertNotNull(transaction.getRecipient().getEmail());
+                assertTrue(transaction.getSenderId().equals(user.getId()) || transaction.getRecipientId().equals(user.getId()));
+            }
+
+            // The transactions, senders and recipients are read along with the ledger entries
+            assertEquals(1, statistics.getPrepareStatementCount(), "statements for a page of " + pageSize);
+        }
+    }
+}
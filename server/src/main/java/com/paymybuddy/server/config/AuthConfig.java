@@ -0,0 +1,61 @@
+package com.paymybuddy.server.config;
+
+import com.google.common.io.BaseEncoding;
+import com.paymybuddy.auth.AuthTokenCodec;
+import com.paymybuddy.auth.CachingUserProvider;
+import com.paymybuddy.auth.InvalidationBus;
+import com.paymybuddy.auth.PasswordUpgrader;
+import com.paymybuddy.auth.provider.UserProvider;
+import com.paymybuddy.business.UserService;
+import com.paymybuddy.server.properties.AuthProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+@Configuration
+public class AuthConfig {
+    private final AuthProperties authProperties;
+    private final MeterRegistry meterRegistry;
+
+    @Bean
+    public AuthTokenCodec getAuthTokenCodec() {
+        String currentKeyId = null;
+        Map<String, byte[]> keys = new LinkedHashMap<>();
+        for (String tokenKey : authProperties.getTokenKeys()) {
+            int sep = tokenKey.indexOf(':');
+            if (sep == -1) {
+                throw new IllegalArgumentException("Invalid auth token key (expected <keyId>:<base64 secret>)");
+            }
+            String keyId = tokenKey.substring(0, sep);
+            if (currentKeyId == null) {
+                currentKeyId = keyId;
+            }
+            if (keys.put(keyId, BaseEncoding.base64().decode(tokenKey.substring(sep + 1))) != null) {
+                throw new IllegalArgumentException("Duplicate auth token key: " + keyId);
+            }
+        }
+        return new AuthTokenCodec(currentKeyId, keys, authProperties.getUnsignedTokensUntil(), meterRegistry);
+    }
+
+    @Bean(destroyMethod = "stop")
+    public PasswordUpgrader getPasswordUpgrader(UserProvider userProvider, PasswordEncoder passwordEncoder) {
+        return new PasswordUpgrader(userProvider, passwordEncoder, authProperties.getPasswordUpgradeRate(), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public UserProvider getUserProvider(UserService userService, InvalidationBus invalidationBus) {
+        long userCacheSize = authProperties.getUserCacheSize();
+        if (userCacheSize == 0) {
+            return userService;
+        }
+        return new CachingUserProvider(userService, userCacheSize, authProperties.getUserCacheTtl(), invalidationBus, meterRegistry);
+    }
+}
@@ -0,0 +1,23 @@
+package com.paymybuddy.server.config;
+
+import com.paymybuddy.auth.InvalidationBus;
+import com.paymybuddy.business.search.ContactSearchEngine;
+import com.paymybuddy.server.properties.ContactSearchProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+@Configuration
+public class ContactSearchConfig {
+    private final ContactSearchProperties contactSearchProperties;
+    private final MeterRegistry meterRegistry;
+
+    @Bean
+    public ContactSearchEngine getContactSearchEngine(InvalidationBus invalidationBus) {
+        return new ContactSearchEngine(contactSearchProperties.getIndexedContacts(), contactSearchProperties.getIndexTtl(),
+                invalidationBus, meterRegistry);
+    }
+}
@@ -1,19 +1,70 @@
 package com.paymybuddy.server.config;
 
+import com.paymybuddy.auth.AuthService.AuthGuardData;
+import com.paymybuddy.auth.AuthSessionSweeper;
+import com.paymybuddy.auth.AuthStore;
+import com.paymybuddy.auth.BinaryAuthGuardDataSerializer;
+import com.paymybuddy.auth.CachingAuthStore;
+import com.paymybuddy.auth.InvalidationBus;
+import com.paymybuddy.auth.JsonAuthGuardDataSerializer;
 import com.paymybuddy.auth.LettuceAuthStore;
+import com.paymybuddy.auth.RedisInvalidationBus;
+import com.paymybuddy.server.properties.AuthProperties;
+import com.paymybuddy.server.properties.AuthProperties.SessionFormat;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 @Configuration
+@ConditionalOnProperty(prefix = "paymybuddy.auth", name = "sessionStore", havingValue = "redis", matchIfMissing = true)
 public class LettuceConfig {
     private final LettuceConnectionFactory lettuceConFactory;
+    private final AuthProperties authProperties;
+    private final MeterRegistry meterRegistry;
+
+    @Bean
+    public RedisMessageListenerContainer getRedisMessageListenerContainer() {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(lettuceConFactory);
+        return container;
+    }
+
+    @Bean
+    public InvalidationBus getInvalidationBus(RedisMessageListenerContainer listenerContainer) {
+        return new RedisInvalidationBus(lettuceConFactory, listenerContainer);
+    }
 
     @Bean
     public LettuceAuthStore getLettuceAuthStore() {
-        return new LettuceAuthStore(lettuceConFactory);
+        RedisSerializer<AuthGuardData> authSerializer;
+        if (authProperties.getSessionFormat() == SessionFormat.JSON) {
+            authSerializer = new JsonAuthGuardDataSerializer();
+        } else {
+            authSerializer = new BinaryAuthGuardDataSerializer();
+        }
+        return new LettuceAuthStore(lettuceConFactory, authSerializer);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public AuthSessionSweeper getAuthSessionSweeper(LettuceAuthStore lettuceAuthStore) {
+        return new AuthSessionSweeper(lettuceAuthStore, authProperties.getSessionSweepBatchSize(), authProperties.getSessionSweepInterval(), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public AuthStore getAuthStore(LettuceAuthStore authStore, InvalidationBus invalidationBus) {
+        long sessionCacheSize = authProperties.getSessionCacheSize();
+        if (sessionCacheSize == 0) {
+            return authStore;
+        }
+        return new CachingAuthStore(authStore, sessionCacheSize, authProperties.getSessionCacheTtl(), invalidationBus, meterRegistry);
     }
 }
@@ -0,0 +1,33 @@
+package com.paymybuddy.server.config;
+
+import com.paymybuddy.auth.InvalidationBus;
+import com.paymybuddy.auth.LocalInvalidationBus;
+import com.paymybuddy.auth.MemoryAuthStore;
+import com.paymybuddy.server.properties.AuthProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.file.Paths;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+@Configuration
+@ConditionalOnProperty(prefix = "paymybuddy.auth", name = "sessionStore", havingValue = "memory")
+public class MemoryAuthStoreConfig {
+    private final AuthProperties authProperties;
+    private final MeterRegistry meterRegistry;
+
+    @Bean
+    public InvalidationBus getInvalidationBus() {
+        return new LocalInvalidationBus();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public MemoryAuthStore getAuthStore() {
+        String snapshotFile = authProperties.getSessionSnapshotFile();
+        return new MemoryAuthStore(StringUtils.hasText(snapshotFile) ? Paths.get(snapshotFile) : null, meterRegistry);
+    }
+}
@@ -0,0 +1,20 @@
+package com.paymybuddy.server.config;
+
+import com.google.common.io.BaseEncoding;
+import com.paymybuddy.business.pageable.CursorCodec;
+import com.paymybuddy.server.properties.PaginationProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+@Configuration
+public class PaginationConfig {
+    private final PaginationProperties paginationProperties;
+
+    @Bean
+    public CursorCodec getCursorCodec() {
+        return new CursorCodec(BaseEncoding.base64().decode(paginationProperties.getCursorKey()));
+    }
+}
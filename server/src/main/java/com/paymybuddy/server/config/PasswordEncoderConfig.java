@@ -1,16 +1,26 @@
 package com.paymybuddy.server.config;
 
+import com.paymybuddy.auth.BoundedPasswordEncoder;
+import com.paymybuddy.server.properties.AuthProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
 @Configuration
 public class PasswordEncoderConfig {
     private static final int BCRYPT_STRENGTH = 10;
 
-    @Bean
+    private final AuthProperties authProperties;
+    private final MeterRegistry meterRegistry;
+
+    @Bean(destroyMethod = "stop")
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(BCryptPasswordEncoder.BCryptVersion.$2B, BCRYPT_STRENGTH);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(BCryptPasswordEncoder.BCryptVersion.$2B, BCRYPT_STRENGTH),
+                authProperties.getPasswordHashingThreads(), authProperties.getPasswordHashingQueueSize(), meterRegistry);
     }
 }
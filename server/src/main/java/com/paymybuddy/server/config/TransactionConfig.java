@@ -0,0 +1,27 @@
+package com.paymybuddy.server.config;
+
+import com.paymybuddy.business.lock.NoopUserLockManager;
+import com.paymybuddy.business.lock.StripedUserLockManager;
+import com.paymybuddy.business.lock.UserLockManager;
+import com.paymybuddy.server.properties.TransactionProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+@Configuration
+public class TransactionConfig {
+    private final TransactionProperties transactionProperties;
+    private final MeterRegistry meterRegistry;
+
+    @Bean
+    public UserLockManager getUserLockManager() {
+        int stripes = transactionProperties.getUserLockStripes();
+        if (stripes == 0) {
+            return new NoopUserLockManager();
+        }
+        return new StripedUserLockManager(stripes, meterRegistry);
+    }
+}
@@ -6,6 +6,7 @@ import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 import com.paymybuddy.api.model.ApiError;
 import com.paymybuddy.api.model.ApiError.ErrorCode;
 import com.paymybuddy.api.model.ApiError.ErrorType;
+import com.paymybuddy.auth.PasswordHashingRejectedException;
 import com.paymybuddy.business.exception.PreconditionException;
 import com.paymybuddy.server.http.util.ApiException;
 import java.io.IOException;
@@ -267,6 +268,23 @@ public class ExceptionController implements AccessDeniedHandler {
         }
     }
 
+    /**
+     * Handles overloaded password hashing.
+     * <p>
+     * Returns a UNKNOWN/SERVICE_UNAVAILABLE error.
+     */
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    @ResponseBody
+    public ResponseEntity<ApiError> handlePasswordHashingRejectedException(PasswordHashingRejectedException e,
+            HttpServletRequest req) {
+        return errorToResponse(ApiError.builder()
+                .type(ErrorType.UNKNOWN)
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .code(ErrorCode.SERVICE_UNAVAILABLE)
+                .message(e.getMessage())
+                .build());
+    }
+
     /**
      * Handles all others exceptions.
      * <p>
@@ -10,6 +10,7 @@ import com.paymybuddy.api.model.transaction.Transaction;
 import com.paymybuddy.api.model.user.User;
 import com.paymybuddy.api.model.user.UserBalancesResponse;
 import com.paymybuddy.api.request.auth.RegisterRequest;
+import com.paymybuddy.api.request.transaction.CreateTransactionBatchRequest;
 import com.paymybuddy.api.request.transaction.CreateTransactionRequest;
 import com.paymybuddy.api.request.transaction.WithdrawToBankRequest;
 import com.paymybuddy.api.request.user.AddContactRequest;
@@ -36,6 +37,9 @@ import com.paymybuddy.server.springdoc.param.ApiPageRequestParameter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 import javax.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -70,6 +74,14 @@ public class UserController {
             .sortableProperty("name")
             .defaultSort("name")
             .build();
+    private static final CursorRequestParser CONTACT_CURSOR_REQUEST_PARSER = CursorRequestParser.builder()
+            .minPageSize(1) // FIXME: small value for tests/examples only
+            .maxPageSize(100)
+            .defaultPageSize(20)
+            .sortableProperty("email")
+            .sortableProperty("name")
+            .defaultSort("name")
+            .build();
     private static final CursorRequestParser TRANSACTION_REQUEST_PARSER = CursorRequestParser.builder()
             .minPageSize(1) // FIXME: small value for tests/examples only
             .maxPageSize(100)
@@ -126,6 +138,20 @@ public class UserController {
         return contactService.listContacts(auth.getUserId(), CONTACT_REQUEST_PARSER.of(webRequest::getParameter));
     }
 
+    @Operation(
+            summary = "Returns the user's contact list, by cursor.",
+            description = "Unlike the paginated contact list, the cost of a page does not depend on its depth."
+    )
+    @ApiCursorRequestParameter
+    @PreAuthorize("isAuthenticated()")
+    @JsonRequestMapping(method = RequestMethod.GET, value = "/contact-cursor")
+    public CursorResponse<User> listContactsByCursor(
+            @AuthenticationPrincipal AuthGuard auth,
+            WebRequest webRequest
+    ) {
+        return contactService.listContactsByCursor(auth.getUserId(), CONTACT_CURSOR_REQUEST_PARSER.of(webRequest::getParameter));
+    }
+
     @Operation(
             summary = "Adds a contact to the user."
     )
@@ -219,6 +245,38 @@ public class UserController {
                 userId, recipientId, body.getCurrency(), body.getAmount(), body.getDescription(), DateUtil.now());
     }
 
+    @Operation(
+            summary = "Create several transactions at once.",
+            description = "The batch is all-or-nothing: if any transaction is rejected (eg. the recipient is not a "
+                    + "contact, or the user has not enough funds to cover all the transactions in a currency), none is "
+                    + "created. The created transactions are returned in the request order."
+    )
+    @ApiErrorResponse(method = "handleContactNotFoundException")
+    @ApiErrorResponse(method = "handleNotEnoughFundsException")
+    @PreAuthorize("isAuthenticated()")
+    @JsonRequestMapping(method = RequestMethod.POST, value = "/transaction/batch")
+    public ListResponse<Transaction> createTransactions(
+            @AuthenticationPrincipal AuthGuard auth,
+            @RequestBody @Validated CreateTransactionBatchRequest body
+    ) {
+        long userId = auth.getUserId();
+        Set<Long> recipientIds = body.getTransactions().stream()
+                .map(CreateTransactionRequest::getRecipientId)
+                .collect(Collectors.toSet());
+        if (!contactService.areContacts(userId, recipientIds)) {
+            throw new ContactNotFoundException();
+        }
+        List<TransactionService.NewTransaction> transactions = body.getTransactions().stream()
+                .map(transaction -> TransactionService.NewTransaction.builder()
+                        .recipientId(transaction.getRecipientId())
+                        .currency(transaction.getCurrency())
+                        .amount(transaction.getAmount())
+                        .description(transaction.getDescription())
+                        .build())
+                .collect(Collectors.toList());
+        return ListResponse.of(transactionService.createTransactions(userId, transactions, DateUtil.now()));
+    }
+
     @Operation(
             summary = "Withdraw balance to a bank account."
     )
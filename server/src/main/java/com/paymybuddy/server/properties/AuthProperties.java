@@ -0,0 +1,113 @@
+package com.paymybuddy.server.properties;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@ConfigurationProperties(prefix = "paymybuddy.auth")
+@Data
+@Validated
+public class AuthProperties {
+    /**
+     * Keys used to sign the auth tokens, as {@code <keyId>:<base64 secret>} (the first one signs the new tokens, all
+     * of them verify the existing tokens).
+     */
+    private @NotEmpty List<String> tokenKeys;
+
+    /**
+     * Date until which the unsigned auth tokens (created by the previous versions) are accepted ({@code null} to
+     * reject them).
+     */
+    private Instant unsignedTokensUntil;
+
+    /**
+     * Number of passwords hashed at the same time.
+     */
+    private @Positive int passwordHashingThreads;
+
+    /**
+     * Maximum number of passwords waiting to be hashed (further requests are rejected).
+     */
+    private @Positive int passwordHashingQueueSize;
+
+    /**
+     * Maximum number of password encoding upgrades started per second.
+     */
+    private @Positive double passwordUpgradeRate;
+
+    /**
+     * Maximum number of users (resolved by the authenticated requests) cached in-process (0 to disable the cache).
+     */
+    private @PositiveOrZero long userCacheSize;
+
+    /**
+     * Delay after which a cached user expires.
+     */
+    private @NotNull Duration userCacheTtl;
+
+    /**
+     * Where the auth sessions are stored.
+     */
+    private @NotNull SessionStore sessionStore;
+
+    /**
+     * File to snapshot the auth sessions to on shutdown, and to restore them from on startup (memory store only -
+     * empty to lose the sessions on shutdown).
+     */
+    private String sessionSnapshotFile;
+
+    /**
+     * Format of the auth sessions written to Redis (both formats are always readable).
+     */
+    private @NotNull SessionFormat sessionFormat;
+
+    /**
+     * Maximum number of auth sessions cached in-process (0 to disable the cache).
+     */
+    private @PositiveOrZero long sessionCacheSize;
+
+    /**
+     * Delay after which a cached auth session expires.
+     */
+    private @NotNull Duration sessionCacheTtl;
+
+    /**
+     * Maximum number of expired auth sessions deleted per sweep.
+     */
+    private @Positive int sessionSweepBatchSize;
+
+    /**
+     * Delay between two sweeps of the expired auth sessions.
+     */
+    private @NotNull Duration sessionSweepInterval;
+
+    public enum SessionStore {
+        /**
+         * Redis (see {@link com.paymybuddy.auth.LettuceAuthStore}), shared by all the servers.
+         */
+        REDIS,
+        /**
+         * In-process (see {@link com.paymybuddy.auth.MemoryAuthStore}), for single-server deployments (no Redis
+         * required).
+         */
+        MEMORY,
+    }
+
+    public enum SessionFormat {
+        /**
+         * Compact binary format (see {@link com.paymybuddy.auth.BinaryAuthGuardDataSerializer}).
+         */
+        BINARY,
+        /**
+         * JSON format, readable by the previous versions (see {@link com.paymybuddy.auth.JsonAuthGuardDataSerializer}).
+         */
+        JSON,
+    }
+}
@@ -0,0 +1,23 @@
+package com.paymybuddy.server.properties;
+
+import java.time.Duration;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@ConfigurationProperties(prefix = "paymybuddy.contact-search")
+@Data
+@Validated
+public class ContactSearchProperties {
+    /**
+     * Maximum number of contacts indexed in-process (in all the cached per-user search indexes).
+     */
+    private @Positive long indexedContacts;
+
+    /**
+     * Delay after which a cached search index expires.
+     */
+    private @NotNull Duration indexTtl;
+}
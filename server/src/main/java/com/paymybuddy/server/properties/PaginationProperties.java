@@ -0,0 +1,16 @@
+package com.paymybuddy.server.properties;
+
+import javax.validation.constraints.NotEmpty;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@ConfigurationProperties(prefix = "paymybuddy.pagination")
+@Data
+@Validated
+public class PaginationProperties {
+    /**
+     * Key used to sign the pagination cursors (base64 encoded, at least 32 bytes).
+     */
+    private @NotEmpty String cursorKey;
+}
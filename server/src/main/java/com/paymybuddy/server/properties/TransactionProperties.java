@@ -0,0 +1,16 @@
+package com.paymybuddy.server.properties;
+
+import javax.validation.constraints.PositiveOrZero;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@ConfigurationProperties(prefix = "paymybuddy.transaction")
+@Data
+@Validated
+public class TransactionProperties {
+    /**
+     * Number of in-process user lock stripes (0 to disable in-process locks).
+     */
+    private @PositiveOrZero int userLockStripes;
+}
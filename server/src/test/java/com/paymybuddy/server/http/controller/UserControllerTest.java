@@ -11,6 +11,7 @@ import com.paymybuddy.api.model.user.User;
 import com.paymybuddy.api.model.user.UserBalance;
 import com.paymybuddy.api.model.user.UserBalancesResponse;
 import com.paymybuddy.api.request.auth.RegisterRequest;
+import com.paymybuddy.api.request.transaction.CreateTransactionBatchRequest;
 import com.paymybuddy.api.request.transaction.CreateTransactionRequest;
 import com.paymybuddy.api.request.transaction.WithdrawToBankRequest;
 import com.paymybuddy.api.request.user.AddContactRequest;
@@ -34,9 +35,13 @@ import com.paymybuddy.server.mock.MockUsers;
 import com.paymybuddy.server.mock.TestControllerConfig;
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -223,6 +228,23 @@ class UserControllerTest {
         );
     }
 
+    @Test
+    @MockAuthGuard.WithAuthToken
+    void listContactsByCursor() throws Exception {
+        User user = MockAuthGuard.get().getUser();
+        when(contactService.listContactsByCursor(eq(user.getId()), any())).thenReturn(CursorResponse.<User>builder()
+                .hasPrev(false)
+                .prevCursor("a")
+                .hasNext(true)
+                .nextCursor("b")
+                .record(MockUsers.newContact(2L))
+                .record(MockUsers.newContact(3L))
+                .build());
+        toMatchSnapshot(
+                mockMvc.perform(get("/user/contact-cursor")).andReturn()
+        );
+    }
+
     @Test
     @MockAuthGuard.WithAuthToken
     void addContact() throws Exception {
@@ -360,6 +382,61 @@ class UserControllerTest {
         );
     }
 
+    @Test
+    @MockAuthGuard.WithAuthToken
+    void createTransactions() throws Exception {
+        User user = MockAuthGuard.get().getUser();
+        BigDecimal userAmount = new BigDecimal("10.00");
+        User recipient = MockUsers.newContact(2L);
+        when(contactService.areContacts(eq(user.getId()), any())).thenAnswer(m -> {
+            Collection<Long> contactIds = m.getArgument(1);
+            return Collections.singleton(recipient.getId()).containsAll(contactIds);
+        });
+        when(transactionService.createTransactions(eq(user.getId()), any(), any())).thenAnswer(m -> {
+            List<TransactionService.NewTransaction> transactions = m.getArgument(1);
+            BigDecimal amount = transactions.stream().map(TransactionService.NewTransaction::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+            if (amount.compareTo(userAmount) > 0) {
+                throw new NotEnoughFundsException(Currency.USD, amount.subtract(userAmount));
+            }
+            return LongStream.rangeClosed(1L, transactions.size()).mapToObj(MockTransactions::newTransaction).collect(Collectors.toList());
+        });
+        toMatchSnapshot(
+                mockMvc.perform(post("/user/transaction/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(CreateTransactionBatchRequest.builder()
+                                .transactions(Arrays.asList(
+                                        newCreateTransactionRequest(recipient.getId(), "2.00", "First"),
+                                        newCreateTransactionRequest(recipient.getId(), "3.00", "Second")))
+                                .build())))
+                        .andReturn(),
+                mockMvc.perform(post("/user/transaction/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(CreateTransactionBatchRequest.builder()
+                                .transactions(Arrays.asList(
+                                        newCreateTransactionRequest(recipient.getId(), "5.00", "First"),
+                                        newCreateTransactionRequest(recipient.getId(), "7.00", "Too many")))
+                                .build())))
+                        .andReturn(),
+                mockMvc.perform(post("/user/transaction/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(CreateTransactionBatchRequest.builder()
+                                .transactions(Arrays.asList(
+                                        newCreateTransactionRequest(recipient.getId(), "5.00", "First"),
+                                        newCreateTransactionRequest(3L, "5.00", "Not contact")))
+                                .build())))
+                        .andReturn()
+        );
+    }
+
+    private static CreateTransactionRequest newCreateTransactionRequest(long recipientId, String amount, String description) {
+        return CreateTransactionRequest.builder()
+                .recipientId(recipientId)
+                .currency(Currency.USD)
+                .amount(new BigDecimal(amount))
+                .description(description)
+                .build();
+    }
+
     @Test
     @MockAuthGuard.WithAuthToken
     void withdrawToBankAccount() throws Exception {